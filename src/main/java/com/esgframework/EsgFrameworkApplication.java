@@ -7,10 +7,12 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.esgframework.services.MetricCategoryService;
 
 @SpringBootApplication
+@EnableScheduling
 public class EsgFrameworkApplication {
     private static final Logger logger = LoggerFactory.getLogger(EsgFrameworkApplication.class);
 
@@ -114,7 +114,10 @@ public class SecurityConfig {
         ));
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization", 
-            "Content-Disposition"
+            "Content-Disposition",
+            SqlMetricsResponseAdvice.STATEMENTS_HEADER,
+            SqlMetricsResponseAdvice.TIME_HEADER,
+            SqlMetricsResponseAdvice.SLOWEST_HEADER
         ));
         // Allow cookies and credentials
         configuration.setAllowCredentials(true);
@@ -0,0 +1,52 @@
+package com.esgframework.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's data source through datasource-proxy so that every JDBC statement is timed; see
+ * {@link SqlStatementListener} and {@link SqlMetricsInterceptor}. The metrics are read from
+ * {@code /actuator/metrics}. This replaces {@code spring.jpa.show-sql}, which is only enabled in the dev
+ * profile.
+ */
+@Configuration
+public class SqlMetricsConfig {
+
+    // Not given the meter registry: being a MeterBinder, it is bound once the registry exists
+    @Bean
+    public SqlStatementListener sqlStatementListener() {
+        return new SqlStatementListener();
+    }
+
+    @Bean
+    public SqlMetricsInterceptor sqlMetricsInterceptor(MeterRegistry meterRegistry,
+                                                       @Value("${app.sql.slow-statement-ms:500}") long slowStatementMillis) {
+        return new SqlMetricsInterceptor(meterRegistry, slowStatementMillis);
+    }
+
+    // Static so that post-processing the data source does not initialize this configuration early
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourceProxy(ObjectProvider<SqlStatementListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
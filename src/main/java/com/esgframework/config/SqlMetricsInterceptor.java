@@ -0,0 +1,100 @@
+package com.esgframework.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the SQL statements of each controller call and publishes them per handler, tagged e.g.
+ * {@code handler=GHGEmissionController.getCompanyEmissions}:
+ * <ul>
+ *   <li>{@code sql.request.statements}: statements per request</li>
+ *   <li>{@code sql.request.time}: total statement time per request</li>
+ *   <li>{@code sql.request.slowest}: slowest statement per request</li>
+ * </ul>
+ * Requests whose slowest statement exceeds {@code app.sql.slow-statement-ms} are logged with that statement.
+ * An asynchronous request is published once, when its last dispatch completes; the statements of a streaming
+ * body, which run on another thread, are not included.
+ */
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    // Carries the statistics of an asynchronous request from its first dispatch to the next one
+    private static final String STATISTICS_ATTRIBUTE = SqlMetricsInterceptor.class.getName() + ".statistics";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowStatementMillis;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, long slowStatementMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementMillis = slowStatementMillis;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            if (request.getAttribute(STATISTICS_ATTRIBUTE) instanceof SqlRequestStatistics statistics) {
+                request.removeAttribute(STATISTICS_ATTRIBUTE);
+                SqlRequestStatistics.resume(statistics);
+            }
+        } else if (handler instanceof HandlerMethod method) {
+            SqlRequestStatistics.start(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        // The container thread is released; afterCompletion of the async dispatch publishes
+        SqlRequestStatistics statistics = SqlRequestStatistics.finish();
+        if (statistics != null) {
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        }
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        publish(SqlRequestStatistics.finish());
+    }
+
+    private void publish(SqlRequestStatistics statistics) {
+        if (statistics == null) {
+            return;
+        }
+        String handler = statistics.getHandler();
+        DistributionSummary.builder("sql.request.statements")
+            .description("SQL statements executed per request")
+            .tag("handler", handler)
+            .register(meterRegistry)
+            .record(statistics.getStatements());
+        Timer.builder("sql.request.time")
+            .description("Total SQL time per request")
+            .tag("handler", handler)
+            .register(meterRegistry)
+            .record(statistics.getTotalMillis(), TimeUnit.MILLISECONDS);
+        if (statistics.getSlowestMillis() >= 0) {
+            Timer.builder("sql.request.slowest")
+                .description("Slowest SQL statement per request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(statistics.getSlowestMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (statistics.getSlowestMillis() >= slowStatementMillis) {
+            logger.warn("{} ran {} statements in {} ms; slowest took {} ms: {}", handler, statistics.getStatements(),
+                statistics.getTotalMillis(), statistics.getSlowestMillis(), statistics.getSlowestSql());
+        }
+    }
+}
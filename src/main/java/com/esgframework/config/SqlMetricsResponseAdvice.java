@@ -0,0 +1,45 @@
+package com.esgframework.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL statistics as response headers when {@code app.sql.response-headers} is set, as in
+ * the dev profile. The headers are written before the body, so statements run while serializing it (lazy
+ * loading) are only in the metrics.
+ */
+@ControllerAdvice
+public class SqlMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String SLOWEST_HEADER = "X-SQL-Slowest-Ms";
+
+    @Value("${app.sql.response-headers:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(TIME_HEADER, String.valueOf(statistics.getTotalMillis()));
+            response.getHeaders().set(SLOWEST_HEADER, String.valueOf(Math.max(statistics.getSlowestMillis(), 0)));
+        }
+        return body;
+    }
+}
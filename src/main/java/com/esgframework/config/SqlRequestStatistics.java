@@ -0,0 +1,82 @@
+package com.esgframework.config;
+
+/**
+ * SQL statements executed by the current request thread. Started by {@link SqlMetricsInterceptor} for each
+ * controller call and fed by {@link SqlStatementListener}; statements on other threads, such as import
+ * workers, are not attributed to a request.
+ */
+public final class SqlRequestStatistics {
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private int statements;
+    private long totalMillis;
+    private long slowestMillis = -1;
+    private String slowestSql;
+
+    private SqlRequestStatistics(String handler) {
+        this.handler = handler;
+    }
+
+    static void start(String handler) {
+        CURRENT.set(new SqlRequestStatistics(handler));
+    }
+
+    /**
+     * Continues collecting into statistics started by an earlier dispatch of the same request.
+     */
+    static void resume(SqlRequestStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    /**
+     * @return the statistics of the request on this thread, or null outside a request
+     */
+    static SqlRequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    static SqlRequestStatistics finish() {
+        SqlRequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    void record(long elapsedMillis, String sql) {
+        statements++;
+        totalMillis += elapsedMillis;
+        if (elapsedMillis > slowestMillis) {
+            slowestMillis = elapsedMillis;
+            slowestSql = sql;
+        }
+    }
+
+    /**
+     * Controller method in the form {@code GHGEmissionController.getCompanyEmissions}.
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Statement executions; a JDBC batch counts once.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * @return duration of the slowest statement, or -1 if none ran
+     */
+    public long getSlowestMillis() {
+        return slowestMillis;
+    }
+
+    public String getSlowestSql() {
+        return slowestSql;
+    }
+}
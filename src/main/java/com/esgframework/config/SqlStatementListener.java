@@ -0,0 +1,66 @@
+package com.esgframework.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every statement sent through the proxied data source. All statements feed the {@code sql.statements}
+ * timer; those run by a request thread are also added to its {@link SqlRequestStatistics}.
+ * <p>
+ * The timers are registered when Spring Boot binds the listener to the meter registry rather than in the
+ * constructor: the registry's own data source metrics need the proxied data source, and so this listener,
+ * before the registry exists. Statements run before that are not timed.
+ */
+public class SqlStatementListener implements QueryExecutionListener, MeterBinder {
+    private volatile Timer statements;
+    private volatile Timer failedStatements;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        this.failedStatements = Timer.builder("sql.statements")
+            .description("Execution time of JDBC statements")
+            .tag("outcome", "error")
+            .register(meterRegistry);
+        this.statements = Timer.builder("sql.statements")
+            .description("Execution time of JDBC statements")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        Timer timer = execInfo.isSuccess() ? statements : failedStatements;
+        if (timer != null) {
+            timer.record(elapsedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        if (statistics != null) {
+            statistics.record(elapsedMillis, sql(queryInfoList));
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return queryInfoList.get(0).getQuery();
+        }
+        StringJoiner joined = new StringJoiner("; ");
+        for (QueryInfo queryInfo : queryInfoList) {
+            joined.add(queryInfo.getQuery());
+        }
+        return joined.toString();
+    }
+}
@@ -1,15 +1,24 @@
 package com.esgframework.controllers;
 
 import com.esgframework.models.Company;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.services.CompanyScorecardService;
 import com.esgframework.services.CompanyService;
+import com.esgframework.services.PortfolioAnalyticsService;
+import com.esgframework.utils.StreamingErrors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/companies")
@@ -18,6 +27,33 @@ public class CompanyController {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private CompanyScorecardService scorecardService;
+
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
+    /**
+     * Emission totals and year-over-year trend of all companies, streamed as JSON. Counts
+     * approved emissions unless other statuses are given.
+     */
+    @GetMapping("/portfolio")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<StreamingResponseBody> getPortfolioAnalytics(
+            @RequestParam(value = "status", required = false) Set<SubmissionStatus> statuses,
+            @RequestParam(value = "fromYear", required = false) Integer fromYear,
+            @RequestParam(value = "toYear", required = false) Integer toYear,
+            @RequestParam(value = "industry", required = false) String industry) {
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            return StreamingErrors.error(HttpStatus.BAD_REQUEST, "fromYear must not be after toYear");
+        }
+        Set<SubmissionStatus> selected = statuses != null && !statuses.isEmpty()
+            ? EnumSet.copyOf(statuses) : EnumSet.of(SubmissionStatus.APPROVED);
+        StreamingResponseBody body = outputStream ->
+            portfolioAnalyticsService.writePortfolio(selected, fromYear, toYear, industry, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('admin')")
     public ResponseEntity<?> getCompanies() {
@@ -55,4 +91,11 @@ public class CompanyController {
     public ResponseEntity<?> getCompanyMetrics(@PathVariable Long id) {
         return ResponseEntity.ok(companyService.getCompanyMetrics(id));
     }
+
+    @PostMapping("/{id}/metrics/rebuild")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> rebuildCompanyMetrics(@PathVariable Long id) {
+        int buckets = companyService.rebuildEmissionRollups(id);
+        return ResponseEntity.ok(Map.of("buckets", buckets, "scorecardEntries", scorecardService.refresh(id)));
+    }
 }
@@ -0,0 +1,100 @@
+package com.esgframework.controllers;
+
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionFactor;
+import com.esgframework.services.EmissionFactorRecalculationService;
+import com.esgframework.services.EmissionFactorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Map;
+
+/**
+ * The emission factor catalog that the CO2e of emissions is computed from. Changes answer with the
+ * recalculation job they started, whose progress is polled under {@code /recalculations/{jobId}}.
+ */
+@RestController
+@RequestMapping("/api/emission-factors")
+public class EmissionFactorController {
+
+    @Autowired
+    private EmissionFactorService emissionFactorService;
+
+    @Autowired
+    private EmissionFactorRecalculationService recalculationService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('admin', 'manager')")
+    public ResponseEntity<?> getFactors() {
+        return ResponseEntity.ok(emissionFactorService.getFactors());
+    }
+
+    @GetMapping("/index")
+    @PreAuthorize("hasAnyRole('admin', 'manager')")
+    public ResponseEntity<?> getIndex() {
+        return ResponseEntity.ok(emissionFactorService.getIndexInfo());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> createFactor(@RequestBody EmissionFactor factor) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(emissionFactorService.createFactor(factor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> updateFactor(@PathVariable Long id, @RequestBody EmissionFactor factor) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(emissionFactorService.updateFactor(id, factor));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> deleteFactor(@PathVariable Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(emissionFactorService.deleteFactor(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recalculations")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> recalculate(@RequestParam(value = "category", required = false) EmissionCategory category,
+                                         @RequestParam(value = "companyId", required = false) Long companyId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(emissionFactorService.recalculate(category, companyId));
+    }
+
+    @GetMapping("/recalculations/{jobId}")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> getRecalculation(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(recalculationService.getJobStatus(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/recalculations/{jobId}")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> cancelRecalculation(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(recalculationService.cancel(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
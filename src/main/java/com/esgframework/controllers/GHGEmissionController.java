@@ -1,18 +1,56 @@
 package com.esgframework.controllers;
 
+import com.esgframework.dto.BulkImportReport;
+import com.esgframework.dto.CSVImportResult;
+import com.esgframework.dto.EmissionTotal;
+import com.esgframework.dto.GHGEmissionSummary;
+import com.esgframework.dto.KeysetPage;
 import com.esgframework.models.GHGEmission;
 import com.esgframework.models.EmissionScope;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.models.TimeFrame;
+import com.esgframework.repositories.GHGEmissionAggregateRepository.GroupBy;
 import com.esgframework.services.GHGEmissionService;
+import com.esgframework.dto.CSVImportJobStatus;
+import com.esgframework.dto.CSVImportOptions;
+import com.esgframework.services.CSVBulkImportService;
+import com.esgframework.services.CSVImportJobService;
+import com.esgframework.services.CSVImportProgressListener;
+import com.esgframework.services.CSVRejectionReport;
+import com.esgframework.services.CSVRejectionReportRegistry;
 import com.esgframework.services.CSVService;
+import com.esgframework.services.EmissionCategoryMapper;
+import com.esgframework.services.ExportService;
+import com.esgframework.utils.KeysetCursor;
+import com.esgframework.utils.StreamingErrors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.persistence.EntityNotFoundException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,27 +61,48 @@ import org.slf4j.LoggerFactory;
 public class GHGEmissionController {
     @GetMapping("/company/pending")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('manager')")
-    public org.springframework.http.ResponseEntity<java.util.List<com.esgframework.models.GHGEmission>> getPendingGHGEmissionsForManager() {
-        java.util.List<com.esgframework.models.GHGEmission> emissions = ghgEmissionService.getPendingEmissionsForCompany();
-        return org.springframework.http.ResponseEntity.ok(emissions);
+    public ResponseEntity<?> getPendingGHGEmissionsForManager(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return listing(page, size, cursor,
+            () -> ghgEmissionService.getPendingEmissionsForCompany(),
+            pageable -> ghgEmissionService.getPendingEmissionsForCompany(pageable),
+            (after, limit) -> ghgEmissionService.getPendingEmissionsForCompany(after, limit));
     }
     
     @GetMapping("/company")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('manager') or hasRole('representative')")
-    public ResponseEntity<List<GHGEmission>> getAllGHGEmissionsForCompany() {
+    public ResponseEntity<?> getAllGHGEmissionsForCompany(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         logger.info("Retrieving all GHG emissions for current company");
-        List<GHGEmission> emissions = ghgEmissionService.getAllEmissionsForCompany();
-        logger.info("Found {} total GHG emission records", emissions.size());
-        return ResponseEntity.ok(emissions);
+        return listing(page, size, cursor,
+            () -> {
+                List<GHGEmissionSummary> emissions = ghgEmissionService.getAllEmissionsForCompany();
+                logger.info("Found {} total GHG emission records", emissions.size());
+                return emissions;
+            },
+            pageable -> ghgEmissionService.getAllEmissionsForCompany(pageable),
+            (after, limit) -> ghgEmissionService.getAllEmissionsForCompany(after, limit));
     }
     
     @GetMapping("/history")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('manager') or hasRole('representative')")
-    public ResponseEntity<List<GHGEmission>> getGHGEmissionsHistory() {
+    public ResponseEntity<?> getGHGEmissionsHistory(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         logger.info("Retrieving GHG emissions history");
-        List<GHGEmission> emissions = ghgEmissionService.getEmissionsHistory();
-        logger.info("Found {} GHG emission history records", emissions.size());
-        return ResponseEntity.ok(emissions);
+        return listing(page, size, cursor,
+            () -> {
+                List<GHGEmissionSummary> emissions = ghgEmissionService.getEmissionsHistory();
+                logger.info("Found {} GHG emission history records", emissions.size());
+                return emissions;
+            },
+            pageable -> ghgEmissionService.getEmissionsHistory(pageable),
+            (after, limit) -> ghgEmissionService.getEmissionsHistory(after, limit));
     }
     private static final Logger logger = LoggerFactory.getLogger(GHGEmissionController.class);
     @Autowired
@@ -51,6 +110,38 @@ public class GHGEmissionController {
     
     @Autowired
     private CSVService csvService;
+    
+    @Autowired
+    private CSVImportJobService csvImportJobService;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private CSVBulkImportService csvBulkImportService;
+    
+    @Autowired
+    private EmissionCategoryMapper emissionCategoryMapper;
+    
+    @Autowired
+    private CSVRejectionReportRegistry rejectionReportRegistry;
+    
+    private static final int REJECTIONS_IN_RESPONSE = 100;
+    
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    
+    @Value("${app.import.chunk-size:1000}")
+    private int importChunkSize;
+    
+    @Value("${app.import.max-chunk-size:10000}")
+    private int maxImportChunkSize;
+    
+    @Value("${app.import.parallelism:1}")
+    private int importParallelism;
 
     @PostMapping
     public ResponseEntity<?> submitEmission(@RequestBody GHGEmission emission) {
@@ -94,32 +185,168 @@ public class GHGEmissionController {
     }
 
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<List<GHGEmission>> getCompanyEmissions(@PathVariable Long companyId) {
+    public ResponseEntity<?> getCompanyEmissions(
+            @PathVariable Long companyId,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         logger.info("Retrieving all GHG emissions for company ID: {}", companyId);
-        List<GHGEmission> emissions = ghgEmissionService.getCompanyEmissions(companyId);
-        logger.info("Found {} GHG emission records for company {}", emissions.size(), companyId);
-        return ResponseEntity.ok(emissions);
+        return listing(page, size, cursor,
+            () -> {
+                List<GHGEmissionSummary> emissions = ghgEmissionService.getCompanyEmissions(companyId);
+                logger.info("Found {} GHG emission records for company {}", emissions.size(), companyId);
+                return emissions;
+            },
+            pageable -> ghgEmissionService.getCompanyEmissions(companyId, pageable),
+            (after, limit) -> ghgEmissionService.getCompanyEmissions(companyId, after, limit));
     }
 
     @GetMapping("/company/{companyId}/scope/{scope}")
-    public ResponseEntity<List<GHGEmission>> getCompanyEmissionsByScope(
+    public ResponseEntity<?> getCompanyEmissionsByScope(
             @PathVariable Long companyId,
-            @PathVariable EmissionScope scope) {
+            @PathVariable EmissionScope scope,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         logger.info("Retrieving GHG emissions for company ID: {} and scope: {}", companyId, scope);
-        List<GHGEmission> emissions = ghgEmissionService.getCompanyEmissionsByScope(companyId, scope);
-        logger.info("Found {} GHG emission records for company {} and scope {}", emissions.size(), companyId, scope);
-        return ResponseEntity.ok(emissions);
+        return listing(page, size, cursor,
+            () -> {
+                List<GHGEmissionSummary> emissions = ghgEmissionService.getCompanyEmissionsByScope(companyId, scope);
+                logger.info("Found {} GHG emission records for company {} and scope {}", emissions.size(), companyId, scope);
+                return emissions;
+            },
+            pageable -> ghgEmissionService.getCompanyEmissionsByScope(companyId, scope, pageable),
+            (after, limit) -> ghgEmissionService.getCompanyEmissionsByScope(companyId, scope, after, limit));
     }
 
+    /**
+     * Emissions whose start date is in the range, both ends included.
+     */
     @GetMapping("/company/{companyId}/date-range")
-    public ResponseEntity<List<GHGEmission>> getCompanyEmissionsByDateRange(
+    public ResponseEntity<?> getCompanyEmissionsByDateRange(
             @PathVariable Long companyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         logger.info("Retrieving GHG emissions for company ID: {} between {} and {}", companyId, startDate, endDate);
-        List<GHGEmission> emissions = ghgEmissionService.getCompanyEmissionsByDateRange(companyId, startDate, endDate);
-        logger.info("Found {} GHG emission records for company {} in date range", emissions.size(), companyId);
-        return ResponseEntity.ok(emissions);
+        return listing(page, size, cursor,
+            () -> {
+                List<GHGEmissionSummary> emissions = ghgEmissionService.getCompanyEmissionsByDateRange(companyId, startDate, endDate);
+                logger.info("Found {} GHG emission records for company {} in date range", emissions.size(), companyId);
+                return emissions;
+            },
+            pageable -> ghgEmissionService.getCompanyEmissionsByDateRange(companyId, startDate, endDate, pageable),
+            (after, limit) -> ghgEmissionService.getCompanyEmissionsByDateRange(companyId, startDate, endDate, after, limit));
+    }
+    
+    /**
+     * Answers a listing request in one of three shapes, newest first when paged: a keyset page when a cursor
+     * is given (empty for the first page), an offset page when page or size is given, else the whole list.
+     */
+    private <T> ResponseEntity<?> listing(Integer page, Integer size, String cursor, Supplier<List<T>> all,
+                                          Function<Pageable, Page<T>> paged,
+                                          BiFunction<KeysetCursor, Integer, KeysetPage<T>> keyset) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (page != null && page < 0)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid page request",
+                "message", "page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE
+            ));
+        }
+        if (cursor != null) {
+            KeysetCursor after;
+            try {
+                after = cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+            return ResponseEntity.ok(keyset.apply(after, pageSize));
+        }
+        if (page != null || size != null) {
+            return ResponseEntity.ok(paged.apply(PageRequest.of(page != null ? page : 0, pageSize, NEWEST_FIRST)));
+        }
+        return ResponseEntity.ok(all.get());
+    }
+    
+    /**
+     * Totals for a company computed by the database, e.g. {@code groupBy=scope,period&period=MONTHLY}.
+     * Dates filter on the start date; the end date is exclusive.
+     */
+    @GetMapping("/company/{companyId}/totals")
+    public ResponseEntity<?> getCompanyEmissionTotals(
+            @PathVariable Long companyId,
+            @RequestParam(value = "groupBy", defaultValue = "scope") List<String> groupBy,
+            @RequestParam(value = "period", defaultValue = "MONTHLY") String period,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "status", required = false) String status) {
+        Set<GroupBy> dimensions = EnumSet.noneOf(GroupBy.class);
+        for (String dimension : groupBy) {
+            if (!isValidOption(GroupBy.values(), dimension)) {
+                return invalidOptionResponse("groupBy", GroupBy.values());
+            }
+            dimensions.add(GroupBy.valueOf(dimension.trim().toUpperCase()));
+        }
+        if (!isValidOption(TimeFrame.values(), period) || period.trim().equalsIgnoreCase(TimeFrame.CUSTOM.name())) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid period value",
+                "message", "Valid values are: daily, weekly, monthly, yearly"
+            ));
+        }
+        if (status != null && !isValidOption(SubmissionStatus.values(), status)) {
+            return invalidOptionResponse("status", SubmissionStatus.values());
+        }
+        
+        List<EmissionTotal> totals = ghgEmissionService.getCompanyEmissionTotals(companyId, dimensions,
+            TimeFrame.valueOf(period.trim().toUpperCase()), startDate, endDate,
+            status != null ? SubmissionStatus.valueOf(status.trim().toUpperCase()) : null);
+        return ResponseEntity.ok(totals);
+    }
+    
+    /**
+     * Streams the company's GHG emissions as CSV, NDJSON or Parquet, optionally only those with the given
+     * statuses.
+     */
+    @GetMapping("/export")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('manager') or hasRole('representative')")
+    public ResponseEntity<StreamingResponseBody> exportGHGEmissions(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "status", required = false) Set<SubmissionStatus> statuses) {
+        ExportService.Format exportFormat;
+        Long companyId;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+            companyId = exportService.getExportCompanyId();
+        } catch (IllegalArgumentException e) {
+            return StreamingErrors.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (SecurityException e) {
+            return StreamingErrors.error(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+        Set<SubmissionStatus> selected = statuses != null && !statuses.isEmpty()
+            ? EnumSet.copyOf(statuses) : EnumSet.allOf(SubmissionStatus.class);
+        StreamingResponseBody body = outputStream ->
+            exportService.exportEmissions(companyId, selected, exportFormat, outputStream);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName("ghg-emissions") + "\"")
+            .body(body);
+    }
+    
+    /**
+     * One emission in full, including its company and users. Listings return {@link GHGEmissionSummary} rows.
+     */
+    @GetMapping("/{id}")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('manager') or hasRole('representative')")
+    public ResponseEntity<?> getEmission(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ghgEmissionService.getEmission(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
     }
     
     @PutMapping("/{id}/status")
@@ -150,9 +377,14 @@ public class GHGEmissionController {
     public ResponseEntity<?> uploadCSV(
             @RequestParam("file") MultipartFile file,
             @RequestParam("scope") String scopeStr,
-            @RequestParam("companyId") Long companyId) {
+            @RequestParam("companyId") Long companyId,
+            @RequestParam(value = "mode", defaultValue = "batch") String mode,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "parallelism", required = false) Integer parallelism,
+            @RequestParam(value = "writeMode", defaultValue = "batch") String writeMode,
+            @RequestParam(value = "duplicates", defaultValue = "skip") String duplicates) {
         
-        logger.info("Received CSV upload request for scope: {} and company ID: {}", scopeStr, companyId);
+        logger.info("Received CSV upload request for scope: {} and company ID: {} (mode: {})", scopeStr, companyId, mode);
         logger.info("File name: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
         
         if (file.isEmpty()) {
@@ -160,9 +392,9 @@ public class GHGEmissionController {
             return ResponseEntity.badRequest().body(Map.of("error", "Please upload a CSV file"));
         }
         
-        if (!file.getOriginalFilename().endsWith(".csv")) {
+        if (!isImportFile(file.getOriginalFilename())) {
             logger.warn("Non-CSV file uploaded: {}", file.getOriginalFilename());
-            return ResponseEntity.badRequest().body(Map.of("error", "Only CSV files are allowed"));
+            return ResponseEntity.badRequest().body(Map.of("error", "Only CSV and XLSX files are allowed"));
         }
         
         try {
@@ -191,18 +423,53 @@ public class GHGEmissionController {
                 ));
             }
             
+            if (!mode.equalsIgnoreCase("batch") && !mode.equalsIgnoreCase("streaming")) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid mode value",
+                    "message", "Valid modes are: batch, streaming"
+                ));
+            }
+            
+            if (!isValidOption(CSVImportOptions.WriteMode.values(), writeMode)) {
+                return invalidOptionResponse("writeMode", CSVImportOptions.WriteMode.values());
+            }
+            if (!isValidOption(CSVImportOptions.DuplicateMode.values(), duplicates)) {
+                return invalidOptionResponse("duplicates", CSVImportOptions.DuplicateMode.values());
+            }
+            if (chunkSize != null && (chunkSize < 1 || chunkSize > maxImportChunkSize)) {
+                return outOfRangeResponse("chunkSize", maxImportChunkSize);
+            }
+            if (parallelism != null && (parallelism < 1 || parallelism > csvService.getMaxParallelism())) {
+                return outOfRangeResponse("parallelism", csvService.getMaxParallelism());
+            }
+            
             // Process the CSV file
+            CSVRejectionReport rejections = rejectionReportRegistry.newReport();
             try {
-                int recordsProcessed = csvService.processCSVFile(file, scope, companyId);
+                // Workbooks are only read through the streaming pipeline
+                if (mode.equalsIgnoreCase("streaming") || CSVService.isWorkbook(file.getOriginalFilename())) {
+                    CSVImportResult result = csvService.processCSVFileStreaming(file, scope, companyId,
+                        buildImportOptions(chunkSize, parallelism, writeMode, duplicates), CSVImportProgressListener.NONE, rejections);
+                    
+                    Map<String, Object> response = importResponse(result, scope, rejections);
+                    response.put("recordsRead", result.getRecordsRead());
+                    response.put("recordsSkipped", result.getRecordsSkipped());
+                    response.put("chunks", result.getChunks());
+                    response.put("elapsedMillis", result.getElapsedMillis());
+                    response.put("rowsPerSecond", result.getRowsPerSecond());
+                    
+                    logger.info("CSV file streamed successfully. Records processed: {}", result.getRecordsSaved());
+                    return ResponseEntity.ok(response);
+                }
                 
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "CSV file processed successfully");
-                response.put("recordsProcessed", recordsProcessed);
-                response.put("scope", scope.name());
+                CSVImportResult result = csvService.processCSVFile(file, scope, companyId,
+                    CSVImportOptions.DuplicateMode.valueOf(duplicates.trim().toUpperCase()), rejections);
+                Map<String, Object> response = importResponse(result, scope, rejections);
                 
-                logger.info("CSV file processed successfully. Records processed: {}", recordsProcessed);
+                logger.info("CSV file processed successfully. Records processed: {}", result.getRecordsSaved());
                 return ResponseEntity.ok(response);
             } catch (Exception e) {
+                rejections.discard();
                 logger.error("Error in CSV processing: {}", e.getMessage(), e);
                 return ResponseEntity.status(500).body(Map.of(
                     "error", "Failed to process CSV file",
@@ -224,4 +491,231 @@ public class GHGEmissionController {
             ));
         }
     }
+    
+    @PostMapping("/upload-csv/async")
+    public ResponseEntity<?> uploadCSVAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("scope") String scopeStr,
+            @RequestParam("companyId") Long companyId,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "parallelism", required = false) Integer parallelism,
+            @RequestParam(value = "writeMode", defaultValue = "batch") String writeMode,
+            @RequestParam(value = "duplicates", defaultValue = "skip") String duplicates) {
+        
+        logger.info("Received async CSV upload request for scope: {} and company ID: {}", scopeStr, companyId);
+        
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please upload a CSV file"));
+        }
+        if (!isImportFile(file.getOriginalFilename())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Only CSV and XLSX files are allowed"));
+        }
+        
+        EmissionScope scope;
+        try {
+            scope = EmissionScope.valueOf(scopeStr.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid scope value",
+                "message", "Valid scopes are: " + java.util.Arrays.toString(EmissionScope.values())
+            ));
+        }
+        
+        if (!isValidOption(CSVImportOptions.WriteMode.values(), writeMode)) {
+            return invalidOptionResponse("writeMode", CSVImportOptions.WriteMode.values());
+        }
+        if (!isValidOption(CSVImportOptions.DuplicateMode.values(), duplicates)) {
+            return invalidOptionResponse("duplicates", CSVImportOptions.DuplicateMode.values());
+        }
+        if (chunkSize != null && (chunkSize < 1 || chunkSize > maxImportChunkSize)) {
+            return outOfRangeResponse("chunkSize", maxImportChunkSize);
+        }
+        if (parallelism != null && (parallelism < 1 || parallelism > csvService.getMaxParallelism())) {
+            return outOfRangeResponse("parallelism", csvService.getMaxParallelism());
+        }
+        
+        try {
+            CSVImportJobStatus status = csvImportJobService.submit(file, scope, companyId,
+                buildImportOptions(chunkSize, parallelism, writeMode, duplicates));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (RejectedExecutionException e) {
+            logger.warn("CSV import queue is full, rejecting upload of {}", file.getOriginalFilename());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "error", "Import queue is full",
+                "message", "Too many imports are in progress, please retry later"
+            ));
+        } catch (Exception e) {
+            logger.error("Error queueing CSV import: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to queue CSV import",
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    /**
+     * Adds the rejection count and the first rejections to an upload response. The full list can be
+     * downloaded with the returned report id.
+     */
+    private void addRejections(Map<String, Object> response, CSVRejectionReport rejections) {
+        response.put("rejectedRows", rejections.getTotal());
+        if (rejections.getTotal() == 0) {
+            rejections.discard();
+            return;
+        }
+        response.put("rejections", rejections.getFirst(REJECTIONS_IN_RESPONSE));
+        response.put("rejectionReportId", rejectionReportRegistry.register(rejections));
+    }
+    
+    private static boolean isImportFile(String fileName) {
+        return fileName != null && (fileName.endsWith(".csv") || CSVService.isWorkbook(fileName));
+    }
+    
+    /**
+     * Imports several CSV or XLSX files, or ZIP archives of CSV files, for one company in a single request. Each file's
+     * scope comes from its name (e.g. "site-a_scope2.csv"), else from the scope parameter, else from a Scope
+     * column in the file.
+     */
+    @PostMapping("/upload-bulk")
+    public ResponseEntity<?> uploadBulk(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("companyId") Long companyId,
+            @RequestParam(value = "scope", required = false) String scopeStr,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "parallelism", required = false) Integer parallelism,
+            @RequestParam(value = "writeMode", defaultValue = "batch") String writeMode,
+            @RequestParam(value = "duplicates", defaultValue = "skip") String duplicates) {
+        
+        logger.info("Received bulk upload of {} files for company ID: {}", files.size(), companyId);
+        
+        if (files.isEmpty() || files.stream().allMatch(MultipartFile::isEmpty)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please upload at least one CSV or ZIP file"));
+        }
+        
+        EmissionScope defaultScope = null;
+        if (scopeStr != null && !scopeStr.isBlank()) {
+            try {
+                defaultScope = EmissionScope.valueOf(scopeStr.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid scope value",
+                    "message", "Valid scopes are: " + java.util.Arrays.toString(EmissionScope.values())
+                ));
+            }
+        }
+        if (!isValidOption(CSVImportOptions.WriteMode.values(), writeMode)) {
+            return invalidOptionResponse("writeMode", CSVImportOptions.WriteMode.values());
+        }
+        if (!isValidOption(CSVImportOptions.DuplicateMode.values(), duplicates)) {
+            return invalidOptionResponse("duplicates", CSVImportOptions.DuplicateMode.values());
+        }
+        if (chunkSize != null && (chunkSize < 1 || chunkSize > maxImportChunkSize)) {
+            return outOfRangeResponse("chunkSize", maxImportChunkSize);
+        }
+        if (parallelism != null && (parallelism < 1 || parallelism > csvService.getMaxParallelism())) {
+            return outOfRangeResponse("parallelism", csvService.getMaxParallelism());
+        }
+        
+        try {
+            BulkImportReport report = csvBulkImportService.importFiles(files, companyId, defaultScope,
+                buildImportOptions(chunkSize, parallelism, writeMode, duplicates));
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            logger.error("Error in bulk CSV import: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to process bulk upload",
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    private Map<String, Object> importResponse(CSVImportResult result, EmissionScope scope, CSVRejectionReport rejections) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", result.isDuplicateFile()
+            ? "This file was already imported for the company and scope, nothing was changed"
+            : "CSV file processed successfully");
+        response.put("recordsProcessed", result.getRecordsSaved());
+        response.put("recordsUpdated", result.getRecordsUpdated());
+        response.put("recordsDuplicate", result.getRecordsDuplicate());
+        response.put("duplicateFile", result.isDuplicateFile());
+        response.put("scope", scope.name());
+        addRejections(response, rejections);
+        return response;
+    }
+    
+    private boolean isValidOption(Enum<?>[] values, String value) {
+        return java.util.Arrays.stream(values).anyMatch(option -> option.name().equalsIgnoreCase(value.trim()));
+    }
+    
+    private ResponseEntity<?> invalidOptionResponse(String parameter, Enum<?>[] values) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "error", "Invalid " + parameter + " value",
+            "message", "Valid values are: " + java.util.Arrays.stream(values)
+                .map(option -> option.name().toLowerCase())
+                .collect(java.util.stream.Collectors.joining(", "))
+        ));
+    }
+    
+    private ResponseEntity<?> outOfRangeResponse(String parameter, int max) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "error", "Invalid " + parameter + " value",
+            "message", parameter + " must be between 1 and " + max
+        ));
+    }
+    
+    private CSVImportOptions buildImportOptions(Integer chunkSize, Integer parallelism, String writeMode, String duplicates) {
+        CSVImportOptions options = new CSVImportOptions();
+        options.setChunkSize(chunkSize != null ? chunkSize : Math.min(importChunkSize, maxImportChunkSize));
+        options.setParallelism(parallelism != null ? parallelism : Math.min(importParallelism, csvService.getMaxParallelism()));
+        options.setWriteMode(CSVImportOptions.WriteMode.valueOf(writeMode.trim().toUpperCase()));
+        options.setDuplicateMode(CSVImportOptions.DuplicateMode.valueOf(duplicates.trim().toUpperCase()));
+        return options;
+    }
+    
+    @GetMapping("/category-mapping/stats")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('admin') or hasRole('manager')")
+    public ResponseEntity<?> getCategoryMappingStats() {
+        return ResponseEntity.ok(emissionCategoryMapper.getStats());
+    }
+    
+    /**
+     * Downloads every rejected row of an upload as CSV. Asynchronous imports use their job id.
+     */
+    @GetMapping("/import-reports/{reportId}/rejections")
+    public ResponseEntity<StreamingResponseBody> downloadRejections(@PathVariable String reportId) {
+        CSVRejectionReport report;
+        try {
+            report = rejectionReportRegistry.getReport(reportId);
+        } catch (EntityNotFoundException e) {
+            return StreamingErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            report.writeTo(writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rejections-" + reportId + ".csv\"")
+            .body(body);
+    }
+    
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(csvImportJobService.getJobStatus(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> cancelImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(csvImportJobService.cancel(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -1,8 +1,13 @@
 package com.esgframework.controllers;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,19 +17,30 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.esgframework.models.GovernanceMetric;
 import com.esgframework.models.SubmissionStatus;
+import com.esgframework.services.ExportService;
 import com.esgframework.services.GovernanceMetricService;
+import com.esgframework.utils.StreamingErrors;
 
 @RestController
 @RequestMapping("/api/governance-metrics")
 public class GovernanceMetricController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private GovernanceMetricService governanceMetricService;
     
+    @Autowired
+    private ExportService exportService;
+    
     @PostMapping
     @PreAuthorize("hasRole('representative')")
     public ResponseEntity<GovernanceMetric> submitGovernanceMetric(@RequestBody GovernanceMetric governanceMetric) {
@@ -63,8 +79,17 @@ public class GovernanceMetricController {
     
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('manager', 'representative')")
-    public ResponseEntity<List<GovernanceMetric>> getGovernanceMetricsHistory() {
+    public ResponseEntity<?> getGovernanceMetricsHistory(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size) {
         try {
+            if (page != null || size != null) {
+                if ((page != null && page < 0) || (size != null && (size < 1 || size > MAX_PAGE_SIZE))) {
+                    return ResponseEntity.badRequest().build();
+                }
+                return ResponseEntity.ok(governanceMetricService.getGovernanceMetricsHistory(PageRequest.of(page != null ? page : 0,
+                    size != null ? size : DEFAULT_PAGE_SIZE, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))));
+            }
             List<GovernanceMetric> metrics = governanceMetricService.getGovernanceMetricsHistory();
             return ResponseEntity.ok(metrics);
         } catch (Exception e) {
@@ -73,6 +98,35 @@ public class GovernanceMetricController {
         }
     }
     
+    /**
+     * Streams the company's governance metrics as CSV, NDJSON or Parquet, optionally only those with the given
+     * statuses.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('manager', 'representative')")
+    public ResponseEntity<StreamingResponseBody> exportGovernanceMetrics(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "status", required = false) Set<SubmissionStatus> statuses) {
+        ExportService.Format exportFormat;
+        Long companyId;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+            companyId = exportService.getExportCompanyId();
+        } catch (IllegalArgumentException e) {
+            return StreamingErrors.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (SecurityException e) {
+            return StreamingErrors.error(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+        Set<SubmissionStatus> selected = statuses != null && !statuses.isEmpty()
+            ? EnumSet.copyOf(statuses) : EnumSet.allOf(SubmissionStatus.class);
+        StreamingResponseBody body = outputStream ->
+            exportService.exportGovernanceMetrics(companyId, selected, exportFormat, outputStream);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName("governance-metrics") + "\"")
+            .body(body);
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('manager', 'representative')")
     public ResponseEntity<GovernanceMetric> getGovernanceMetricById(@PathVariable Long id) {
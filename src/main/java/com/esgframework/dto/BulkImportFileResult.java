@@ -0,0 +1,97 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionScope;
+
+/**
+ * Outcome of one file of a bulk upload. A ZIP archive contributes one result per entry.
+ */
+public class BulkImportFileResult {
+
+    public enum Status {
+        IMPORTED, DUPLICATE_FILE, FAILED, IGNORED
+    }
+
+    private final String fileName;
+    private final EmissionScope scope;
+    private final Status status;
+    private final long recordsRead;
+    private final long recordsSaved;
+    private final long recordsUpdated;
+    private final long recordsDuplicate;
+    private final long rejectedRows;
+    private final String rejectionReportId;
+    private final String message;
+
+    public BulkImportFileResult(String fileName, EmissionScope scope, Status status, long recordsRead, long recordsSaved,
+                                long recordsUpdated, long recordsDuplicate, long rejectedRows, String rejectionReportId,
+                                String message) {
+        this.fileName = fileName;
+        this.scope = scope;
+        this.status = status;
+        this.recordsRead = recordsRead;
+        this.recordsSaved = recordsSaved;
+        this.recordsUpdated = recordsUpdated;
+        this.recordsDuplicate = recordsDuplicate;
+        this.rejectedRows = rejectedRows;
+        this.rejectionReportId = rejectionReportId;
+        this.message = message;
+    }
+
+    public static BulkImportFileResult imported(String fileName, EmissionScope scope, CSVImportResult result,
+                                                long rejectedRows, String rejectionReportId) {
+        return new BulkImportFileResult(fileName, scope, result.isDuplicateFile() ? Status.DUPLICATE_FILE : Status.IMPORTED,
+            result.getRecordsRead(), result.getRecordsSaved(), result.getRecordsUpdated(), result.getRecordsDuplicate(),
+            rejectedRows, rejectionReportId, null);
+    }
+
+    public static BulkImportFileResult failed(String fileName, EmissionScope scope, String message) {
+        return new BulkImportFileResult(fileName, scope, Status.FAILED, 0, 0, 0, 0, 0, null, message);
+    }
+
+    public static BulkImportFileResult ignored(String fileName, String message) {
+        return new BulkImportFileResult(fileName, null, Status.IGNORED, 0, 0, 0, 0, 0, null, message);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Scope of every row, or null when the rows carried their own Scope column.
+     */
+    public EmissionScope getScope() {
+        return scope;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public long getRecordsSaved() {
+        return recordsSaved;
+    }
+
+    public long getRecordsUpdated() {
+        return recordsUpdated;
+    }
+
+    public long getRecordsDuplicate() {
+        return recordsDuplicate;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public String getRejectionReportId() {
+        return rejectionReportId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.esgframework.dto;
+
+import java.util.List;
+
+/**
+ * Combined result of a bulk upload, with totals over all files.
+ */
+public class BulkImportReport {
+    private final List<BulkImportFileResult> files;
+    private final long elapsedMillis;
+
+    public BulkImportReport(List<BulkImportFileResult> files, long elapsedMillis) {
+        this.files = files;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<BulkImportFileResult> getFiles() {
+        return files;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getFilesImported() {
+        return countFiles(BulkImportFileResult.Status.IMPORTED);
+    }
+
+    public long getFilesFailed() {
+        return countFiles(BulkImportFileResult.Status.FAILED);
+    }
+
+    public long getRecordsRead() {
+        return files.stream().mapToLong(BulkImportFileResult::getRecordsRead).sum();
+    }
+
+    public long getRecordsSaved() {
+        return files.stream().mapToLong(BulkImportFileResult::getRecordsSaved).sum();
+    }
+
+    public long getRecordsDuplicate() {
+        return files.stream().mapToLong(BulkImportFileResult::getRecordsDuplicate).sum();
+    }
+
+    public long getRejectedRows() {
+        return files.stream().mapToLong(BulkImportFileResult::getRejectedRows).sum();
+    }
+
+    private long countFiles(BulkImportFileResult.Status status) {
+        return files.stream().filter(file -> file.getStatus() == status).count();
+    }
+}
@@ -0,0 +1,98 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionScope;
+
+import java.time.LocalDateTime;
+
+public class CSVImportJobStatus {
+    private final String jobId;
+    private final String state;
+    private final String fileName;
+    private final EmissionScope scope;
+    private final Long companyId;
+    private final LocalDateTime submittedAt;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final long rowsProcessed;
+    private final long rowsSaved;
+    private final long rowsRejected;
+    private final int chunks;
+    private final double rowsPerSecond;
+    private final String error;
+
+    public CSVImportJobStatus(String jobId, String state, String fileName, EmissionScope scope, Long companyId,
+                              LocalDateTime submittedAt, LocalDateTime startedAt, LocalDateTime finishedAt,
+                              long rowsProcessed, long rowsSaved, long rowsRejected, int chunks,
+                              double rowsPerSecond, String error) {
+        this.jobId = jobId;
+        this.state = state;
+        this.fileName = fileName;
+        this.scope = scope;
+        this.companyId = companyId;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.rowsProcessed = rowsProcessed;
+        this.rowsSaved = rowsSaved;
+        this.rowsRejected = rowsRejected;
+        this.chunks = chunks;
+        this.rowsPerSecond = rowsPerSecond;
+        this.error = error;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public EmissionScope getScope() {
+        return scope;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public long getRowsSaved() {
+        return rowsSaved;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
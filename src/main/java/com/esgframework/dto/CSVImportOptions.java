@@ -0,0 +1,64 @@
+package com.esgframework.dto;
+
+public class CSVImportOptions {
+
+    public enum WriteMode {
+        /** JDBC batched INSERTs */
+        BATCH,
+        /** PostgreSQL COPY into a staging table, then one INSERT ... SELECT per chunk */
+        COPY
+    }
+
+    /**
+     * How rows that were imported before are handled. Rows are matched on their fingerprint, a hash of
+     * company, scope, category, dates, quantity, unit and source.
+     */
+    public enum DuplicateMode {
+        /** Keep the existing row and drop the uploaded one */
+        SKIP,
+        /** Overwrite the existing row's remaining fields and send it back to review */
+        UPSERT,
+        /** Insert every row without a fingerprint, as before deduplication existed */
+        ALLOW
+    }
+
+    private int chunkSize = 1000;
+    private int parallelism = 1;
+    private WriteMode writeMode = WriteMode.BATCH;
+    private DuplicateMode duplicateMode = DuplicateMode.SKIP;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Number of chunks converted concurrently. 1 converts on the reading thread.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    public void setWriteMode(WriteMode writeMode) {
+        this.writeMode = writeMode;
+    }
+
+    public DuplicateMode getDuplicateMode() {
+        return duplicateMode;
+    }
+
+    public void setDuplicateMode(DuplicateMode duplicateMode) {
+        this.duplicateMode = duplicateMode;
+    }
+}
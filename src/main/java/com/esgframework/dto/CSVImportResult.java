@@ -0,0 +1,84 @@
+package com.esgframework.dto;
+
+public class CSVImportResult {
+    private final long recordsRead;
+    private final long recordsSaved;
+    private final long recordsUpdated;
+    private final long recordsDuplicate;
+    private final long recordsSkipped;
+    private final int chunks;
+    private final long elapsedMillis;
+    private final boolean cancelled;
+    private final boolean duplicateFile;
+
+    public CSVImportResult(long recordsRead, long recordsSaved, long recordsUpdated, long recordsDuplicate, long recordsSkipped,
+                           int chunks, long elapsedMillis, boolean cancelled) {
+        this(recordsRead, recordsSaved, recordsUpdated, recordsDuplicate, recordsSkipped, chunks, elapsedMillis, cancelled, false);
+    }
+
+    private CSVImportResult(long recordsRead, long recordsSaved, long recordsUpdated, long recordsDuplicate, long recordsSkipped,
+                            int chunks, long elapsedMillis, boolean cancelled, boolean duplicateFile) {
+        this.recordsRead = recordsRead;
+        this.recordsSaved = recordsSaved;
+        this.recordsUpdated = recordsUpdated;
+        this.recordsDuplicate = recordsDuplicate;
+        this.recordsSkipped = recordsSkipped;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.cancelled = cancelled;
+        this.duplicateFile = duplicateFile;
+    }
+
+    /**
+     * Result of an upload whose exact content was imported before and was therefore not read.
+     */
+    public static CSVImportResult ofDuplicateFile(long elapsedMillis) {
+        return new CSVImportResult(0, 0, 0, 0, 0, 0, elapsedMillis, false, true);
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Rows written, including existing rows overwritten by an upsert.
+     */
+    public long getRecordsSaved() {
+        return recordsSaved;
+    }
+
+    public long getRecordsUpdated() {
+        return recordsUpdated;
+    }
+
+    /**
+     * Rows dropped because they had been imported before.
+     */
+    public long getRecordsDuplicate() {
+        return recordsDuplicate;
+    }
+
+    public long getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDuplicateFile() {
+        return duplicateFile;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? recordsRead * 1000.0 / elapsedMillis : recordsRead;
+    }
+}
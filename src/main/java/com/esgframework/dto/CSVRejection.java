@@ -0,0 +1,41 @@
+package com.esgframework.dto;
+
+/**
+ * One row of an upload that was not imported.
+ */
+public class CSVRejection {
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    private final long rowNumber;
+    private final String column;
+    private final String reason;
+    private final String value;
+
+    /**
+     * @param rowNumber record number reported by the CSV parser
+     * @param column header of the offending column, or null if the problem is not tied to one column
+     * @param value the offending raw value, truncated to 200 characters
+     */
+    public CSVRejection(long rowNumber, String column, String reason, String value) {
+        this.rowNumber = rowNumber;
+        this.column = column;
+        this.reason = reason;
+        this.value = value != null && value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+
+import java.util.List;
+
+public class CategoryMappingStats {
+    private final long hits;
+    private final long keywordMatches;
+    private final long defaulted;
+    private final List<UnmappedValue> unmapped;
+
+    public CategoryMappingStats(long hits, long keywordMatches, long defaulted, List<UnmappedValue> unmapped) {
+        this.hits = hits;
+        this.keywordMatches = keywordMatches;
+        this.defaulted = defaulted;
+        this.unmapped = unmapped;
+    }
+
+    /**
+     * Values found in the mapping table.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Values missing from the table that a keyword rule still recognized.
+     */
+    public long getKeywordMatches() {
+        return keywordMatches;
+    }
+
+    /**
+     * Blank or unrecognized values that fell back to the scope's default category.
+     */
+    public long getDefaulted() {
+        return defaulted;
+    }
+
+    public long getMisses() {
+        return keywordMatches + defaulted;
+    }
+
+    /**
+     * Distinct values missing from the table, most frequent first; at most the first 10,000 seen per scope.
+     */
+    public List<UnmappedValue> getUnmapped() {
+        return unmapped;
+    }
+
+    public static class UnmappedValue {
+        private final EmissionScope scope;
+        private final String value;
+        private final EmissionCategory mappedTo;
+        private final long count;
+
+        public UnmappedValue(EmissionScope scope, String value, EmissionCategory mappedTo, long count) {
+            this.scope = scope;
+            this.value = value;
+            this.mappedTo = mappedTo;
+            this.count = count;
+        }
+
+        public EmissionScope getScope() {
+            return scope;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public EmissionCategory getMappedTo() {
+            return mappedTo;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
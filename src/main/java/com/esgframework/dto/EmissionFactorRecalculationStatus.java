@@ -0,0 +1,31 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionCategory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a CO2e recalculation. {@code totalRows} is counted when the job starts; rows inserted while
+ * it runs are scanned too, so {@code rowsScanned} may end up higher.
+ */
+public record EmissionFactorRecalculationStatus(
+    String jobId,
+    String state,
+    String reason,
+    EmissionCategory category,
+    Long companyId,
+    boolean missingOnly,
+    long factorVersion,
+    LocalDateTime submittedAt,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    long totalRows,
+    long rowsScanned,
+    long rowsUpdated,
+    int batchesTotal,
+    int batchesCompleted,
+    double percentComplete,
+    double rowsPerSecond,
+    String error
+) {
+}
@@ -0,0 +1,66 @@
+package com.esgframework.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One group of an emissions aggregation. Only the dimensions that were grouped by are set; the others are
+ * null and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmissionTotal {
+    private final String scope;
+    private final String category;
+    private final String period;
+    private final String status;
+    private final long records;
+    private final double quantity;
+    private final double emissions;
+
+    public EmissionTotal(String scope, String category, String period, String status, long records, double quantity,
+                         double emissions) {
+        this.scope = scope;
+        this.category = category;
+        this.period = period;
+        this.status = status;
+        this.records = records;
+        this.quantity = quantity;
+        this.emissions = emissions;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Start of the time bucket: yyyy-MM-dd for days and weeks, yyyy-MM for months, yyyy for years.
+     */
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Sum of the quantities as entered, whatever their unit.
+     */
+    public double getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Sum of the computed CO2e in kg, over the rows that have one.
+     */
+    public double getEmissions() {
+        return emissions;
+    }
+}
@@ -0,0 +1,35 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.models.TimeFrame;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of an emissions export, selected with a constructor expression so that exported rows are never
+ * managed entities. The components are the export columns, in order.
+ */
+public record GHGEmissionExportRow(
+    Long id,
+    EmissionScope scope,
+    EmissionCategory category,
+    TimeFrame timeFrame,
+    LocalDateTime startDate,
+    LocalDateTime endDate,
+    Double quantity,
+    String unit,
+    String source,
+    String activity,
+    String calculationMethod,
+    Double emissionFactor,
+    String emissionFactorUnit,
+    Double co2e,
+    String notes,
+    SubmissionStatus status,
+    String submittedByName,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,27 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.SubmissionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of an emission listing, selected with a constructor expression so that a page is read with one
+ * query and no company or user entity is loaded. The full emission is served by
+ * {@code GET /api/ghg-emissions/{id}}.
+ */
+public record GHGEmissionSummary(
+    Long id,
+    EmissionScope scope,
+    EmissionCategory category,
+    LocalDateTime startDate,
+    LocalDateTime endDate,
+    Double quantity,
+    String unit,
+    Double co2e,
+    SubmissionStatus status,
+    String submittedByName,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,33 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.GovernanceMetric;
+import com.esgframework.models.SubmissionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a governance metrics export, selected with a constructor expression so that exported rows are
+ * never managed entities. The components are the export columns, in order.
+ */
+public record GovernanceMetricExportRow(
+    Long id,
+    GovernanceMetric.GovernanceSubtype subtype,
+    String category,
+    String metric,
+    Double value,
+    String unit,
+    LocalDate startDate,
+    LocalDate endDate,
+    String description,
+    Boolean policyExists,
+    String policyUrl,
+    String reviewFrequency,
+    String responsibleParty,
+    String documentationUrl,
+    SubmissionStatus status,
+    String submittedByName,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.esgframework.dto;
+
+/**
+ * One company-year of the portfolio analytics, together with the company's totals over all selected years.
+ * Emissions are the sum of the computed CO2e in kg. Activity quantities are left out, since a company's
+ * rows are in different units.
+ *
+ * @param previousEmissions emissions of the year before, or null if the company has no rows that year
+ */
+public record PortfolioYear(
+    long companyId,
+    String companyName,
+    String industry,
+    int year,
+    long records,
+    double emissions,
+    Double previousEmissions,
+    long companyRecords,
+    double companyEmissions
+) {
+}
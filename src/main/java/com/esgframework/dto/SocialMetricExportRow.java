@@ -0,0 +1,31 @@
+package com.esgframework.dto;
+
+import com.esgframework.models.SocialMetric;
+import com.esgframework.models.SubmissionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a social metrics export, selected with a constructor expression so that exported rows are never
+ * managed entities. The components are the export columns, in order.
+ */
+public record SocialMetricExportRow(
+    Long id,
+    SocialMetric.SocialSubtype subtype,
+    String category,
+    String metric,
+    Double value,
+    String unit,
+    LocalDate startDate,
+    LocalDate endDate,
+    String description,
+    String location,
+    String department,
+    String documentationUrl,
+    SubmissionStatus status,
+    String submittedByName,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
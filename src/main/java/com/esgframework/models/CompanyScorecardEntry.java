@@ -0,0 +1,69 @@
+package com.esgframework.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed scorecard line for one social or governance metric of a company: how many submissions it has
+ * in each status and its latest approved value. Recomputed from the metric tables by
+ * {@code CompanyScorecardService}, shortly after each submission or review and in full every night, so that
+ * reading a company's scorecard does not touch the metric rows.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "company_scorecard_entries", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_scorecard_metric", columnNames = {"company_id", "pillar", "category", "metric", "unit"})
+})
+public class CompanyScorecardEntry {
+
+    public enum Pillar {
+        SOCIAL, GOVERNANCE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Pillar pillar;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private String metric;
+
+    @Column(nullable = false)
+    private String unit;
+
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+
+    @Column(name = "denied_count", nullable = false)
+    private long deniedCount;
+
+    // Value of the approved submission with the latest end date, if any
+    @Column(name = "latest_value")
+    private Double latestValue;
+
+    @Column(name = "latest_period_end")
+    private LocalDate latestPeriodEnd;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,53 @@
+package com.esgframework.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry: kilograms of CO2e emitted per unit of activity of one emission category. A region or year
+ * of null makes the factor apply to all regions or all years; otherwise it applies to companies of that
+ * region and to emissions starting in that year or later. See {@code EmissionFactorIndex} for how the most
+ * specific factor is chosen.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "emission_factors", indexes = {
+    @Index(name = "idx_emission_factor_lookup", columnList = "category, unit")
+})
+public class EmissionFactor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmissionCategory category;
+
+    // Matched case-insensitively against the unit of the emission
+    @Column(nullable = false)
+    private String unit;
+
+    // Matched case-insensitively against the region of the company
+    @Column
+    private String region;
+
+    @Column(name = "factor_year")
+    private Integer year;
+
+    // kg CO2e per unit
+    @Column(nullable = false)
+    private Double factor;
+
+    @Column
+    private String source;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.esgframework.models;
 
 import javax.persistence.*;
 import javax.persistence.Index;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -12,9 +13,22 @@ import org.hibernate.annotations.UpdateTimestamp;
     @Index(name = "idx_ghg_status", columnList = "status"),
     @Index(name = "idx_ghg_scope", columnList = "scope"),
     @Index(name = "idx_ghg_dates", columnList = "start_date, end_date"),
-    @Index(name = "idx_ghg_submitter", columnList = "submitted_by_id")
+    @Index(name = "idx_ghg_submitter", columnList = "submitted_by_id"),
+    @Index(name = "idx_ghg_company_created", columnList = "company_id, created_at, id"),
+    @Index(name = "idx_ghg_company_status_created", columnList = "company_id, status, created_at"),
+    @Index(name = "uk_ghg_fingerprint", columnList = "fingerprint, start_date", unique = true)
 })
+// Associations are lazy; the detail view loads them together through this graph
+@NamedEntityGraph(name = GHGEmission.DETAIL_GRAPH, attributeNodes = {
+    @NamedAttributeNode("company"),
+    @NamedAttributeNode("submittedBy"),
+    @NamedAttributeNode("lastModifiedBy")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class GHGEmission {
+    public static final String DETAIL_GRAPH = "GHGEmission.detail";
+    
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private SubmissionStatus status = SubmissionStatus.PENDING;
@@ -22,11 +36,11 @@ public class GHGEmission {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", nullable = false)
     private Company company;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "submitted_by_id")
     private User submittedBy;
 
@@ -39,7 +53,8 @@ public class GHGEmission {
     @Enumerated(EnumType.STRING)
     private TimeFrame timeFrame;
 
-    @Column(name = "start_date")
+    // Partition key of ghg_emissions (see V4__partition_ghg_emissions.sql)
+    @Column(name = "start_date", nullable = false)
     private LocalDateTime startDate;
     
     @Column(name = "end_date")
@@ -51,9 +66,28 @@ public class GHGEmission {
     private String calculationMethod;
     private Double emissionFactor;
     private String emissionFactorUnit;
+    
+    // kg CO2e, computed on insert from the emission factor catalog (see EmissionFactorCatalog); null when no
+    // factor applies. Only recalculations rewrite it, so entity updates leave it alone.
+    @Column(name = "co2e", updatable = false)
+    private Double co2e;
+    
+    // Catalog factor used for co2e, or null if the emission's own factor was used
+    @Column(name = "co2e_factor_id", updatable = false)
+    private Long co2eFactorId;
+    
+    // Load time of the catalog index that last found no factor for this emission; the startup backfill
+    // skips it until a factor is added or changed after that
+    @Column(name = "co2e_checked_at", insertable = false, updatable = false)
+    private LocalDateTime co2eCheckedAt;
+    
     private LocalDateTime submissionDate;
     private String notes;
     
+    // SHA-256 of the identifying fields, set by imports that deduplicate (see EmissionFingerprints)
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -62,7 +96,7 @@ public class GHGEmission {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "last_modified_by_id")
     private User lastModifiedBy;
 
@@ -109,12 +143,23 @@ public class GHGEmission {
     public String getEmissionFactorUnit() { return emissionFactorUnit; }
     public void setEmissionFactorUnit(String emissionFactorUnit) { this.emissionFactorUnit = emissionFactorUnit; }
 
+    public Double getCo2e() { return co2e; }
+    public void setCo2e(Double co2e) { this.co2e = co2e; }
+
+    public Long getCo2eFactorId() { return co2eFactorId; }
+    public void setCo2eFactorId(Long co2eFactorId) { this.co2eFactorId = co2eFactorId; }
+
+    public LocalDateTime getCo2eCheckedAt() { return co2eCheckedAt; }
+
     public LocalDateTime getSubmissionDate() { return submissionDate; }
     public void setSubmissionDate(LocalDateTime submissionDate) { this.submissionDate = submissionDate; }
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
     public SubmissionStatus getStatus() {
         return status;
     }
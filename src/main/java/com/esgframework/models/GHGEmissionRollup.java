@@ -0,0 +1,73 @@
+package com.esgframework.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of {@link GHGEmission} rows per company, scope, category, month, status and unit. Kept up to
+ * date with additive deltas whenever emissions are submitted, imported or change status, so that company
+ * totals are read from a handful of buckets instead of every emission row. The month is that of the
+ * emission's start date; rows without a scope or start date are not counted.
+ * <p>
+ * Quantities are summed as entered, so each bucket holds a single unit; spellings of a unit are not merged.
+ * The stored CO2e of the rows is summed as well, counting rows without a CO2e as zero.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ghg_emission_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ghg_rollup_bucket", columnNames = {"company_id", "scope", "category", "period_month", "status", "unit"})
+})
+public class GHGEmissionRollup {
+    // Category of emissions submitted without one
+    public static final String UNCATEGORIZED = "UNCATEGORIZED";
+    // Unit of emissions submitted without one
+    public static final String UNSPECIFIED_UNIT = "UNSPECIFIED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmissionScope scope;
+
+    // EmissionCategory name, or UNCATEGORIZED
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SubmissionStatus status;
+
+    // Unit as entered, or UNSPECIFIED_UNIT. The defaults of the columns added by V6 and V7 let Hibernate's schema
+    // update add them to a populated table; the buckets are only right once those scripts have run.
+    @Column(nullable = false)
+    @ColumnDefault("'" + UNSPECIFIED_UNIT + "'")
+    private String unit;
+
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Column(name = "total_quantity", nullable = false)
+    private double totalQuantity;
+
+    // kg CO2e
+    @Column(name = "total_co2e", nullable = false)
+    @ColumnDefault("0")
+    private double totalCo2e;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.esgframework.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An upload that has been imported, recorded by content hash so that uploading the same file again for
+ * the same company and scope can be skipped without parsing it.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ghg_import_files", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ghg_import_file", columnNames = {"company_id", "scope", "file_hash"})
+})
+public class GHGImportFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmissionScope scope;
+
+    @Column(name = "file_hash", nullable = false, length = 64)
+    private String fileHash;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "records_saved")
+    private long recordsSaved;
+
+    @Column(name = "imported_by_id")
+    private Long importedById;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
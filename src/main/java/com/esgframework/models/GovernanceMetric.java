@@ -7,14 +7,19 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,13 +31,22 @@ import lombok.NoArgsConstructor;
     @Index(name = "idx_gov_subtype", columnList = "subtype"),
     @Index(name = "idx_gov_category", columnList = "category"),
     @Index(name = "idx_gov_dates", columnList = "start_date, end_date"),
-    @Index(name = "idx_gov_submitter", columnList = "submitted_by")
+    @Index(name = "idx_gov_submitter", columnList = "submitted_by"),
+    @Index(name = "idx_gov_company_status_created", columnList = "company_id, status, created_at")
+})
+// Associations are lazy; list and detail views load them together through this graph
+@NamedEntityGraph(name = GovernanceMetric.WITH_ASSOCIATIONS, attributeNodes = {
+    @NamedAttributeNode("company"),
+    @NamedAttributeNode("submittedBy")
 })
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class GovernanceMetric {
     
+    public static final String WITH_ASSOCIATIONS = "GovernanceMetric.withAssociations";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -79,11 +93,11 @@ public class GovernanceMetric {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id")
     private Company company;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "submitted_by")
     private User submittedBy;
     
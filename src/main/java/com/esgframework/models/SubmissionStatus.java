@@ -1,7 +1,16 @@
 package com.esgframework.models;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum SubmissionStatus {
     PENDING,
     APPROVED,
-    DENIED
+    DENIED;
+
+    /**
+     * Statuses listed in a company's review history.
+     */
+    public static final Set<SubmissionStatus> REVIEWED = Collections.unmodifiableSet(EnumSet.of(APPROVED, DENIED));
 }
@@ -2,9 +2,14 @@ package com.esgframework.repositories;
 
 import com.esgframework.models.Company;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompanyRepository extends JpaRepository<Company, Long> {
     Optional<Company> findByName(String name);
     boolean existsByName(String name);
+
+    @Query("SELECT c.id FROM Company c ORDER BY c.id")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,96 @@
+package com.esgframework.repositories;
+
+import com.esgframework.models.CompanyScorecardEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Recomputes {@link CompanyScorecardEntry} rows with one aggregate query over the social and governance
+ * metric tables. A refresh replaces the rows inside its transaction, so readers keep seeing the previous
+ * scorecard until it commits; refreshes take a transaction-scoped advisory lock and so never run at the
+ * same time.
+ */
+@Repository
+public class CompanyScorecardRepository {
+
+    // Arbitrary key of the advisory lock serializing refreshes
+    private static final long REFRESH_LOCK = 0x5c0eca7dL;
+
+    private static final String COLUMNS = "company_id, pillar, category, metric, unit, record_count, pending_count, " +
+        "approved_count, denied_count, latest_value, latest_period_end, refreshed_at";
+
+    private static final String GROUP_BY = " GROUP BY company_id, category, metric, unit";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recomputes one company's entries. Must run in a transaction.
+     * @return the number of entries written
+     */
+    public int refresh(Long companyId) {
+        lock();
+        jdbcTemplate.update("DELETE FROM company_scorecard_entries WHERE company_id = ?", companyId);
+        return jdbcTemplate.update(refreshSql(" WHERE company_id = ?"), companyId, companyId);
+    }
+
+    /**
+     * Recomputes every company's entries. Must run in a transaction.
+     * @return the number of entries written
+     */
+    public int refreshAll() {
+        lock();
+        jdbcTemplate.update("DELETE FROM company_scorecard_entries");
+        return jdbcTemplate.update(refreshSql(" WHERE company_id IS NOT NULL"));
+    }
+
+    public List<CompanyScorecardEntry> findByCompanyId(Long companyId) {
+        return jdbcTemplate.query("SELECT id, " + COLUMNS + " FROM company_scorecard_entries WHERE company_id = ? " +
+            "ORDER BY pillar, category, metric, unit", CompanyScorecardRepository::mapEntry, companyId);
+    }
+
+    private void lock() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + REFRESH_LOCK + ")");
+    }
+
+    private static String refreshSql(String where) {
+        return "INSERT INTO company_scorecard_entries (" + COLUMNS + ") " +
+            aggregate(CompanyScorecardEntry.Pillar.SOCIAL, "social_metrics", where) + " UNION ALL " +
+            aggregate(CompanyScorecardEntry.Pillar.GOVERNANCE, "governance_metrics", where);
+    }
+
+    // The latest value is that of the approved row with the latest end date
+    private static String aggregate(CompanyScorecardEntry.Pillar pillar, String table, String where) {
+        return "SELECT company_id, '" + pillar.name() + "', category, metric, unit, count(*), " +
+            "count(*) FILTER (WHERE status = 'PENDING'), count(*) FILTER (WHERE status = 'APPROVED'), " +
+            "count(*) FILTER (WHERE status = 'DENIED'), " +
+            "(array_agg(value ORDER BY end_date DESC, id DESC) FILTER (WHERE status = 'APPROVED'))[1], " +
+            "max(end_date) FILTER (WHERE status = 'APPROVED'), now() " +
+            "FROM " + table + where + GROUP_BY;
+    }
+
+    private static CompanyScorecardEntry mapEntry(ResultSet rs, int rowNum) throws SQLException {
+        CompanyScorecardEntry entry = new CompanyScorecardEntry();
+        entry.setId(rs.getLong("id"));
+        entry.setCompanyId(rs.getLong("company_id"));
+        entry.setPillar(CompanyScorecardEntry.Pillar.valueOf(rs.getString("pillar")));
+        entry.setCategory(rs.getString("category"));
+        entry.setMetric(rs.getString("metric"));
+        entry.setUnit(rs.getString("unit"));
+        entry.setRecordCount(rs.getLong("record_count"));
+        entry.setPendingCount(rs.getLong("pending_count"));
+        entry.setApprovedCount(rs.getLong("approved_count"));
+        entry.setDeniedCount(rs.getLong("denied_count"));
+        entry.setLatestValue(rs.getObject("latest_value") != null ? rs.getDouble("latest_value") : null);
+        Date latestPeriodEnd = rs.getDate("latest_period_end");
+        entry.setLatestPeriodEnd(latestPeriodEnd != null ? latestPeriodEnd.toLocalDate() : null);
+        entry.setRefreshedAt(rs.getTimestamp("refreshed_at").toLocalDateTime());
+        return entry;
+    }
+}
@@ -0,0 +1,12 @@
+package com.esgframework.repositories;
+
+import com.esgframework.models.EmissionFactor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmissionFactorRepository extends JpaRepository<EmissionFactor, Long> {
+    List<EmissionFactor> findAllByOrderByCategoryAscUnitAscRegionAscYearAsc();
+}
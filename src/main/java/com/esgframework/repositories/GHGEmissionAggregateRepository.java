@@ -0,0 +1,99 @@
+package com.esgframework.repositories;
+
+import com.esgframework.dto.EmissionTotal;
+import com.esgframework.models.GHGEmissionRollup;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.models.TimeFrame;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Emission totals computed by the database with {@code GROUP BY}, so that only one row per group leaves
+ * it and no {@code GHGEmission} entity is loaded. The grouping columns come from a fixed set of SQL
+ * fragments; all filter values are bound as parameters.
+ */
+@Repository
+public class GHGEmissionAggregateRepository {
+
+    // Declared in the order of the grouping columns in the select list
+    public enum GroupBy {
+        SCOPE,
+        CATEGORY,
+        PERIOD,
+        STATUS
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param groupBy dimensions to group by, in any order; empty for a single grand total
+     * @param period size of the time bucket when grouping by {@link GroupBy#PERIOD}
+     * @param from inclusive lower bound on the start date, may be null
+     * @param to exclusive upper bound on the start date, may be null
+     * @param status only rows with this status, or null for all
+     * @throws IllegalArgumentException if grouping by period with {@link TimeFrame#CUSTOM}
+     */
+    public List<EmissionTotal> findTotals(Long companyId, Set<GroupBy> groupBy, TimeFrame period, LocalDateTime from,
+                                          LocalDateTime to, SubmissionStatus status) {
+        String scope = groupBy.contains(GroupBy.SCOPE) ? "scope" : "NULL";
+        String category = groupBy.contains(GroupBy.CATEGORY)
+            ? "COALESCE(category, '" + GHGEmissionRollup.UNCATEGORIZED + "')" : "NULL";
+        String bucket = groupBy.contains(GroupBy.PERIOD) ? periodExpression(period) : "NULL";
+        String statusColumn = groupBy.contains(GroupBy.STATUS) ? "status" : "NULL";
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(scope).append(", ").append(category).append(", ").append(bucket).append(", ").append(statusColumn)
+            .append(", count(*), COALESCE(sum(quantity), 0), COALESCE(sum(co2e), 0) ")
+            .append("FROM ghg_emissions WHERE company_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(companyId);
+        if (from != null) {
+            sql.append(" AND start_date >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND start_date < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (!groupBy.isEmpty()) {
+            StringJoiner positions = new StringJoiner(", ");
+            for (GroupBy dimension : GroupBy.values()) {
+                if (groupBy.contains(dimension)) {
+                    positions.add(String.valueOf(dimension.ordinal() + 1));
+                }
+            }
+            sql.append(" GROUP BY ").append(positions).append(" ORDER BY ").append(positions);
+        }
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new EmissionTotal(rs.getString(1), rs.getString(2),
+            rs.getString(3), rs.getString(4), rs.getLong(5), rs.getDouble(6), rs.getDouble(7)), params.toArray());
+    }
+
+    private static String periodExpression(TimeFrame period) {
+        switch (period) {
+            case DAILY:
+                return "to_char(start_date, 'YYYY-MM-DD')";
+            case WEEKLY:
+                return "to_char(date_trunc('week', start_date), 'YYYY-MM-DD')";
+            case MONTHLY:
+                return "to_char(start_date, 'YYYY-MM')";
+            case YEARLY:
+                return "to_char(start_date, 'YYYY')";
+            default:
+                throw new IllegalArgumentException("Cannot group by time frame " + period);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.esgframework.repositories;
+
+import com.esgframework.dto.CSVImportOptions.DuplicateMode;
+import com.esgframework.models.GHGEmission;
+import com.esgframework.repositories.GHGEmissionRollupRepository.Deltas;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Bulk insert path for {@link GHGEmission}. The entity uses IDENTITY ids, which prevents Hibernate from
+ * batching its INSERTs, so imports write through JDBC batches instead. With {@code reWriteBatchedInserts}
+ * on the PostgreSQL URL each batch is sent as a few multi-row INSERT statements.
+ * <p>
+ * For the largest files {@link #copyAll} streams rows with PostgreSQL {@code COPY} instead.
+ * <p>
+ * Re-uploaded rows are recognized by their {@code fingerprint} column, which is unique together with the
+ * start date, the partition key; see {@link DuplicateMode}.
+ * <p>
+ * Every write also updates the emission rollups in the same transaction, from the rows that were actually
+ * inserted or updated; see {@link GHGEmissionRollupRepository}.
+ * <p>
+ * Rows written here are not attached to any persistence context and their generated ids are not read back.
+ * <p>
+ * Both writes must join a transaction of the caller: the staging table drops its rows on commit, so in
+ * auto-commit mode they would be gone before the merge reads them.
+ */
+@Repository
+public class GHGEmissionBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(GHGEmissionBatchRepository.class);
+
+    private static final String DATA_COLUMNS =
+        "company_id, submitted_by_id, last_modified_by_id, scope, category, time_frame, start_date, end_date, " +
+        "quantity, unit, source, activity, calculation_method, emission_factor, emission_factor_unit, " +
+        "submission_date, notes, status, fingerprint, co2e, co2e_factor_id";
+
+    private static final String DATA_PLACEHOLDERS = "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?";
+
+    private static final String INSERT_SQL = "INSERT INTO ghg_emissions (" + DATA_COLUMNS + ", created_at, updated_at) " +
+        "VALUES (" + DATA_PLACEHOLDERS + ", ?, ?)";
+
+    // Session-local, so concurrent imports on different connections never see each other's rows
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS ghg_emissions_staging (" +
+        "company_id BIGINT, submitted_by_id BIGINT, last_modified_by_id BIGINT, scope VARCHAR(255), " +
+        "category VARCHAR(255), time_frame VARCHAR(255), start_date TIMESTAMP, end_date TIMESTAMP, " +
+        "quantity DOUBLE PRECISION, unit VARCHAR(255), source VARCHAR(255), activity VARCHAR(255), " +
+        "calculation_method VARCHAR(255), emission_factor DOUBLE PRECISION, emission_factor_unit VARCHAR(255), " +
+        "submission_date TIMESTAMP, notes VARCHAR(255), status VARCHAR(255), fingerprint VARCHAR(64), " +
+        "co2e DOUBLE PRECISION, co2e_factor_id BIGINT, seq BIGSERIAL) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_SQL = "COPY ghg_emissions_staging (" + DATA_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String STAGE_SQL = "INSERT INTO ghg_emissions_staging (" + DATA_COLUMNS + ") VALUES (" + DATA_PLACEHOLDERS + ")";
+
+    private static final String MERGE_SQL = "INSERT INTO ghg_emissions (" + DATA_COLUMNS + ", created_at, updated_at) " +
+        "SELECT " + DATA_COLUMNS + ", ?, ? FROM ghg_emissions_staging";
+
+    // Fingerprint columns are equal on conflict by definition, so only the descriptive ones are replaced.
+    // The status goes back to PENDING because the reviewed values may have changed.
+    private static final String UPSERT_ASSIGNMENTS = "time_frame = EXCLUDED.time_frame, activity = EXCLUDED.activity, " +
+        "calculation_method = EXCLUDED.calculation_method, emission_factor = EXCLUDED.emission_factor, " +
+        "emission_factor_unit = EXCLUDED.emission_factor_unit, co2e = EXCLUDED.co2e, " +
+        "co2e_factor_id = EXCLUDED.co2e_factor_id, notes = EXCLUDED.notes, " +
+        "last_modified_by_id = EXCLUDED.last_modified_by_id, submission_date = EXCLUDED.submission_date, " +
+        "status = EXCLUDED.status, updated_at = EXCLUDED.updated_at";
+
+    // DISTINCT ON keeps one row per fingerprint, since ON CONFLICT DO UPDATE cannot touch a row twice in
+    // one statement: the first occurrence in the file when skipping, the last one when upserting.
+    // Only freshly inserted rows carry this statement's created_at, since updates keep the original one
+    // (xmax, the usual test, cannot be read back from a partitioned table).
+    // Both statements return the merged rows grouped by rollup bucket:
+    // company_id, scope, category, month, status, unit, previous status, inserted, row count, quantity, co2e,
+    // and the co2e the rows had before (0 for inserted rows).
+    private static final String SKIP_MERGE_SQL = "WITH merged AS (" +
+        "INSERT INTO ghg_emissions (" + DATA_COLUMNS + ", created_at, updated_at) " +
+        "SELECT DISTINCT ON (fingerprint) " + DATA_COLUMNS + ", ?, ? FROM ghg_emissions_staging ORDER BY fingerprint, seq " +
+        "ON CONFLICT (fingerprint, start_date) DO NOTHING " +
+        "RETURNING company_id, scope, category, start_date, unit, quantity, co2e, status, (created_at = ?) AS inserted) " +
+        "SELECT company_id, scope, category, date_trunc('month', start_date)::date, status, unit, NULL::varchar, inserted, " +
+        "count(*), COALESCE(sum(quantity), 0), COALESCE(sum(co2e), 0), 0 FROM merged GROUP BY 1, 2, 3, 4, 5, 6, 7, 8";
+
+    // All parts of the statement share one snapshot, so "previous" holds the status and co2e of overwritten
+    // rows before the update, which moves them to the PENDING bucket with the new co2e
+    private static final String UPSERT_MERGE_SQL = "WITH previous AS (" +
+        "SELECT fingerprint, status, co2e FROM ghg_emissions WHERE fingerprint IN (SELECT fingerprint FROM ghg_emissions_staging)), " +
+        "merged AS (" +
+        "INSERT INTO ghg_emissions (" + DATA_COLUMNS + ", created_at, updated_at) " +
+        "SELECT DISTINCT ON (fingerprint) " + DATA_COLUMNS + ", ?, ? FROM ghg_emissions_staging ORDER BY fingerprint, seq DESC " +
+        "ON CONFLICT (fingerprint, start_date) DO UPDATE SET " + UPSERT_ASSIGNMENTS + " " +
+        "RETURNING fingerprint, company_id, scope, category, start_date, unit, quantity, co2e, status, " +
+        "(created_at = ?) AS inserted) " +
+        "SELECT m.company_id, m.scope, m.category, date_trunc('month', m.start_date)::date, m.status, m.unit, p.status, " +
+        "m.inserted, count(*), COALESCE(sum(m.quantity), 0), COALESCE(sum(m.co2e), 0), COALESCE(sum(p.co2e), 0) " +
+        "FROM merged m LEFT JOIN previous p ON p.fingerprint = m.fingerprint GROUP BY 1, 2, 3, 4, 5, 6, 7, 8";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+
+    @Value("${app.import.jdbc-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Rows written by one call: inserted as new, and existing rows overwritten in {@link DuplicateMode#UPSERT}
+     * mode. Rows counted in neither were duplicates that were skipped.
+     */
+    public record WriteCounts(int inserted, int updated) {
+    }
+
+    /**
+     * Inserts all emissions in JDBC batches, in the caller's transaction.
+     * <p>
+     * With {@link DuplicateMode#SKIP} or {@link DuplicateMode#UPSERT} the rows are batched into the staging
+     * table instead and merged with {@code ON CONFLICT (fingerprint, start_date)}, which also yields exact counts; the
+     * emissions must carry a fingerprint and the connection must be PostgreSQL.
+     * @throws org.springframework.transaction.IllegalTransactionStateException when no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public WriteCounts insertAll(List<GHGEmission> emissions, DuplicateMode duplicateMode) {
+        if (emissions.isEmpty()) {
+            return new WriteCounts(0, 0);
+        }
+        Deltas deltas = new Deltas();
+        if (duplicateMode == DuplicateMode.ALLOW) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_SQL, emissions, batchSize, (ps, emission) -> {
+                bind(ps, emission);
+                ps.setTimestamp(22, now);
+                ps.setTimestamp(23, now);
+            });
+            addAll(deltas, emissions);
+            rollupRepository.apply(deltas);
+            return new WriteCounts(emissions.size(), 0);
+        }
+
+        WriteCounts counts = jdbcTemplate.execute((ConnectionCallback<WriteCounts>) connection -> {
+            createStagingTable(connection);
+            try (PreparedStatement stage = connection.prepareStatement(STAGE_SQL)) {
+                int pending = 0;
+                for (GHGEmission emission : emissions) {
+                    bind(stage, emission);
+                    stage.addBatch();
+                    if (++pending == batchSize) {
+                        stage.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stage.executeBatch();
+                }
+            }
+            return merge(connection, duplicateMode, deltas);
+        });
+        rollupRepository.apply(deltas);
+        return counts;
+    }
+
+    /**
+     * Streams the emissions into a temporary staging table with PostgreSQL {@code COPY} (CSV text format)
+     * and moves them into {@code ghg_emissions} with a single INSERT ... SELECT, applying the duplicate mode
+     * there, in the caller's transaction. Falls back to {@link #insertAll} when the connection is not a
+     * PostgreSQL connection, e.g. an embedded stand-in database.
+     * @throws org.springframework.transaction.IllegalTransactionStateException when no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public WriteCounts copyAll(List<GHGEmission> emissions, DuplicateMode duplicateMode) {
+        if (emissions.isEmpty()) {
+            return new WriteCounts(0, 0);
+        }
+        Deltas deltas = new Deltas();
+        WriteCounts counts = jdbcTemplate.execute((ConnectionCallback<WriteCounts>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return null;
+            }
+            long startNanos = System.nanoTime();
+            createStagingTable(connection);
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(copyManager.copyIn(COPY_SQL)), StandardCharsets.UTF_8), COPY_BUFFER_SIZE)) {
+                StringBuilder line = new StringBuilder(256);
+                for (GHGEmission emission : emissions) {
+                    line.setLength(0);
+                    appendCopyRow(line, emission);
+                    writer.append(line);
+                }
+            } catch (IOException e) {
+                throw new SQLException("COPY into ghg_emissions_staging failed", e);
+            }
+
+            WriteCounts merged = merge(connection, duplicateMode, deltas);
+            long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+            logger.debug("Copied {} emissions in {} ms ({} rows/s)", emissions.size(), elapsedNanos / 1_000_000,
+                Math.round(emissions.size() * 1_000_000_000.0 / elapsedNanos));
+            return merged;
+        });
+
+        if (counts == null) {
+            logger.warn("COPY import requires a PostgreSQL connection, falling back to batched inserts");
+            return insertAll(emissions, duplicateMode);
+        }
+        if (duplicateMode == DuplicateMode.ALLOW) {
+            addAll(deltas, emissions);
+        }
+        rollupRepository.apply(deltas);
+        return counts;
+    }
+
+    private static void createStagingTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+    }
+
+    /**
+     * Moves the staged rows into {@code ghg_emissions}. Except in {@link DuplicateMode#ALLOW} mode, whose
+     * rows the caller adds itself, the rollup changes of the merged rows are added to {@code deltas}.
+     */
+    private static WriteCounts merge(Connection connection, DuplicateMode duplicateMode, Deltas deltas) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (duplicateMode == DuplicateMode.ALLOW) {
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_SQL)) {
+                merge.setTimestamp(1, now);
+                merge.setTimestamp(2, now);
+                return new WriteCounts(merge.executeUpdate(), 0);
+            }
+        }
+
+        String sql = duplicateMode == DuplicateMode.UPSERT ? UPSERT_MERGE_SQL : SKIP_MERGE_SQL;
+        try (PreparedStatement merge = connection.prepareStatement(sql)) {
+            merge.setTimestamp(1, now);
+            merge.setTimestamp(2, now);
+            merge.setTimestamp(3, now);
+            try (ResultSet buckets = merge.executeQuery()) {
+                int inserted = 0;
+                int updated = 0;
+                while (buckets.next()) {
+                    long companyId = buckets.getLong(1);
+                    String scope = buckets.getString(2);
+                    String category = buckets.getString(3);
+                    Date month = buckets.getDate(4);
+                    String status = buckets.getString(5);
+                    String unit = buckets.getString(6);
+                    String previousStatus = buckets.getString(7);
+                    int records = buckets.getInt(9);
+                    double quantity = buckets.getDouble(10);
+                    double co2e = buckets.getDouble(11);
+                    double previousCo2e = buckets.getDouble(12);
+                    LocalDate periodMonth = month != null ? month.toLocalDate() : null;
+                    if (buckets.getBoolean(8)) {
+                        inserted += records;
+                        deltas.add(companyId, scope, category, periodMonth, status, unit, records, quantity, co2e);
+                    } else {
+                        updated += records;
+                        // Without a previous status the row was inserted concurrently by another import,
+                        // also as PENDING, so it stays in its bucket
+                        if (previousStatus != null) {
+                            deltas.add(companyId, scope, category, periodMonth, previousStatus, unit, -records, -quantity,
+                                -previousCo2e);
+                            deltas.add(companyId, scope, category, periodMonth, status, unit, records, quantity, co2e);
+                        }
+                    }
+                }
+                return new WriteCounts(inserted, updated);
+            }
+        }
+    }
+
+    private static void addAll(Deltas deltas, List<GHGEmission> emissions) {
+        for (GHGEmission emission : emissions) {
+            deltas.add(emission, emission.getStatus(), 1);
+        }
+    }
+
+    private static void appendCopyRow(StringBuilder line, GHGEmission emission) {
+        line.append(emission.getCompany().getId()).append(',');
+        appendCopyValue(line, emission.getSubmittedBy() != null ? emission.getSubmittedBy().getId() : null);
+        appendCopyValue(line, emission.getLastModifiedBy() != null ? emission.getLastModifiedBy().getId() : null);
+        appendCopyValue(line, emission.getScope());
+        appendCopyValue(line, emission.getCategory());
+        appendCopyValue(line, emission.getTimeFrame());
+        appendCopyValue(line, emission.getStartDate());
+        appendCopyValue(line, emission.getEndDate());
+        appendCopyValue(line, emission.getQuantity());
+        appendCopyValue(line, emission.getUnit());
+        appendCopyValue(line, emission.getSource());
+        appendCopyValue(line, emission.getActivity());
+        appendCopyValue(line, emission.getCalculationMethod());
+        appendCopyValue(line, emission.getEmissionFactor());
+        appendCopyValue(line, emission.getEmissionFactorUnit());
+        appendCopyValue(line, emission.getSubmissionDate());
+        appendCopyValue(line, emission.getNotes());
+        appendCopyValue(line, emission.getStatus());
+        // Hex only, never needs quoting
+        if (emission.getFingerprint() != null) {
+            line.append(emission.getFingerprint());
+        }
+        line.append(',');
+        appendCopyValue(line, emission.getCo2e());
+        if (emission.getCo2eFactorId() != null) {
+            line.append(emission.getCo2eFactorId());
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Appends one CSV field and its trailing comma. Nulls are left empty, which COPY reads as NULL; text
+     * is always quoted so that an empty string stays distinct from NULL.
+     */
+    private static void appendCopyValue(StringBuilder line, Object value) {
+        if (value instanceof String text) {
+            line.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        } else if (value instanceof Enum<?> enumValue) {
+            line.append(enumValue.name());
+        } else if (value instanceof LocalDateTime dateTime) {
+            // Truncate rather than let PostgreSQL round 23:59:59.999999999 into the next day
+            line.append(dateTime.truncatedTo(ChronoUnit.MICROS));
+        } else if (value != null) {
+            line.append(value);
+        }
+        line.append(',');
+    }
+
+    /**
+     * Binds the {@link #DATA_COLUMNS} to parameters 1 to 21.
+     */
+    private static void bind(PreparedStatement ps, GHGEmission emission) throws SQLException {
+        ps.setLong(1, emission.getCompany().getId());
+        setId(ps, 2, emission.getSubmittedBy() != null ? emission.getSubmittedBy().getId() : null);
+        setId(ps, 3, emission.getLastModifiedBy() != null ? emission.getLastModifiedBy().getId() : null);
+        ps.setString(4, emission.getScope() != null ? emission.getScope().name() : null);
+        ps.setString(5, emission.getCategory() != null ? emission.getCategory().name() : null);
+        ps.setString(6, emission.getTimeFrame() != null ? emission.getTimeFrame().name() : null);
+        setTimestamp(ps, 7, emission.getStartDate());
+        setTimestamp(ps, 8, emission.getEndDate());
+        setDouble(ps, 9, emission.getQuantity());
+        ps.setString(10, emission.getUnit());
+        ps.setString(11, emission.getSource());
+        ps.setString(12, emission.getActivity());
+        ps.setString(13, emission.getCalculationMethod());
+        setDouble(ps, 14, emission.getEmissionFactor());
+        ps.setString(15, emission.getEmissionFactorUnit());
+        setTimestamp(ps, 16, emission.getSubmissionDate());
+        ps.setString(17, emission.getNotes());
+        ps.setString(18, emission.getStatus().name());
+        ps.setString(19, emission.getFingerprint());
+        setDouble(ps, 20, emission.getCo2e());
+        setId(ps, 21, emission.getCo2eFactorId());
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            // Truncated as for COPY: the driver would round 23:59:59.999999999 into the next day
+            ps.setTimestamp(index, Timestamp.valueOf(value.truncatedTo(ChronoUnit.MICROS)));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+}
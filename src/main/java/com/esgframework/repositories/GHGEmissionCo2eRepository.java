@@ -0,0 +1,160 @@
+package com.esgframework.repositories;
+
+import com.esgframework.models.EmissionCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and rewrites the computed {@code co2e} column of {@code ghg_emissions} in ranges of ids, for the
+ * recalculation after emission factors change. Ranges are scanned through the primary key, which leads
+ * with the id in every partition, and rows are updated by id and start date so that each update touches a
+ * single partition.
+ */
+@Repository
+public class GHGEmissionCo2eRepository {
+
+    /**
+     * Rows to recalculate: only those of one category and one company when these are set, and only rows
+     * without a CO2e yet when {@code missingOnly} is set. Rows for which no factor was found are then left
+     * out until a factor has been added or changed since.
+     */
+    public record Filter(EmissionCategory category, Long companyId, boolean missingOnly) {
+    }
+
+    /**
+     * What the CO2e of one emission is computed from, and its current value. Company, scope, category name and
+     * status locate the row's rollup bucket.
+     */
+    public record Row(long id, Timestamp startDate, EmissionCategory category, String unit, String region,
+                      Double quantity, Double emissionFactor, Double co2e, Long co2eFactorId, long companyId,
+                      String scope, String categoryName, String status, Timestamp co2eCheckedAt) {
+    }
+
+    /**
+     * New CO2e of one emission. {@code co2eCheckedAt} records when the catalog that found no factor for it was
+     * loaded, and is null when a value was computed.
+     */
+    public record Update(long id, Timestamp startDate, Double co2e, Long co2eFactorId, Timestamp co2eCheckedAt) {
+    }
+
+    private static final String ROWS_SQL = "SELECT e.id, e.start_date, e.category, e.unit, c.region, e.quantity, " +
+        "e.emission_factor, e.co2e, e.co2e_factor_id, e.company_id, e.scope, e.status, e.co2e_checked_at " +
+        "FROM ghg_emissions e JOIN companies c ON c.id = e.company_id WHERE e.id BETWEEN ? AND ?";
+
+    // Status changes and re-imports lock the rows they move between rollup buckets, so the rows read for an
+    // update keep their bucket until it is applied
+    private static final String LOCK_ROWS = " ORDER BY e.id FOR UPDATE OF e";
+
+    private static final String UPDATE_SQL = "UPDATE ghg_emissions SET co2e = ?, co2e_factor_id = ?, " +
+        "co2e_checked_at = ? WHERE id = ? AND start_date = ?";
+
+    // Factors removed since cannot match, so only those added or updated count
+    private static final String LATEST_FACTOR_CHANGE = "(SELECT max(updated_at) FROM emission_factors)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the lowest and highest id of the matching rows, or null if there are none
+     */
+    public long[] findIdRange(Filter filter) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT min(id), max(id) FROM ghg_emissions WHERE true" + where(filter, "", params);
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] {min, rs.getLong(2)};
+        }, params.toArray());
+    }
+
+    public long count(Filter filter) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT count(*) FROM ghg_emissions WHERE true" + where(filter, "", params);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, params.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * The matching rows with ids from {@code fromId} to {@code toId}, both inclusive, locked until the end of
+     * the caller's transaction.
+     */
+    public List<Row> findRows(Filter filter, long fromId, long toId) {
+        List<Object> params = new ArrayList<>();
+        params.add(fromId);
+        params.add(toId);
+        String sql = ROWS_SQL + where(filter, "e.", params) + LOCK_ROWS;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Row(rs.getLong(1), rs.getTimestamp(2),
+            category(rs.getString(3)), rs.getString(4), rs.getString(5), getDouble(rs, 6), getDouble(rs, 7),
+            getDouble(rs, 8), getLong(rs, 9), rs.getLong(10), rs.getString(11), rs.getString(3), rs.getString(12),
+            rs.getTimestamp(13)),
+            params.toArray());
+    }
+
+    public void update(List<Update> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+            if (update.co2e() != null) {
+                ps.setDouble(1, update.co2e());
+            } else {
+                ps.setNull(1, Types.DOUBLE);
+            }
+            if (update.co2eFactorId() != null) {
+                ps.setLong(2, update.co2eFactorId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setTimestamp(3, update.co2eCheckedAt());
+            ps.setLong(4, update.id());
+            ps.setTimestamp(5, update.startDate());
+        });
+    }
+
+    private static String where(Filter filter, String alias, List<Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (filter.category() != null) {
+            where.append(" AND ").append(alias).append("category = ?");
+            params.add(filter.category().name());
+        }
+        if (filter.companyId() != null) {
+            where.append(" AND ").append(alias).append("company_id = ?");
+            params.add(filter.companyId());
+        }
+        if (filter.missingOnly()) {
+            where.append(" AND ").append(alias).append("co2e IS NULL AND ").append(alias).append("quantity IS NOT NULL")
+                .append(" AND (").append(alias).append("co2e_checked_at IS NULL OR ").append(alias)
+                .append("co2e_checked_at < ").append(LATEST_FACTOR_CHANGE).append(")");
+        }
+        return where.toString();
+    }
+
+    // Unknown names, e.g. of a category that was removed, compute like a missing category
+    private static EmissionCategory category(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return EmissionCategory.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Double getDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Long getLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
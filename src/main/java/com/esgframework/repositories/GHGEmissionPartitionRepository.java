@@ -0,0 +1,80 @@
+package com.esgframework.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Yearly range partitions of {@code ghg_emissions} on {@code start_date}, named {@code ghg_emissions_y<year>},
+ * plus {@code ghg_emissions_default} for rows of years without a partition. The table is partitioned by
+ * {@code V4__partition_ghg_emissions.sql}; on a table that is not, every method here is a no-op.
+ */
+@Repository
+public class GHGEmissionPartitionRepository {
+
+    public static final String DEFAULT_PARTITION = "ghg_emissions_default";
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('ghg_emissions'))";
+
+    private static final String PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'ghg_emissions'::regclass";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    /**
+     * @return names of the existing partitions, including the default one
+     */
+    public Set<String> findPartitions() {
+        return new HashSet<>(jdbcTemplate.queryForList(PARTITIONS_SQL, String.class));
+    }
+
+    /**
+     * @return the years of the rows held by the default partition
+     */
+    public List<Integer> findYearsInDefaultPartition() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT extract(year FROM start_date)::integer FROM " +
+            DEFAULT_PARTITION + " ORDER BY 1", Integer.class);
+    }
+
+    public static String partitionName(int year) {
+        return "ghg_emissions_y" + year;
+    }
+
+    /**
+     * Creates the partition for one year. Rows of that year waiting in the default partition are moved into
+     * it first, since a partition cannot be added while the default partition holds rows of its range. Must
+     * run in a transaction, which holds an exclusive lock on the default partition until it ends; waiting
+     * for that lock is bounded by {@code lockTimeoutMillis}.
+     * @return the number of rows moved out of the default partition
+     */
+    public int createPartition(int year, long lockTimeoutMillis, boolean hasDefaultPartition) {
+        String partition = partitionName(year);
+        Timestamp from = Timestamp.valueOf(LocalDate.of(year, 1, 1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(LocalDate.of(year + 1, 1, 1).atStartOfDay());
+
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE ghg_emissions INCLUDING DEFAULTS)");
+        int moved = 0;
+        if (hasDefaultPartition) {
+            moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE start_date >= ? AND start_date < ? RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved",
+                from, to);
+        }
+        // Attaching builds the partition's indexes and constraints from those of ghg_emissions
+        jdbcTemplate.execute("ALTER TABLE ghg_emissions ATTACH PARTITION " + partition +
+            " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return moved;
+    }
+}
@@ -1,20 +1,128 @@
 package com.esgframework.repositories;
 
+import com.esgframework.dto.GHGEmissionExportRow;
+import com.esgframework.dto.GHGEmissionSummary;
 import com.esgframework.models.GHGEmission;
 import com.esgframework.models.EmissionScope;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
-import com.esgframework.models.Company;
 import com.esgframework.models.SubmissionStatus;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface GHGEmissionRepository extends JpaRepository<GHGEmission, Long> {
-    List<GHGEmission> findByCompanyAndStatus(Company company, SubmissionStatus status);
-    List<GHGEmission> findByCompany(Company company);
-    List<GHGEmission> findByCompanyId(Long companyId);
-    List<GHGEmission> findByCompanyIdAndScope(Long companyId, EmissionScope scope);
-    List<GHGEmission> findByCompanyIdAndStartDateBetween(Long companyId, LocalDateTime startDate, LocalDateTime endDate);
+    // List views select GHGEmissionSummary rows; the submitter is joined for its name only
+    String SUMMARY = "SELECT new com.esgframework.dto.GHGEmissionSummary(e.id, e.scope, e.category, e.startDate, " +
+        "e.endDate, e.quantity, e.unit, e.co2e, e.status, s.name, e.createdAt) " +
+        "FROM GHGEmission e LEFT JOIN e.submittedBy s WHERE e.company.id = :companyId";
+
+    String COUNT = "SELECT count(e) FROM GHGEmission e WHERE e.company.id = :companyId";
+
+    String NEWEST_FIRST = " ORDER BY e.createdAt DESC, e.id DESC";
+
+    // Rows after a keyset cursor, newest first; the Pageable only carries the limit
+    String SEEK = " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id))" + NEWEST_FIRST;
+
+    String WITH_STATUS = " AND e.status IN :statuses";
+
+    String WITH_SCOPE = " AND e.scope = :scope";
+
+    // A plain range on the partition key, so that PostgreSQL only scans the partitions of the years it covers
+    String WITH_START_DATE = " AND e.startDate BETWEEN :startDate AND :endDate";
+
+    String EXPORT = "SELECT new com.esgframework.dto.GHGEmissionExportRow(e.id, e.scope, e.category, e.timeFrame, " +
+        "e.startDate, e.endDate, e.quantity, e.unit, e.source, e.activity, e.calculationMethod, e.emissionFactor, " +
+        "e.emissionFactorUnit, e.co2e, e.notes, e.status, s.name, e.createdAt, e.updatedAt) " +
+        "FROM GHGEmission e LEFT JOIN e.submittedBy s " +
+        "WHERE e.company.id = :companyId AND e.status IN :statuses ORDER BY e.id";
+
+    // Single emissions are returned in full, so their company and users are fetched in the same select
+    @Override
+    @EntityGraph(GHGEmission.DETAIL_GRAPH)
+    Optional<GHGEmission> findById(Long id);
+
+    // Locks the row for a status change, so that concurrent reviews move its rollup bucket one after the other.
+    // Without the detail graph: PostgreSQL cannot lock through its outer joins.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM GHGEmission e WHERE e.id = :id")
+    Optional<GHGEmission> findByIdForUpdate(@Param("id") Long id);
+
+    // Summary listings come in three forms: newest first (Pageable.unpaged() for all rows, or a limit for the
+    // first keyset page), an offset page sorted by its Pageable, and the rows after a keyset cursor
+
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<GHGEmissionSummary> findSummaries(@Param("companyId") Long companyId, Pageable limit);
+
+    @Query(value = SUMMARY, countQuery = COUNT)
+    Page<GHGEmissionSummary> findSummaryPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query(SUMMARY + SEEK)
+    List<GHGEmissionSummary> findSummariesAfter(@Param("companyId") Long companyId, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable limit);
+
+    @Query(SUMMARY + WITH_STATUS + NEWEST_FIRST)
+    List<GHGEmissionSummary> findSummariesByStatus(@Param("companyId") Long companyId,
+                                                   @Param("statuses") Collection<SubmissionStatus> statuses, Pageable limit);
+
+    @Query(value = SUMMARY + WITH_STATUS, countQuery = COUNT + WITH_STATUS)
+    Page<GHGEmissionSummary> findSummaryPageByStatus(@Param("companyId") Long companyId,
+                                                     @Param("statuses") Collection<SubmissionStatus> statuses,
+                                                     Pageable pageable);
+
+    @Query(SUMMARY + WITH_STATUS + SEEK)
+    List<GHGEmissionSummary> findSummariesByStatusAfter(@Param("companyId") Long companyId,
+                                                        @Param("statuses") Collection<SubmissionStatus> statuses,
+                                                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                        Pageable limit);
+
+    @Query(SUMMARY + WITH_SCOPE + NEWEST_FIRST)
+    List<GHGEmissionSummary> findSummariesByScope(@Param("companyId") Long companyId, @Param("scope") EmissionScope scope,
+                                                  Pageable limit);
+
+    @Query(value = SUMMARY + WITH_SCOPE, countQuery = COUNT + WITH_SCOPE)
+    Page<GHGEmissionSummary> findSummaryPageByScope(@Param("companyId") Long companyId, @Param("scope") EmissionScope scope,
+                                                    Pageable pageable);
+
+    @Query(SUMMARY + WITH_SCOPE + SEEK)
+    List<GHGEmissionSummary> findSummariesByScopeAfter(@Param("companyId") Long companyId, @Param("scope") EmissionScope scope,
+                                                       @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                       Pageable limit);
+
+    @Query(SUMMARY + WITH_START_DATE + NEWEST_FIRST)
+    List<GHGEmissionSummary> findSummariesByStartDate(@Param("companyId") Long companyId,
+                                                      @Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate, Pageable limit);
+
+    @Query(value = SUMMARY + WITH_START_DATE, countQuery = COUNT + WITH_START_DATE)
+    Page<GHGEmissionSummary> findSummaryPageByStartDate(@Param("companyId") Long companyId,
+                                                        @Param("startDate") LocalDateTime startDate,
+                                                        @Param("endDate") LocalDateTime endDate, Pageable pageable);
+
+    @Query(SUMMARY + WITH_START_DATE + SEEK)
+    List<GHGEmissionSummary> findSummariesByStartDateAfter(@Param("companyId") Long companyId,
+                                                           @Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate,
+                                                           @Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("id") Long id, Pageable limit);
+
+    // Read through a cursor 500 rows at a time; must be consumed and closed inside a transaction
+    @Query(EXPORT)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<GHGEmissionExportRow> streamExportRows(@Param("companyId") Long companyId,
+                                                  @Param("statuses") Collection<SubmissionStatus> statuses);
 }
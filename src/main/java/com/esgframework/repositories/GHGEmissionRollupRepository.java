@@ -0,0 +1,159 @@
+package com.esgframework.repositories;
+
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.GHGEmission;
+import com.esgframework.models.GHGEmissionRollup;
+import com.esgframework.models.SubmissionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@link GHGEmissionRollup} buckets with additive upserts. Deltas are applied in the caller's
+ * transaction, so a bucket always matches the committed emission rows. Buckets are written in key order,
+ * which keeps concurrent writers from deadlocking on each other's rows.
+ */
+@Repository
+public class GHGEmissionRollupRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO ghg_emission_rollups " +
+        "(company_id, scope, category, period_month, status, unit, record_count, total_quantity, total_co2e, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now()) " +
+        "ON CONFLICT (company_id, scope, category, period_month, status, unit) DO UPDATE SET " +
+        "record_count = ghg_emission_rollups.record_count + EXCLUDED.record_count, " +
+        "total_quantity = ghg_emission_rollups.total_quantity + EXCLUDED.total_quantity, " +
+        "total_co2e = ghg_emission_rollups.total_co2e + EXCLUDED.total_co2e, " +
+        "updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_SQL = "SELECT id, company_id, scope, category, period_month, status, unit, record_count, " +
+        "total_quantity, total_co2e, updated_at FROM ghg_emission_rollups WHERE company_id = ? AND record_count <> 0";
+
+    private static final String AGGREGATE_SQL = "INSERT INTO ghg_emission_rollups " +
+        "(company_id, scope, category, period_month, status, unit, record_count, total_quantity, total_co2e, updated_at) " +
+        "SELECT company_id, scope, COALESCE(category, '" + GHGEmissionRollup.UNCATEGORIZED + "'), " +
+        "date_trunc('month', start_date)::date, status, COALESCE(unit, '" + GHGEmissionRollup.UNSPECIFIED_UNIT + "'), " +
+        "count(*), COALESCE(sum(quantity), 0), COALESCE(sum(co2e), 0), now() " +
+        "FROM ghg_emissions WHERE scope IS NOT NULL AND start_date IS NOT NULL";
+
+    private static final String GROUP_BY = " GROUP BY 1, 2, 3, 4, 5, 6";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rollup changes collected while writing emissions, summed per bucket before they are applied.
+     */
+    public static final class Deltas {
+        private final Map<Bucket, double[]> buckets = new TreeMap<>(Bucket.ORDER);
+
+        /**
+         * Counts the emission in the bucket of the given status, with sign -1 to remove it again.
+         */
+        public void add(GHGEmission emission, SubmissionStatus status, int sign) {
+            if (status == null || emission.getScope() == null || emission.getStartDate() == null || emission.getCompany() == null) {
+                return;
+            }
+            add(emission.getCompany().getId(), emission.getScope().name(),
+                emission.getCategory() != null ? emission.getCategory().name() : null,
+                emission.getStartDate().toLocalDate().withDayOfMonth(1), status.name(), emission.getUnit(),
+                sign, emission.getQuantity() != null ? sign * emission.getQuantity() : 0,
+                emission.getCo2e() != null ? sign * emission.getCo2e() : 0);
+        }
+
+        /**
+         * Adds to one bucket. Scope and status are enum names.
+         * @param category enum name, or null for {@link GHGEmissionRollup#UNCATEGORIZED}
+         * @param month first day of the month
+         * @param unit unit as entered, or null for {@link GHGEmissionRollup#UNSPECIFIED_UNIT}
+         */
+        public void add(long companyId, String scope, String category, LocalDate month, String status, String unit,
+                        long records, double quantity, double co2e) {
+            if (scope == null || month == null) {
+                return;
+            }
+            Bucket bucket = new Bucket(companyId, scope, category != null ? category : GHGEmissionRollup.UNCATEGORIZED,
+                month, status, unit != null ? unit : GHGEmissionRollup.UNSPECIFIED_UNIT);
+            double[] totals = buckets.computeIfAbsent(bucket, key -> new double[3]);
+            totals[0] += records;
+            totals[1] += quantity;
+            totals[2] += co2e;
+        }
+    }
+
+    private record Bucket(long companyId, String scope, String category, LocalDate month, String status, String unit) {
+        static final Comparator<Bucket> ORDER = Comparator.comparingLong(Bucket::companyId)
+            .thenComparing(Bucket::scope)
+            .thenComparing(Bucket::category)
+            .thenComparing(Bucket::month)
+            .thenComparing(Bucket::status)
+            .thenComparing(Bucket::unit);
+    }
+
+    public void apply(Deltas deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.buckets.size());
+        deltas.buckets.forEach((bucket, totals) -> {
+            if (totals[0] != 0 || totals[1] != 0 || totals[2] != 0) {
+                rows.add(new Object[] {bucket.companyId(), bucket.scope(), bucket.category(), Date.valueOf(bucket.month()),
+                    bucket.status(), bucket.unit(), (long) totals[0], totals[1], totals[2]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+    }
+
+    /**
+     * @return the company's non-empty buckets
+     */
+    public List<GHGEmissionRollup> findByCompanyId(Long companyId) {
+        return jdbcTemplate.query(SELECT_SQL, GHGEmissionRollupRepository::mapRollup, companyId);
+    }
+
+    /**
+     * Recomputes the company's buckets from its emission rows. Must run in a transaction.
+     * @return the number of buckets written
+     */
+    public int rebuild(Long companyId) {
+        jdbcTemplate.update("DELETE FROM ghg_emission_rollups WHERE company_id = ?", companyId);
+        return jdbcTemplate.update(AGGREGATE_SQL + " AND company_id = ?" + GROUP_BY, companyId);
+    }
+
+    /**
+     * Recomputes every bucket from the emission rows. Must run in a transaction.
+     * @return the number of buckets written
+     */
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM ghg_emission_rollups");
+        return jdbcTemplate.update(AGGREGATE_SQL + GROUP_BY);
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM ghg_emission_rollups)", Boolean.class));
+    }
+
+    private static GHGEmissionRollup mapRollup(ResultSet rs, int rowNum) throws SQLException {
+        GHGEmissionRollup rollup = new GHGEmissionRollup();
+        rollup.setId(rs.getLong("id"));
+        rollup.setCompanyId(rs.getLong("company_id"));
+        rollup.setScope(EmissionScope.valueOf(rs.getString("scope")));
+        rollup.setCategory(rs.getString("category"));
+        rollup.setPeriodMonth(rs.getDate("period_month").toLocalDate());
+        rollup.setStatus(SubmissionStatus.valueOf(rs.getString("status")));
+        rollup.setUnit(rs.getString("unit"));
+        rollup.setRecordCount(rs.getLong("record_count"));
+        rollup.setTotalQuantity(rs.getDouble("total_quantity"));
+        rollup.setTotalCo2e(rs.getDouble("total_co2e"));
+        rollup.setUpdatedAt(rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : null);
+        return rollup;
+    }
+}
@@ -0,0 +1,13 @@
+package com.esgframework.repositories;
+
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.GHGImportFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GHGImportFileRepository extends JpaRepository<GHGImportFile, Long> {
+    Optional<GHGImportFile> findByCompanyIdAndScopeAndFileHash(Long companyId, EmissionScope scope, String fileHash);
+}
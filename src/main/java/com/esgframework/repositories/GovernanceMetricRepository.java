@@ -1,20 +1,58 @@
 package com.esgframework.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.esgframework.dto.GovernanceMetricExportRow;
 import com.esgframework.models.Company;
 import com.esgframework.models.GovernanceMetric;
 import com.esgframework.models.SubmissionStatus;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface GovernanceMetricRepository extends JpaRepository<GovernanceMetric, Long> {
     
+    @Override
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
+    Optional<GovernanceMetric> findById(Long id);
+    
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
     List<GovernanceMetric> findByCompany(Company company);
     
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
     List<GovernanceMetric> findByCompanyAndStatus(Company company, SubmissionStatus status);
     
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
     List<GovernanceMetric> findByCompanyOrderByCreatedAtDesc(Company company);
+    
+    // Review history in one range scan of idx_gov_company_status_created
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
+    List<GovernanceMetric> findByCompanyAndStatusInOrderByCreatedAtDescIdDesc(Company company, Collection<SubmissionStatus> statuses);
+    
+    @EntityGraph(GovernanceMetric.WITH_ASSOCIATIONS)
+    Page<GovernanceMetric> findByCompanyAndStatusIn(Company company, Collection<SubmissionStatus> statuses, Pageable pageable);
+    
+    // Export rows are not entities, so nothing is kept in the persistence context. Read through a cursor
+    // 500 rows at a time; the stream must be consumed and closed inside a transaction
+    @Query("SELECT new com.esgframework.dto.GovernanceMetricExportRow(m.id, m.subtype, m.category, m.metric, m.value, " +
+        "m.unit, m.startDate, m.endDate, m.description, m.policyExists, m.policyUrl, m.reviewFrequency, " +
+        "m.responsibleParty, m.documentationUrl, m.status, s.name, m.createdAt, m.updatedAt) FROM GovernanceMetric m LEFT JOIN m.submittedBy s " +
+        "WHERE m.company.id = :companyId AND m.status IN :statuses ORDER BY m.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<GovernanceMetricExportRow> streamExportRows(@Param("companyId") Long companyId,
+                                                       @Param("statuses") Collection<SubmissionStatus> statuses);
 }
@@ -0,0 +1,87 @@
+package com.esgframework.repositories;
+
+import com.esgframework.dto.PortfolioYear;
+import com.esgframework.models.SubmissionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * Emission totals per company and year for all companies at once. The database groups the emission rows
+ * and computes the year-over-year figures and company totals with window functions, so one query serves
+ * the whole portfolio and every row leaving it is already a finished company-year.
+ */
+@Repository
+public class PortfolioAnalyticsRepository {
+
+    // Rows fetched per round trip; the result is read through a cursor instead of being buffered by the driver
+    private static final int FETCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Passes the company-years to the consumer ordered by company id and year. Must run in a transaction,
+     * as PostgreSQL only uses a cursor for the fetch size when auto-commit is off.
+     * @param statuses only rows with one of these statuses
+     * @param fromYear first year to include, may be null
+     * @param toYear last year to include, may be null
+     * @param industry only companies of this industry, or null for all
+     */
+    public void forEachCompanyYear(Collection<SubmissionStatus> statuses, Integer fromYear, Integer toYear,
+                                   String industry, Consumer<PortfolioYear> consumer) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (SubmissionStatus status : statuses) {
+            placeholders.add("?");
+            params.add(status.name());
+        }
+        // Plain ranges on start_date, so that only the partitions of the selected years are scanned
+        StringBuilder where = new StringBuilder("status IN (").append(placeholders).append(")");
+        if (fromYear != null) {
+            where.append(" AND start_date >= ?");
+            params.add(Timestamp.valueOf(LocalDate.of(fromYear, 1, 1).atStartOfDay()));
+        }
+        if (toYear != null) {
+            where.append(" AND start_date < ?");
+            params.add(Timestamp.valueOf(LocalDate.of(toYear + 1, 1, 1).atStartOfDay()));
+        }
+        String companyFilter = "";
+        if (industry != null) {
+            companyFilter = " WHERE c.industry = ?";
+            params.add(industry);
+        }
+
+        String sql = "SELECT c.id, c.name, c.industry, y.year, y.records, y.emissions, " +
+            "CASE WHEN lag(y.year) OVER years = y.year - 1 THEN lag(y.emissions) OVER years END, " +
+            "sum(y.records) OVER company, sum(y.emissions) OVER company " +
+            "FROM (SELECT company_id, extract(year FROM start_date)::int AS year, count(*) AS records, " +
+            "COALESCE(sum(co2e), 0) AS emissions " +
+            "FROM ghg_emissions WHERE " + where + " GROUP BY 1, 2) y " +
+            "JOIN companies c ON c.id = y.company_id" + companyFilter + " " +
+            "WINDOW company AS (PARTITION BY y.company_id), years AS (PARTITION BY y.company_id ORDER BY y.year) " +
+            "ORDER BY c.id, y.year";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, rs -> {
+            consumer.accept(new PortfolioYear(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                rs.getLong(5), rs.getDouble(6), rs.getObject(7) != null ? rs.getDouble(7) : null,
+                rs.getLong(8), rs.getDouble(9)));
+        });
+    }
+}
@@ -1,20 +1,58 @@
 package com.esgframework.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.esgframework.dto.SocialMetricExportRow;
 import com.esgframework.models.Company;
 import com.esgframework.models.SocialMetric;
 import com.esgframework.models.SubmissionStatus;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface SocialMetricRepository extends JpaRepository<SocialMetric, Long> {
     
+    @Override
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
+    Optional<SocialMetric> findById(Long id);
+    
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
     List<SocialMetric> findByCompany(Company company);
     
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
     List<SocialMetric> findByCompanyAndStatus(Company company, SubmissionStatus status);
     
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
     List<SocialMetric> findByCompanyOrderByCreatedAtDesc(Company company);
+    
+    // Review history in one range scan of idx_social_company_status_created
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
+    List<SocialMetric> findByCompanyAndStatusInOrderByCreatedAtDescIdDesc(Company company, Collection<SubmissionStatus> statuses);
+    
+    @EntityGraph(SocialMetric.WITH_ASSOCIATIONS)
+    Page<SocialMetric> findByCompanyAndStatusIn(Company company, Collection<SubmissionStatus> statuses, Pageable pageable);
+    
+    // Export rows are not entities, so nothing is kept in the persistence context. Read through a cursor
+    // 500 rows at a time; the stream must be consumed and closed inside a transaction
+    @Query("SELECT new com.esgframework.dto.SocialMetricExportRow(m.id, m.subtype, m.category, m.metric, m.value, " +
+        "m.unit, m.startDate, m.endDate, m.description, m.location, m.department, m.documentationUrl, m.status, " +
+        "s.name, m.createdAt, m.updatedAt) FROM SocialMetric m LEFT JOIN m.submittedBy s " +
+        "WHERE m.company.id = :companyId AND m.status IN :statuses ORDER BY m.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<SocialMetricExportRow> streamExportRows(@Param("companyId") Long companyId,
+                                                   @Param("statuses") Collection<SubmissionStatus> statuses);
 }
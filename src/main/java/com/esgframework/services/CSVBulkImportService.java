@@ -0,0 +1,225 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.BulkImportFileResult;
+import com.esgframework.dto.BulkImportReport;
+import com.esgframework.dto.CSVImportOptions;
+import com.esgframework.dto.CSVImportOptions.DuplicateMode;
+import com.esgframework.dto.CSVImportResult;
+import com.esgframework.models.Company;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.User;
+import com.esgframework.utils.EmissionFingerprints;
+import com.esgframework.utils.EmissionScopeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports a bundle of CSV and XLSX files, given as separate parts of one request and/or as ZIP archives of
+ * CSV files, through the streaming pipeline of {@link CSVService}. Company and user are resolved once for
+ * the whole bundle. ZIP entries are read straight from the archive stream; nothing is extracted to disk.
+ * <p>
+ * The scope of each file is taken from its name ("plant-a_scope2.csv"), else from the request's default
+ * scope, else from a Scope column in the file itself. A file that fails is reported and does not stop the
+ * others.
+ */
+@Service
+public class CSVBulkImportService {
+    private static final Logger logger = LoggerFactory.getLogger(CSVBulkImportService.class);
+
+    @Autowired
+    private CSVService csvService;
+
+    @Autowired
+    private CSVRejectionReportRegistry rejectionReportRegistry;
+
+    @Value("${app.import.bulk.max-entries:500}")
+    private int maxEntries;
+
+    /**
+     * @param defaultScope scope for files whose name does not mention one, may be null
+     */
+    public BulkImportReport importFiles(List<MultipartFile> files, Long companyId, EmissionScope defaultScope,
+                                        CSVImportOptions options) {
+        long startNanos = System.nanoTime();
+        Company company = csvService.resolveCompany(companyId);
+        User currentUser = csvService.resolveCurrentUser();
+        BulkImport bulkImport = new BulkImport(company, currentUser, defaultScope, options);
+
+        for (MultipartFile file : files) {
+            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "unnamed";
+            if (hasExtension(fileName, ".zip")) {
+                bulkImport.importArchive(file, fileName);
+            } else if (hasExtension(fileName, ".csv") || CSVService.isWorkbook(fileName)) {
+                bulkImport.importFile(file, fileName);
+            } else {
+                bulkImport.results.add(BulkImportFileResult.ignored(fileName, "Only .csv, .xlsx and .zip files are accepted"));
+            }
+        }
+
+        BulkImportReport report = new BulkImportReport(bulkImport.results, (System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("Bulk import of {} files finished: {} imported, {} failed, {} records saved ({} ms)",
+            report.getFiles().size(), report.getFilesImported(), report.getFilesFailed(), report.getRecordsSaved(),
+            report.getElapsedMillis());
+        return report;
+    }
+
+    private class BulkImport {
+        private final Company company;
+        private final User currentUser;
+        private final EmissionScope defaultScope;
+        private final CSVImportOptions options;
+        private final boolean deduplicate;
+        private final List<BulkImportFileResult> results = new ArrayList<>();
+
+        BulkImport(Company company, User currentUser, EmissionScope defaultScope, CSVImportOptions options) {
+            this.company = company;
+            this.currentUser = currentUser;
+            this.defaultScope = defaultScope;
+            this.options = options;
+            this.deduplicate = options.getDuplicateMode() != DuplicateMode.ALLOW;
+        }
+
+        void importFile(MultipartFile file, String fileName) {
+            EmissionScope scope = scopeOf(fileName);
+            try {
+                String fileHash = deduplicate && scope != null ? EmissionFingerprints.ofContent(file.getInputStream()) : null;
+                if (fileHash != null && csvService.isImportedFile(company, scope, fileHash)) {
+                    results.add(BulkImportFileResult.imported(fileName, scope, CSVImportResult.ofDuplicateFile(0), 0, null));
+                    return;
+                }
+                if (CSVService.isWorkbook(fileName)) {
+                    importRows(fileName, scope, rejections -> csvService.importWorkbook(file, fileName, fileHash, scope,
+                        company, currentUser, options, CSVImportProgressListener.NONE, rejections));
+                } else {
+                    importStream(file.getInputStream(), fileName, fileHash, scope);
+                }
+            } catch (IOException e) {
+                results.add(BulkImportFileResult.failed(fileName, scope, "Could not read file: " + e.getMessage()));
+            }
+        }
+
+        /**
+         * Reads the archive twice when deduplicating: once to hash every entry, so that entries imported
+         * before can be skipped without parsing, and once to import the rest.
+         */
+        void importArchive(MultipartFile archive, String archiveName) {
+            try {
+                Map<String, String> entryHashes = deduplicate ? hashEntries(archive) : Map.of();
+                int entries = 0;
+                try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null) {
+                        String entryName = archiveName + "/" + entry.getName();
+                        if (!isCsvEntry(entry)) {
+                            if (!entry.isDirectory() && !isHidden(entry)) {
+                                results.add(BulkImportFileResult.ignored(entryName, "Only .csv entries are imported"));
+                            }
+                            continue;
+                        }
+                        if (++entries > maxEntries) {
+                            results.add(BulkImportFileResult.ignored(entryName, "Archive has more than " + maxEntries + " CSV files"));
+                            continue;
+                        }
+
+                        EmissionScope scope = scopeOf(entry.getName());
+                        String fileHash = scope != null ? entryHashes.get(entry.getName()) : null;
+                        if (fileHash != null && csvService.isImportedFile(company, scope, fileHash)) {
+                            results.add(BulkImportFileResult.imported(entryName, scope, CSVImportResult.ofDuplicateFile(0), 0, null));
+                            continue;
+                        }
+                        importStream(nonClosing(zip), entryName, fileHash, scope);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // IllegalArgumentException: entry names that are not valid UTF-8
+                logger.warn("Could not read archive {}: {}", archiveName, e.getMessage());
+                results.add(BulkImportFileResult.failed(archiveName, null, "Could not read archive: " + e.getMessage()));
+            }
+        }
+
+        private Map<String, String> hashEntries(MultipartFile archive) throws IOException {
+            Map<String, String> hashes = new HashMap<>();
+            try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null && hashes.size() < maxEntries) {
+                    if (isCsvEntry(entry)) {
+                        hashes.put(entry.getName(), EmissionFingerprints.ofContent(nonClosing(zip)));
+                    }
+                }
+            }
+            return hashes;
+        }
+
+        private void importStream(InputStream inputStream, String fileName, String fileHash, EmissionScope scope) {
+            importRows(fileName, scope, rejections -> csvService.importStream(inputStream, fileName, fileHash, scope, company,
+                currentUser, options, CSVImportProgressListener.NONE, rejections));
+        }
+
+        private void importRows(String fileName, EmissionScope scope, Function<CSVRejectionReport, CSVImportResult> importer) {
+            CSVRejectionReport rejections = rejectionReportRegistry.newReport();
+            try {
+                CSVImportResult result = importer.apply(rejections);
+                long rejectedRows = rejections.getTotal();
+                String reportId = null;
+                if (rejectedRows > 0) {
+                    reportId = rejectionReportRegistry.register(rejections);
+                } else {
+                    rejections.discard();
+                }
+                results.add(BulkImportFileResult.imported(fileName, scope, result, rejectedRows, reportId));
+            } catch (RuntimeException e) {
+                rejections.discard();
+                logger.warn("Bulk import of {} failed: {}", fileName, e.getMessage());
+                results.add(BulkImportFileResult.failed(fileName, scope, e.getMessage()));
+            }
+        }
+
+        private EmissionScope scopeOf(String fileName) {
+            EmissionScope scope = EmissionScopeParser.fromFileName(fileName);
+            return scope != null ? scope : defaultScope;
+        }
+    }
+
+    private static boolean isCsvEntry(ZipEntry entry) {
+        return !entry.isDirectory() && !isHidden(entry) && hasExtension(entry.getName(), ".csv");
+    }
+
+    /**
+     * Dot files and the resource forks macOS adds to archives.
+     */
+    private static boolean isHidden(ZipEntry entry) {
+        String name = entry.getName();
+        return name.startsWith("__MACOSX/") || name.substring(name.lastIndexOf('/') + 1).startsWith(".");
+    }
+
+    private static boolean hasExtension(String fileName, String extension) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(extension);
+    }
+
+    /**
+     * Lets the CSV reader close its input without closing the archive, which still has entries to read.
+     */
+    private static InputStream nonClosing(ZipInputStream zip) {
+        return new FilterInputStream(zip) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
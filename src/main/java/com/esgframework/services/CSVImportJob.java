@@ -0,0 +1,122 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.CSVImportJobStatus;
+import com.esgframework.dto.CSVImportResult;
+import com.esgframework.models.EmissionScope;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mutable state of one background CSV import. Written by the worker thread through the progress
+ * callback and read by any number of pollers through {@link #toStatus()}, so every field is volatile
+ * and a status snapshot never takes a lock.
+ */
+public class CSVImportJob implements CSVImportProgressListener {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final EmissionScope scope;
+    private final Long companyId;
+    private final String submittedBy;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long startNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long rowsRead;
+    private volatile long rowsSaved;
+    private volatile long rowsRejected;
+    private volatile int chunks;
+    private volatile double rowsPerSecond;
+    private volatile String error;
+
+    public CSVImportJob(String id, String fileName, EmissionScope scope, Long companyId, String submittedBy) {
+        this.id = id;
+        this.fileName = fileName;
+        this.scope = scope;
+        this.companyId = companyId;
+        this.submittedBy = submittedBy;
+    }
+
+    @Override
+    public void onChunkSaved(int chunkNumber, long recordsRead, long recordsSaved, long recordsSkipped, double chunkRowsPerSecond) {
+        this.chunks = chunkNumber;
+        this.rowsRead = recordsRead;
+        this.rowsSaved = recordsSaved;
+        this.rowsRejected = recordsSkipped;
+        long elapsedNanos = System.nanoTime() - startNanos;
+        this.rowsPerSecond = elapsedNanos > 0 ? recordsRead * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void markRunning() {
+        startNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void markFinished(CSVImportResult result) {
+        rowsRead = result.getRecordsRead();
+        rowsSaved = result.getRecordsSaved();
+        rowsRejected = result.getRecordsSkipped();
+        chunks = result.getChunks();
+        rowsPerSecond = result.getRowsPerSecond();
+        finishedAt = LocalDateTime.now();
+        state = result.isCancelled() ? State.CANCELLED : State.COMPLETED;
+    }
+
+    void markCancelled() {
+        finishedAt = LocalDateTime.now();
+        state = State.CANCELLED;
+    }
+
+    void markFailed(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        state = State.FAILED;
+    }
+
+    public boolean isFinished() {
+        State current = state;
+        return current == State.COMPLETED || current == State.FAILED || current == State.CANCELLED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public CSVImportJobStatus toStatus() {
+        return new CSVImportJobStatus(id, state.name(), fileName, scope, companyId, submittedAt, startedAt, finishedAt,
+            rowsRead, rowsSaved, rowsRejected, chunks, rowsPerSecond, error);
+    }
+}
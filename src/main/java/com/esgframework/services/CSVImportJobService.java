@@ -0,0 +1,170 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.CSVImportJobStatus;
+import com.esgframework.dto.CSVImportOptions;
+import com.esgframework.dto.CSVImportResult;
+import com.esgframework.models.Company;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CSV imports on a bounded worker pool so that the upload request can return immediately.
+ * Uploads are spooled to a temporary file first because the multipart content is discarded once
+ * the request completes.
+ */
+@Service
+public class CSVImportJobService {
+    private static final Logger logger = LoggerFactory.getLogger(CSVImportJobService.class);
+
+    @Autowired
+    private CSVService csvService;
+
+    @Autowired
+    private CSVRejectionReportRegistry rejectionReportRegistry;
+
+    @Value("${app.import.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${app.import.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, CSVImportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "csv-import-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        logger.info("CSV import worker pool started with {} threads and queue capacity {}", workerThreads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(CSVImportJob::requestCancel);
+        executor.shutdown();
+    }
+
+    /**
+     * Queues an import of the uploaded file.
+     * @throws RejectedExecutionException if the worker queue is full
+     */
+    public CSVImportJobStatus submit(MultipartFile file, EmissionScope scope, Long companyId, CSVImportOptions options) throws IOException {
+        Company company = csvService.resolveCompany(companyId);
+        User currentUser = csvService.resolveCurrentUser();
+
+        Path spoolFile = Files.createTempFile("ghg-import-", ".csv");
+        try {
+            file.transferTo(spoolFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+
+        CSVImportJob job = new CSVImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), scope,
+            companyId, currentUser.getEmail());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, spoolFile, scope, company, currentUser, options));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+
+        logger.info("Queued CSV import job {} for file {} ({} bytes)", job.getId(), file.getOriginalFilename(), file.getSize());
+        return job.toStatus();
+    }
+
+    public CSVImportJobStatus getJobStatus(String jobId) {
+        return findAccessibleJob(jobId).toStatus();
+    }
+
+    public CSVImportJobStatus cancel(String jobId) {
+        CSVImportJob job = findAccessibleJob(jobId);
+        if (!job.isFinished()) {
+            job.requestCancel();
+            logger.info("Cancellation requested for CSV import job {}", jobId);
+        }
+        return job.toStatus();
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.job-cleanup-interval-ms:300000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private void run(CSVImportJob job, Path spoolFile, EmissionScope scope, Company company, User user, CSVImportOptions options) {
+        CSVRejectionReport rejections = rejectionReportRegistry.newReport();
+        try {
+            if (job.isCancelled()) {
+                job.markCancelled();
+                return;
+            }
+            job.markRunning();
+            CSVImportResult result = csvService.processCSVStreaming(new FileSystemResource(spoolFile), job.getFileName(), scope,
+                company, user, options, job, rejections);
+            // The rejections of a job are downloadable under the job id
+            rejectionReportRegistry.register(job.getId(), job.getSubmittedBy(), rejections);
+            job.markFinished(result);
+            logger.info("CSV import job {} finished with state {}", job.getId(), job.getState());
+        } catch (Exception e) {
+            logger.error("CSV import job {} failed: {}", job.getId(), e.getMessage());
+            rejections.discard();
+            job.markFailed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete spool file {}: {}", spoolFile, e.getMessage());
+            }
+        }
+    }
+
+    private CSVImportJob findAccessibleJob(String jobId) {
+        CSVImportJob job = jobs.get(jobId);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .anyMatch(authority -> authority.getAuthority().equals("ROLE_admin"));
+        if (job == null || (!isAdmin && !job.getSubmittedBy().equals(authentication.getName()))) {
+            throw new EntityNotFoundException("Import job not found with ID: " + jobId);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,26 @@
+package com.esgframework.services;
+
+/**
+ * Callback invoked by {@link CSVService} after each chunk of a streaming import has been committed.
+ */
+@FunctionalInterface
+public interface CSVImportProgressListener {
+
+    CSVImportProgressListener NONE = (chunkNumber, recordsRead, recordsSaved, recordsSkipped, chunkRowsPerSecond) -> { };
+
+    /**
+     * @param chunkNumber 1-based number of the chunk that was just committed
+     * @param recordsRead total records read from the file so far
+     * @param recordsSaved total records written to the database so far
+     * @param recordsSkipped total records that could not be converted so far
+     * @param chunkRowsPerSecond write throughput of the committed chunk
+     */
+    void onChunkSaved(int chunkNumber, long recordsRead, long recordsSaved, long recordsSkipped, double chunkRowsPerSecond);
+
+    /**
+     * Polled before every record; returning true stops the import after the last committed chunk.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.CSVRejection;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rejected rows of one import. The first {@code memoryLimit} rejections are kept in memory and returned
+ * with the import result; later ones are appended to a temporary CSV file, up to {@code maxRows} in total.
+ * Beyond that only the count grows, so memory and disk use stay bounded however bad the file is.
+ * <p>
+ * Call {@link #complete()} once the import has finished and {@link #discard()} when the report is no
+ * longer needed.
+ */
+public class CSVRejectionReport {
+    private static final Logger logger = LoggerFactory.getLogger(CSVRejectionReport.class);
+
+    private static final String[] HEADERS = {"Row", "Column", "Reason", "Value"};
+
+    private final int memoryLimit;
+    private final long maxRows;
+    private final List<CSVRejection> firstRejections = new ArrayList<>();
+
+    private long total;
+    private long stored;
+    private boolean completed;
+    private Path spillFile;
+    private CSVPrinter spillPrinter;
+
+    public CSVRejectionReport(int memoryLimit, long maxRows) {
+        this.memoryLimit = memoryLimit;
+        this.maxRows = maxRows;
+    }
+
+    public synchronized void add(CSVRejection rejection) {
+        total++;
+        if (completed) {
+            return;
+        }
+        if (firstRejections.size() < memoryLimit) {
+            firstRejections.add(rejection);
+            stored++;
+        } else if (stored < maxRows) {
+            spill(rejection);
+        }
+    }
+
+    public void addAll(List<CSVRejection> rejections) {
+        for (CSVRejection rejection : rejections) {
+            add(rejection);
+        }
+    }
+
+    /**
+     * Flushes and closes the spill file. Rejections added afterwards are only counted.
+     */
+    public synchronized void complete() {
+        completed = true;
+        if (spillPrinter != null) {
+            try {
+                spillPrinter.close();
+            } catch (IOException e) {
+                logger.warn("Could not close rejection spill file {}: {}", spillFile, e.getMessage());
+            }
+            spillPrinter = null;
+        }
+    }
+
+    /**
+     * Deletes the spill file, if any.
+     */
+    public synchronized void discard() {
+        complete();
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete rejection spill file {}: {}", spillFile, e.getMessage());
+            }
+            spillFile = null;
+        }
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return true if more rows were rejected than the report could keep
+     */
+    public synchronized boolean isTruncated() {
+        return total > stored;
+    }
+
+    /**
+     * @return up to {@code limit} of the first rejections, in row order
+     */
+    public synchronized List<CSVRejection> getFirst(int limit) {
+        return Collections.unmodifiableList(new ArrayList<>(firstRejections.subList(0, Math.min(limit, firstRejections.size()))));
+    }
+
+    /**
+     * Writes every kept rejection as CSV, in row order. Only valid after {@link #complete()}.
+     */
+    public synchronized void writeTo(Writer writer) throws IOException {
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+            .setHeader(HEADERS)
+            .setCommentMarker('#')
+            .build());
+        for (CSVRejection rejection : firstRejections) {
+            printer.printRecord(rejection.getRowNumber(), rejection.getColumn(), rejection.getReason(), rejection.getValue());
+        }
+        printer.flush();
+        if (spillFile != null) {
+            try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+                reader.transferTo(writer);
+            }
+        }
+        if (isTruncated()) {
+            printer.printComment("Report truncated: " + total + " rows were rejected, " + stored + " are listed");
+        }
+        printer.flush();
+    }
+
+    private void spill(CSVRejection rejection) {
+        try {
+            if (spillPrinter == null) {
+                spillFile = Files.createTempFile("ghg-import-rejections-", ".csv");
+                spillPrinter = new CSVPrinter(Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8), CSVFormat.DEFAULT);
+            }
+            spillPrinter.printRecord(rejection.getRowNumber(), rejection.getColumn(), rejection.getReason(), rejection.getValue());
+            stored++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write rejection report", e);
+        }
+    }
+}
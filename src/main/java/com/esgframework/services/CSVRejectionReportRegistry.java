@@ -0,0 +1,97 @@
+package com.esgframework.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps finished rejection reports available for download for {@code app.import.job-retention-minutes},
+ * after which their spill files are deleted.
+ */
+@Service
+public class CSVRejectionReportRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CSVRejectionReportRegistry.class);
+
+    @Value("${app.import.job-retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.import.rejections.memory-limit:1000}")
+    private int memoryLimit;
+
+    @Value("${app.import.rejections.max-rows:1000000}")
+    private long maxRows;
+
+    private record Entry(CSVRejectionReport report, String owner, LocalDateTime registeredAt) {
+    }
+
+    private final Map<String, Entry> reports = new ConcurrentHashMap<>();
+
+    public CSVRejectionReport newReport() {
+        return new CSVRejectionReport(memoryLimit, maxRows);
+    }
+
+    /**
+     * Registers the report of a synchronous upload for the current user.
+     * @return the id to download it with
+     */
+    public String register(CSVRejectionReport report) {
+        String reportId = UUID.randomUUID().toString();
+        register(reportId, SecurityContextHolder.getContext().getAuthentication().getName(), report);
+        return reportId;
+    }
+
+    /**
+     * Makes a completed report downloadable by its owner and admins.
+     */
+    public void register(String reportId, String owner, CSVRejectionReport report) {
+        report.complete();
+        Entry previous = reports.put(reportId, new Entry(report, owner, LocalDateTime.now()));
+        if (previous != null) {
+            previous.report().discard();
+        }
+    }
+
+    /**
+     * @throws EntityNotFoundException if the report does not exist, has expired or belongs to another user
+     */
+    public CSVRejectionReport getReport(String reportId) {
+        Entry entry = reports.get(reportId);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .anyMatch(authority -> authority.getAuthority().equals("ROLE_admin"));
+        if (entry == null || (!isAdmin && !entry.owner().equals(authentication.getName()))) {
+            throw new EntityNotFoundException("Rejection report not found with ID: " + reportId);
+        }
+        return entry.report();
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.job-cleanup-interval-ms:300000}")
+    public void evictExpiredReports() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        reports.entrySet().removeIf(entry -> {
+            if (entry.getValue().registeredAt().isBefore(cutoff)) {
+                entry.getValue().report().discard();
+                logger.debug("Evicted rejection report {}", entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reports.values().forEach(entry -> entry.report().discard());
+        reports.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package com.esgframework.services;
+
+/**
+ * Thrown while converting a single upload row that cannot be imported. Rejections are expected in bulk,
+ * so the exception carries no stack trace and is never logged with one.
+ */
+public class CSVRowRejectedException extends RuntimeException {
+
+    private final String column;
+    private final String value;
+
+    public CSVRowRejectedException(String column, String reason, String value) {
+        super(reason, null, false, false);
+        this.column = column;
+        this.value = value;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -1,132 +1,176 @@
 package com.esgframework.services;
 
+import com.esgframework.dto.CSVImportOptions;
+import com.esgframework.dto.CSVImportOptions.DuplicateMode;
+import com.esgframework.dto.CSVImportOptions.WriteMode;
+import com.esgframework.dto.CSVImportResult;
+import com.esgframework.dto.CSVRejection;
 import com.esgframework.models.*;
 import com.esgframework.repositories.CompanyRepository;
-import com.esgframework.repositories.GHGEmissionRepository;
+import com.esgframework.repositories.GHGEmissionBatchRepository;
+import com.esgframework.repositories.GHGEmissionBatchRepository.WriteCounts;
+import com.esgframework.repositories.GHGImportFileRepository;
 import com.esgframework.repositories.UserRepository;
+import com.esgframework.utils.CSVColumnBinding;
+import com.esgframework.utils.CSVColumnBinding.Column;
+import com.esgframework.utils.CSVDateParser;
+import com.esgframework.utils.EmissionFingerprints;
+import com.esgframework.utils.EmissionScopeParser;
+import com.esgframework.utils.ImportRow;
+import com.esgframework.utils.XlsxSheetReader;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 @Service
 public class CSVService {
     private static final Logger logger = LoggerFactory.getLogger(CSVService.class);
     
+    // Rows sampled from the first chunk to detect the file's date format
+    private static final int DATE_SAMPLE_SIZE = 100;
+    
+    private static final Pattern NON_NUMERIC = Pattern.compile("[^\\d.\\-]");
+    
     @Autowired
-    private GHGEmissionRepository ghgEmissionRepository;
+    private GHGEmissionBatchRepository ghgEmissionBatchRepository;
     
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private CompanyRepository companyRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EmissionCategoryMapper emissionCategoryMapper;
+    
+    @Autowired
+    private EmissionFactorCatalog emissionFactorCatalog;
+    
+    @Autowired
+    private GHGImportFileRepository importFileRepository;
+    
+    
+    @Value("${app.import.conversion-threads:0}")
+    private int conversionThreads;
+    
+    private ExecutorService conversionExecutor;
+    
+    private int conversionPoolSize;
+    
+    @PostConstruct
+    public void init() {
+        int threads = conversionThreads > 0 ? conversionThreads : Runtime.getRuntime().availableProcessors();
+        conversionPoolSize = threads;
+        AtomicInteger threadCount = new AtomicInteger();
+        conversionExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "csv-convert-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("CSV conversion pool started with {} threads", threads);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        conversionExecutor.shutdown();
+    }
+    
+    /**
+     * Largest parallelism an import may use: one chunk per thread of the shared conversion pool.
+     */
+    public int getMaxParallelism() {
+        return conversionPoolSize;
+    }
 
-    public int processCSVFile(MultipartFile file, EmissionScope scope, Long companyId) throws IOException {
+    /**
+     * Reads the whole file, then inserts every valid row in one transaction. Rows that cannot be converted
+     * are recorded in {@code rejections} and skipped.
+     */
+    public CSVImportResult processCSVFile(MultipartFile file, EmissionScope scope, Long companyId, DuplicateMode duplicateMode,
+                                          CSVRejectionReport rejections) throws IOException {
         logger.info("Processing CSV file for scope: {} and company ID: {}", scope, companyId);
         logger.info("File name: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
         
-        // Validate company exists
-        Company company;
-        try {
-            company = companyRepository.findById(companyId)
-                    .orElseThrow(() -> new RuntimeException("Company not found with ID: " + companyId));
-            logger.info("Found company: {}", company.getName());
-        } catch (Exception e) {
-            logger.error("Error finding company with ID {}: {}", companyId, e.getMessage());
-            throw new RuntimeException("Company not found or database error", e);
-        }
+        long startNanos = System.nanoTime();
+        Company company = resolveCompany(companyId);
+        User currentUser = resolveCurrentUser();
         
-        // Get current user
-        User currentUser;
-        try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-            logger.info("Current user: {} (ID: {})", currentUser.getEmail(), currentUser.getId());
-        } catch (Exception e) {
-            logger.error("Error getting current user: {}", e.getMessage());
-            throw new RuntimeException("Failed to get current user", e);
+        String fileHash = duplicateMode != DuplicateMode.ALLOW ? EmissionFingerprints.ofContent(file.getInputStream()) : null;
+        if (fileHash != null && isImportedFile(company, scope, fileHash)) {
+            return CSVImportResult.ofDuplicateFile((System.nanoTime() - startNanos) / 1_000_000);
         }
         
         List<GHGEmission> emissions = new ArrayList<>();
         int recordCount = 0;
         
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            // Create CSV parser with header record
-            CSVParser csvParser = CSVFormat.DEFAULT
-                    .withFirstRecordAsHeader()
-                    .withIgnoreHeaderCase(true)
-                    .withTrim()
-                    .parse(reader);
-            
-            // Log headers for debugging
-            Map<String, Integer> headerMap = csvParser.getHeaderMap();
-            logger.info("CSV headers found: {}", headerMap.keySet());
-            
-            // Check required columns
-            String[] requiredColumns = {"Start Date", "End Date", "Category", "Quantity", "Unit"};
-            for (String column : requiredColumns) {
-                boolean found = false;
-                for (String header : headerMap.keySet()) {
-                    if (header.equalsIgnoreCase(column)) {
-                        found = true;
-                        break;
-                    }
-                }
-                
-                if (!found) {
-                    String error = "Missing required column: " + column;
-                    logger.error(error);
-                    throw new IllegalArgumentException(error);
-                }
-            }
+            CSVParser csvParser = openParser(reader);
+            CSVColumnBinding binding = bindColumns(csvParser.getHeaderMap());
             
             // Process each record
             for (CSVRecord record : csvParser) {
                 recordCount++;
-                logger.debug("Processing record #{}", recordCount);
-                
-                try {
-                    Map<String, String> recordMap = record.toMap();
-                    logger.debug("Record data: {}", recordMap);
-                    
-                    GHGEmission emission = createEmissionFromCSV(recordMap, scope, company, currentUser);
-                    
-                    if (emission != null) {
-                        emissions.add(emission);
-                        logger.debug("Added emission to list, current count: {}", emissions.size());
-                    } else {
-                        logger.warn("Skipped record #{} due to null emission", recordCount);
+                GHGEmission emission = convertRecord(ImportRow.of(record), binding, scope, company, currentUser,
+                    CSVDateParser.defaultParser(), rejections::add);
+                if (emission != null) {
+                    if (fileHash != null) {
+                        emission.setFingerprint(EmissionFingerprints.of(emission));
                     }
-                } catch (Exception e) {
-                    logger.error("Error processing CSV record #{}: {}", recordCount, e.getMessage(), e);
-                    // Continue processing other records
+                    emissions.add(emission);
                 }
             }
             
-            logger.info("Processed {} records, saving {} valid emissions", recordCount, emissions.size());
+            logger.info("Processed {} records, saving {} valid emissions ({} rejected)", recordCount, emissions.size(),
+                rejections.getTotal());
             
+            WriteCounts counts = new WriteCounts(0, 0);
             if (!emissions.isEmpty()) {
                 try {
-                    ghgEmissionRepository.saveAll(emissions);
-                    logger.info("Successfully saved {} emissions to database", emissions.size());
+                    counts = new TransactionTemplate(transactionManager)
+                        .execute(status -> ghgEmissionBatchRepository.insertAll(emissions, duplicateMode));
+                    logger.info("Successfully saved {} emissions to database ({} updated, {} duplicates skipped)",
+                        counts.inserted() + counts.updated(), counts.updated(),
+                        emissions.size() - counts.inserted() - counts.updated());
                 } catch (Exception e) {
                     logger.error("Error saving emissions to database: {}", e.getMessage(), e);
                     throw new RuntimeException("Failed to save emissions to database", e);
@@ -135,400 +179,596 @@ public class CSVService {
                 logger.warn("No valid emissions found in CSV file");
             }
             
-            return emissions.size();
+            int written = counts.inserted() + counts.updated();
+            CSVImportResult result = new CSVImportResult(recordCount, written, counts.updated(),
+                emissions.size() - written, rejections.getTotal(), 1, (System.nanoTime() - startNanos) / 1_000_000, false);
+            if (fileHash != null) {
+                recordImportedFile(company, scope, currentUser, fileHash, file.getOriginalFilename(), result);
+            }
+            return result;
         } catch (Exception e) {
             logger.error("Error processing CSV file: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to process CSV file: " + e.getMessage(), e);
         }
     }
     
-    private GHGEmission createEmissionFromCSV(Map<String, String> record, EmissionScope scope, Company company, User currentUser) {
+    /**
+     * Streaming variant of {@link #processCSVFile}: records are converted as they are read and written
+     * in chunks of {@code options.chunkSize}, each chunk as JDBC batches in its own transaction. Memory use
+     * stays bounded by the chunk size regardless of file size.
+     */
+    public CSVImportResult processCSVFileStreaming(MultipartFile file, EmissionScope scope, Long companyId, CSVImportOptions options,
+                                                   CSVImportProgressListener listener, CSVRejectionReport rejections) throws IOException {
+        logger.info("Streaming CSV file for scope: {} and company ID: {} (chunk size {}, parallelism {}, write mode {})",
+            scope, companyId, options.getChunkSize(), options.getParallelism(), options.getWriteMode());
+        logger.info("File name: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
+        
+        Company company = resolveCompany(companyId);
+        User currentUser = resolveCurrentUser();
+        return processCSVStreaming(file, file.getOriginalFilename(), scope, company, currentUser, options, listener, rejections);
+    }
+    
+    /**
+     * Core of the streaming import. Company and user are resolved by the caller so that this can run
+     * outside the request thread. The listener is polled for cancellation before every record; chunks
+     * read before a cancellation are still committed. Rows that cannot be converted are recorded in
+     * {@code rejections} in file order.
+     * <p>
+     * With a parallelism above 1 the calling thread only reads and batches records. Batches are converted
+     * on the shared conversion pool and handed to a single writer thread in file order, so chunk commits
+     * and progress callbacks stay sequential while conversion uses several cores.
+     * <p>
+     * Unless duplicates are allowed, the content is hashed first and a file already imported for the same
+     * company and scope is not read again. Files named *.xlsx are read as workbooks, everything else as CSV.
+     */
+    public CSVImportResult processCSVStreaming(InputStreamSource source, String fileName, EmissionScope scope, Company company,
+                                               User currentUser, CSVImportOptions options, CSVImportProgressListener listener,
+                                               CSVRejectionReport rejections) {
+        long startNanos = System.nanoTime();
+        String fileHash;
         try {
-            logger.info("Creating emission from CSV record for scope: {}", scope);
-            logger.debug("CSV record contents: {}", record);
-            
-            GHGEmission emission = new GHGEmission();
-            
-            // Set common fields
-            emission.setCompany(company);
-            emission.setSubmittedBy(currentUser);
-            emission.setLastModifiedBy(currentUser);
-            emission.setScope(scope);
-            emission.setStatus(SubmissionStatus.PENDING);
-            emission.setSubmissionDate(LocalDateTime.now());
-            emission.setTimeFrame(TimeFrame.CUSTOM);
-            
-            // Process dates
-            String startDateStr = record.get("Start Date");
-            String endDateStr = record.get("End Date");
-            
-            logger.debug("Processing date fields - Start Date: {}, End Date: {}", startDateStr, endDateStr);
-            
-            LocalDate startDate = parseDate(startDateStr);
-            LocalDate endDate = parseDate(endDateStr);
-            
-            if (startDate != null && endDate != null) {
-                emission.setStartDate(startDate.atStartOfDay());
-                emission.setEndDate(endDate.atTime(LocalTime.MAX));
-                logger.debug("Set date range: {} to {}", emission.getStartDate(), emission.getEndDate());
-            } else {
-                logger.error("Invalid date format in CSV record - Start Date: {}, End Date: {}", startDateStr, endDateStr);
-                return null;
-            }
-            
-            // Set quantity and unit
-            try {
-                String quantityStr = record.get("Quantity");
-                logger.debug("Processing quantity: {}", quantityStr);
-                
-                if (quantityStr != null && !quantityStr.isEmpty()) {
-                    // Remove any commas, spaces or other non-numeric characters except decimal point
-                    quantityStr = quantityStr.replaceAll("[^\\d.\\-]", "").trim();
-                    if (!quantityStr.isEmpty()) {
-                        emission.setQuantity(Double.parseDouble(quantityStr));
-                        logger.debug("Set quantity to: {}", emission.getQuantity());
-                    } else {
-                        logger.warn("Quantity is empty after cleaning");
-                        emission.setQuantity(0.0); // Default to 0
-                    }
-                } else {
-                    logger.warn("Quantity field is missing or empty");
-                    emission.setQuantity(0.0); // Default to 0
-                }
-            } catch (NumberFormatException e) {
-                logger.error("Invalid quantity format in CSV record: {}", e.getMessage());
-                emission.setQuantity(0.0); // Default to 0 on error
-            }
-            
-            // Set unit with default if missing
-            String unit = record.get("Unit");
-            if (unit != null && !unit.trim().isEmpty()) {
-                emission.setUnit(unit.trim());
-            } else {
-                logger.warn("Unit field is missing or empty, using default");
-                emission.setUnit("unknown"); // Default unit
+            fileHash = options.getDuplicateMode() != DuplicateMode.ALLOW ? EmissionFingerprints.ofContent(source.getInputStream()) : null;
+            if (fileHash != null && isImportedFile(company, scope, fileHash)) {
+                return CSVImportResult.ofDuplicateFile((System.nanoTime() - startNanos) / 1_000_000);
             }
-            
-            // Set category based on scope
-            setCategory(emission, record, scope);
-            
-            // Set other fields if they exist in the CSV
-            if (record.containsKey("Source")) {
-                String source = record.get("Source");
-                if (source != null && !source.trim().isEmpty()) {
-                    emission.setSource(source.trim());
-                }
+            if (isWorkbook(fileName)) {
+                return importWorkbook(source, fileName, fileHash, scope, company, currentUser, options, listener, rejections);
             }
-            
-            if (record.containsKey("Activity")) {
-                String activity = record.get("Activity");
-                if (activity != null && !activity.trim().isEmpty()) {
-                    emission.setActivity(activity.trim());
+            return importStream(source.getInputStream(), fileName, fileHash, scope, company, currentUser, options, listener, rejections);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read CSV file", e);
+        }
+    }
+    
+    /**
+     * Imports a CSV stream that can only be read once. The stream is closed when done.
+     * @param fileHash content hash to record once the import has finished, or null to record nothing
+     * @param scope scope of every row, or null to read it from each row's Scope column
+     */
+    CSVImportResult importStream(InputStream inputStream, String fileName, String fileHash, EmissionScope scope, Company company,
+                                 User currentUser, CSVImportOptions options, CSVImportProgressListener listener,
+                                 CSVRejectionReport rejections) {
+        return runImport(fileName, fileHash, scope, company, currentUser, options, listener, rejections, pipeline -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                CSVParser csvParser = openParser(reader);
+                pipeline.bind(csvParser.getHeaderMap());
+                for (CSVRecord record : csvParser) {
+                    if (!pipeline.accept(ImportRow.of(record))) {
+                        break;
+                    }
                 }
             }
-            
-            if (record.containsKey("Calculation Method")) {
-                String method = record.get("Calculation Method");
-                if (method != null && !method.trim().isEmpty()) {
-                    emission.setCalculationMethod(method.trim());
-                }
+        });
+    }
+    
+    /**
+     * Imports the first worksheet of an .xlsx workbook through the same row mapping and chunk pipeline as
+     * {@link #importStream}. The sheet is parsed with SAX from a file on disk so that neither the workbook
+     * nor the sheet is loaded as a whole; sources that are not files are copied to a temporary file first.
+     * @param fileHash content hash to record once the import has finished, or null to record nothing
+     * @param scope scope of every row, or null to read it from each row's Scope column
+     */
+    CSVImportResult importWorkbook(InputStreamSource source, String fileName, String fileHash, EmissionScope scope, Company company,
+                                   User currentUser, CSVImportOptions options, CSVImportProgressListener listener,
+                                   CSVRejectionReport rejections) {
+        if (source instanceof FileSystemResource resource) {
+            return importWorkbook(resource.getFile(), fileName, fileHash, scope, company, currentUser, options, listener, rejections);
+        }
+        Path workbook = null;
+        try {
+            workbook = Files.createTempFile("ghg-import-", ".xlsx");
+            try (InputStream inputStream = source.getInputStream()) {
+                Files.copy(inputStream, workbook, StandardCopyOption.REPLACE_EXISTING);
             }
-            
-            // Process emission factor
-            if (record.containsKey("Emission Factor")) {
+            return importWorkbook(workbook.toFile(), fileName, fileHash, scope, company, currentUser, options, listener, rejections);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool XLSX file", e);
+        } finally {
+            if (workbook != null) {
                 try {
-                    String efStr = record.get("Emission Factor");
-                    logger.debug("Processing emission factor: {}", efStr);
-                    
-                    if (efStr != null && !efStr.isEmpty()) {
-                        // Remove any commas, spaces or other non-numeric characters except decimal point
-                        efStr = efStr.replaceAll("[^\\d.\\-]", "").trim();
-                        if (!efStr.isEmpty()) {
-                            emission.setEmissionFactor(Double.parseDouble(efStr));
-                            logger.debug("Set emission factor to: {}", emission.getEmissionFactor());
-                        } else {
-                            logger.warn("Emission factor is empty after cleaning");
-                            emission.setEmissionFactor(0.0); // Default to 0
-                        }
-                    } else {
-                        logger.warn("Emission factor field is missing or empty");
-                        emission.setEmissionFactor(0.0); // Default to 0
-                    }
-                } catch (NumberFormatException e) {
-                    logger.error("Invalid emission factor format in CSV record: {}", e.getMessage());
-                    emission.setEmissionFactor(0.0); // Default to 0 on error
+                    Files.deleteIfExists(workbook);
+                } catch (IOException e) {
+                    logger.warn("Could not delete spooled workbook {}: {}", workbook, e.getMessage());
                 }
             }
-            
-            // Set emission factor unit with default if missing
-            if (record.containsKey("Emission Factor Unit")) {
-                String efUnit = record.get("Emission Factor Unit");
-                if (efUnit != null && !efUnit.trim().isEmpty()) {
-                    emission.setEmissionFactorUnit(efUnit.trim());
-                } else {
-                    logger.warn("Emission factor unit is missing or empty, using default");
-                    emission.setEmissionFactorUnit("kg CO2e"); // Default unit
+        }
+    }
+    
+    private CSVImportResult importWorkbook(File workbook, String fileName, String fileHash, EmissionScope scope, Company company,
+                                           User currentUser, CSVImportOptions options, CSVImportProgressListener listener,
+                                           CSVRejectionReport rejections) {
+        return runImport(fileName, fileHash, scope, company, currentUser, options, listener, rejections, pipeline ->
+            XlsxSheetReader.readFirstSheet(workbook, new XlsxSheetReader.RowHandler() {
+                @Override
+                public void header(Map<String, Integer> headerMap) {
+                    pipeline.bind(headerMap);
                 }
-            }
-            
-            // Set notes if available
-            if (record.containsKey("Notes")) {
-                String notes = record.get("Notes");
-                if (notes != null && !notes.trim().isEmpty()) {
-                    emission.setNotes(notes.trim());
+                
+                @Override
+                public boolean row(ImportRow row) {
+                    try {
+                        return pipeline.accept(row);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Import interrupted", e);
+                    }
                 }
-            }
-            
-            return emission;
+            }));
+    }
+    
+    public static boolean isWorkbook(String fileName) {
+        return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+    
+    /**
+     * Reads the header and rows of one file into a {@link ChunkPipeline}.
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        void read(ChunkPipeline pipeline) throws Exception;
+    }
+    
+    private CSVImportResult runImport(String fileName, String fileHash, EmissionScope scope, Company company, User currentUser,
+                                      CSVImportOptions options, CSVImportProgressListener listener,
+                                      CSVRejectionReport rejections, RowSource source) {
+        if (options.getChunkSize() <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (options.getParallelism() < 1 || options.getParallelism() > conversionPoolSize) {
+            throw new IllegalArgumentException("Parallelism must be between 1 and " + conversionPoolSize);
+        }
+        
+        long startNanos = System.nanoTime();
+        ChunkPipeline pipeline = new ChunkPipeline(fileName, scope, company, currentUser, options, listener, rejections);
+        try {
+            source.read(pipeline);
+            pipeline.finish();
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error creating emission from CSV record: {}", e.getMessage(), e);
-            return null;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Error streaming {} after {} records: {}", fileName, pipeline.recordsRead, cause.getMessage(), cause);
+            throw new RuntimeException("Failed to process CSV file: " + cause.getMessage(), cause);
+        } finally {
+            pipeline.close();
         }
+        
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        CSVImportResult result = new CSVImportResult(pipeline.recordsRead, pipeline.recordsSaved, pipeline.recordsUpdated,
+            pipeline.recordsDuplicate, pipeline.recordsSkipped, pipeline.chunksWritten, elapsedMillis, pipeline.cancelled);
+        logger.info("Streaming import finished: {} read, {} saved ({} updated), {} duplicates, {} skipped in {} chunks ({} ms, {} rows/s)",
+            result.getRecordsRead(), result.getRecordsSaved(), result.getRecordsUpdated(), result.getRecordsDuplicate(),
+            result.getRecordsSkipped(), result.getChunks(), elapsedMillis, Math.round(result.getRowsPerSecond()));
+        if (fileHash != null && scope != null && !pipeline.cancelled) {
+            recordImportedFile(company, scope, currentUser, fileHash, fileName, result);
+        }
+        return result;
+    }
+    
+    private record ConvertedChunk(List<GHGEmission> emissions, List<CSVRejection> rejections, long lastRecordNumber) {
     }
     
-    private void setCategory(GHGEmission emission, Map<String, String> record, EmissionScope scope) {
-        String categoryStr = record.get("Category");
-        if (categoryStr == null) {
-            logger.warn("No Category field found in CSV record");
-            // Set a default category based on scope
-            switch (scope) {
-                case SCOPE_1:
-                    emission.setCategory(EmissionCategory.STATIONARY_COMBUSTION);
-                    logger.info("Using default category STATIONARY_COMBUSTION for Scope 1");
-                    break;
-                case SCOPE_2:
-                    emission.setCategory(EmissionCategory.PURCHASED_ELECTRICITY);
-                    logger.info("Using default category PURCHASED_ELECTRICITY for Scope 2");
-                    break;
-                case SCOPE_3:
-                    emission.setCategory(EmissionCategory.TRANSPORTATION_DISTRIBUTION);
-                    logger.info("Using default category TRANSPORTATION_DISTRIBUTION for Scope 3");
-                    break;
-                case SOLVENT:
-                    emission.setCategory(EmissionCategory.SOLVENT_CONSUMPTION);
-                    logger.info("Using default category SOLVENT_CONSUMPTION for Solvent");
-                    break;
-                case SINK:
-                    emission.setCategory(EmissionCategory.REFORESTATION);
-                    logger.info("Using default category REFORESTATION for Sink");
-                    break;
+    /**
+     * Moves record batches through conversion and writing for one streaming import. Sequential when the
+     * parallelism is 1; otherwise conversions run on {@link #conversionExecutor} and each write is chained
+     * after the previous one on a dedicated writer thread, which keeps commits in file order. A semaphore
+     * bounds the number of batches in flight so a slow database applies back-pressure to the reader.
+     * <p>
+     * The reader binds the header with {@link #bind}, then offers rows one at a time with {@link #accept}
+     * until it runs out of rows or a row is refused.
+     */
+    private class ChunkPipeline {
+        private final String fileName;
+        private final int chunkSize;
+        private final EmissionScope scope;
+        private final Company company;
+        private final User currentUser;
+        private final CSVImportProgressListener listener;
+        private final CSVRejectionReport rejections;
+        private final WriteMode writeMode;
+        private final DuplicateMode duplicateMode;
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        private final ExecutorService writer;
+        private final Semaphore inFlight;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private CSVColumnBinding binding;
+        private List<ImportRow> batch;
+        private int chunksSubmitted;
+        private CSVDateParser dateParser;
+        private long recordsRead;
+        private boolean cancelled;
+        
+        private volatile long recordsSaved;
+        private volatile long recordsUpdated;
+        private volatile long recordsDuplicate;
+        private volatile long recordsSkipped;
+        private volatile int chunksWritten;
+        
+        ChunkPipeline(String fileName, EmissionScope scope, Company company, User currentUser, CSVImportOptions options,
+                      CSVImportProgressListener listener, CSVRejectionReport rejections) {
+            int parallelism = options.getParallelism();
+            this.fileName = fileName;
+            this.chunkSize = options.getChunkSize();
+            this.writeMode = options.getWriteMode();
+            this.duplicateMode = options.getDuplicateMode();
+            this.batch = new ArrayList<>(chunkSize);
+            this.scope = scope;
+            this.company = company;
+            this.currentUser = currentUser;
+            this.listener = listener;
+            this.rejections = rejections;
+            if (parallelism > 1) {
+                this.writer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "csv-import-writer"));
+                this.inFlight = new Semaphore(parallelism * 2);
+            } else {
+                this.writer = null;
+                this.inFlight = null;
             }
-            return;
         }
         
-        // Normalize category string by removing spaces and converting to uppercase
-        String normalizedCategory = categoryStr.trim().toUpperCase().replace(" ", "_");
-        logger.debug("Normalized category: {} from original: {}", normalizedCategory, categoryStr);
+        void bind(Map<String, Integer> headerMap) {
+            binding = bindColumns(headerMap);
+            if (scope == null && !binding.has(Column.SCOPE)) {
+                throw new IllegalArgumentException("Missing required column: " + Column.SCOPE.getHeader()
+                    + " (no scope was given for " + fileName + ")");
+            }
+        }
         
-        try {
-            switch (scope) {
-                case SCOPE_1:
-                    if (categoryStr.equalsIgnoreCase("Stationary Combustion") || 
-                        normalizedCategory.contains("STATIONARY")) {
-                        emission.setCategory(EmissionCategory.STATIONARY_COMBUSTION);
-                        logger.debug("Mapped to STATIONARY_COMBUSTION");
-                    } else if (categoryStr.equalsIgnoreCase("Mobile Combustion") || 
-                               normalizedCategory.contains("MOBILE")) {
-                        emission.setCategory(EmissionCategory.MOBILE_COMBUSTION);
-                        logger.debug("Mapped to MOBILE_COMBUSTION");
-                    } else if (categoryStr.equalsIgnoreCase("Process Emissions") || 
-                               normalizedCategory.contains("PROCESS")) {
-                        emission.setCategory(EmissionCategory.PROCESS_EMISSIONS);
-                        logger.debug("Mapped to PROCESS_EMISSIONS");
-                    } else if (categoryStr.equalsIgnoreCase("Fugitive Emissions") || 
-                               normalizedCategory.contains("FUGITIVE")) {
-                        emission.setCategory(EmissionCategory.FUGITIVE_EMISSIONS);
-                        logger.debug("Mapped to FUGITIVE_EMISSIONS");
-                    } else {
-                        // Default for unrecognized Scope 1 categories
-                        emission.setCategory(EmissionCategory.STATIONARY_COMBUSTION);
-                        logger.warn("Unrecognized Scope 1 category: {}, defaulting to STATIONARY_COMBUSTION", categoryStr);
-                    }
-                    break;
-                    
-                case SCOPE_2:
-                    if (categoryStr.equalsIgnoreCase("Purchased Electricity") || 
-                        normalizedCategory.contains("ELECTRICITY")) {
-                        emission.setCategory(EmissionCategory.PURCHASED_ELECTRICITY);
-                        logger.debug("Mapped to PURCHASED_ELECTRICITY");
-                    } else if (categoryStr.equalsIgnoreCase("Purchased Heating") || 
-                               normalizedCategory.contains("HEATING")) {
-                        emission.setCategory(EmissionCategory.PURCHASED_HEATING);
-                        logger.debug("Mapped to PURCHASED_HEATING");
-                    } else if (categoryStr.equalsIgnoreCase("Purchased Cooling") || 
-                               normalizedCategory.contains("COOLING")) {
-                        emission.setCategory(EmissionCategory.PURCHASED_COOLING);
-                        logger.debug("Mapped to PURCHASED_COOLING");
-                    } else if (categoryStr.equalsIgnoreCase("Purchased Steam") || 
-                               normalizedCategory.contains("STEAM")) {
-                        emission.setCategory(EmissionCategory.PURCHASED_STEAM);
-                        logger.debug("Mapped to PURCHASED_STEAM");
-                    } else {
-                        // Default for unrecognized Scope 2 categories
-                        emission.setCategory(EmissionCategory.PURCHASED_ELECTRICITY);
-                        logger.warn("Unrecognized Scope 2 category: {}, defaulting to PURCHASED_ELECTRICITY", categoryStr);
-                    }
-                    break;
-                    
-                case SCOPE_3:
-                    if (categoryStr.equalsIgnoreCase("Purchased Goods and Services") || 
-                        normalizedCategory.contains("PURCHASED_GOODS") || normalizedCategory.contains("GOODS_AND_SERVICES")) {
-                        emission.setCategory(EmissionCategory.PURCHASED_GOODS_SERVICES);
-                        logger.debug("Mapped to PURCHASED_GOODS_SERVICES");
-                    } else if (categoryStr.equalsIgnoreCase("Capital Goods") || 
-                               normalizedCategory.contains("CAPITAL")) {
-                        emission.setCategory(EmissionCategory.CAPITAL_GOODS);
-                        logger.debug("Mapped to CAPITAL_GOODS");
-                    } else if (categoryStr.equalsIgnoreCase("Fuel and Energy Related Activities") || 
-                               normalizedCategory.contains("FUEL") || normalizedCategory.contains("ENERGY_RELATED")) {
-                        emission.setCategory(EmissionCategory.FUEL_ENERGY_ACTIVITIES);
-                        logger.debug("Mapped to FUEL_ENERGY_ACTIVITIES");
-                    } else if (categoryStr.equalsIgnoreCase("Transportation and Distribution") || 
-                               normalizedCategory.contains("TRANSPORTATION") || normalizedCategory.contains("DISTRIBUTION")) {
-                        emission.setCategory(EmissionCategory.TRANSPORTATION_DISTRIBUTION);
-                        logger.debug("Mapped to TRANSPORTATION_DISTRIBUTION");
-                    } else if (categoryStr.equalsIgnoreCase("Waste Generated") || 
-                               normalizedCategory.contains("WASTE")) {
-                        emission.setCategory(EmissionCategory.WASTE_GENERATED);
-                        logger.debug("Mapped to WASTE_GENERATED");
-                    } else if (categoryStr.equalsIgnoreCase("Business Travel") || 
-                               normalizedCategory.contains("TRAVEL") || normalizedCategory.contains("BUSINESS_TRAVEL")) {
-                        emission.setCategory(EmissionCategory.BUSINESS_TRAVEL);
-                        logger.debug("Mapped to BUSINESS_TRAVEL");
-                    } else if (categoryStr.equalsIgnoreCase("Employee Commuting") || 
-                               normalizedCategory.contains("COMMUTING") || normalizedCategory.contains("EMPLOYEE")) {
-                        emission.setCategory(EmissionCategory.EMPLOYEE_COMMUTING);
-                        logger.debug("Mapped to EMPLOYEE_COMMUTING");
-                    } else if (categoryStr.equalsIgnoreCase("Leased Assets") || 
-                               normalizedCategory.contains("LEASED") || normalizedCategory.contains("ASSETS")) {
-                        emission.setCategory(EmissionCategory.LEASED_ASSETS);
-                        logger.debug("Mapped to LEASED_ASSETS");
-                    } else if (categoryStr.equalsIgnoreCase("Investments") || 
-                               normalizedCategory.contains("INVESTMENT")) {
-                        emission.setCategory(EmissionCategory.INVESTMENTS);
-                        logger.debug("Mapped to INVESTMENTS");
-                    } else if (categoryStr.equalsIgnoreCase("Downstream Transportation") || 
-                               normalizedCategory.contains("DOWNSTREAM")) {
-                        emission.setCategory(EmissionCategory.DOWNSTREAM_TRANSPORTATION);
-                        logger.debug("Mapped to DOWNSTREAM_TRANSPORTATION");
-                    } else if (categoryStr.equalsIgnoreCase("Processing of Sold Products") || 
-                               normalizedCategory.contains("PROCESSING") || normalizedCategory.contains("SOLD_PRODUCTS")) {
-                        emission.setCategory(EmissionCategory.PROCESSING_SOLD_PRODUCTS);
-                        logger.debug("Mapped to PROCESSING_SOLD_PRODUCTS");
-                    } else if (categoryStr.equalsIgnoreCase("Use of Sold Products") || 
-                               normalizedCategory.contains("USE_OF")) {
-                        emission.setCategory(EmissionCategory.USE_OF_SOLD_PRODUCTS);
-                        logger.debug("Mapped to USE_OF_SOLD_PRODUCTS");
-                    } else if (categoryStr.equalsIgnoreCase("End of Life Treatment of Products") || 
-                               normalizedCategory.contains("END_OF_LIFE") || normalizedCategory.contains("EOL")) {
-                        emission.setCategory(EmissionCategory.END_OF_LIFE_PRODUCTS);
-                        logger.debug("Mapped to END_OF_LIFE_PRODUCTS");
-                    } else if (categoryStr.equalsIgnoreCase("Franchises") || 
-                               normalizedCategory.contains("FRANCHISE")) {
-                        emission.setCategory(EmissionCategory.FRANCHISES);
-                        logger.debug("Mapped to FRANCHISES");
-                    } else {
-                        // Default for unrecognized Scope 3 categories
-                        emission.setCategory(EmissionCategory.TRANSPORTATION_DISTRIBUTION);
-                        logger.warn("Unrecognized Scope 3 category: {}, defaulting to TRANSPORTATION_DISTRIBUTION", categoryStr);
-                    }
-                    break;
-                    
-                case SOLVENT:
-                    if (categoryStr.equalsIgnoreCase("Solvent Consumption") || 
-                        normalizedCategory.contains("CONSUMPTION")) {
-                        emission.setCategory(EmissionCategory.SOLVENT_CONSUMPTION);
-                        logger.debug("Mapped to SOLVENT_CONSUMPTION");
-                    } else if (categoryStr.equalsIgnoreCase("Solvent Recovery") || 
-                               normalizedCategory.contains("RECOVERY")) {
-                        emission.setCategory(EmissionCategory.SOLVENT_RECOVERY);
-                        logger.debug("Mapped to SOLVENT_RECOVERY");
-                    } else if (categoryStr.equalsIgnoreCase("Solvent Loss") || 
-                               normalizedCategory.contains("LOSS")) {
-                        emission.setCategory(EmissionCategory.SOLVENT_LOSS);
-                        logger.debug("Mapped to SOLVENT_LOSS");
-                    } else {
-                        // Default for unrecognized Solvent categories
-                        emission.setCategory(EmissionCategory.SOLVENT_CONSUMPTION);
-                        logger.warn("Unrecognized Solvent category: {}, defaulting to SOLVENT_CONSUMPTION", categoryStr);
-                    }
-                    break;
-                    
-                case SINK:
-                    if (categoryStr.equalsIgnoreCase("Reforestation") || 
-                        normalizedCategory.contains("REFOREST")) {
-                        emission.setCategory(EmissionCategory.REFORESTATION);
-                        logger.debug("Mapped to REFORESTATION");
-                    } else if (categoryStr.equalsIgnoreCase("Afforestation") || 
-                               normalizedCategory.contains("AFFOREST")) {
-                        emission.setCategory(EmissionCategory.AFFORESTATION);
-                        logger.debug("Mapped to AFFORESTATION");
-                    } else if (categoryStr.equalsIgnoreCase("Soil Carbon Sequestration") || 
-                               normalizedCategory.contains("SOIL") || normalizedCategory.contains("SEQUESTRATION")) {
-                        emission.setCategory(EmissionCategory.SOIL_CARBON_SEQUESTRATION);
-                        logger.debug("Mapped to SOIL_CARBON_SEQUESTRATION");
-                    } else {
-                        // Default for unrecognized Sink categories
-                        emission.setCategory(EmissionCategory.REFORESTATION);
-                        logger.warn("Unrecognized Sink category: {}, defaulting to REFORESTATION", categoryStr);
-                    }
-                    break;
+        /**
+         * Queues a row for conversion, submitting the batch once it is full.
+         * @return false if the import was cancelled or a write failed, in which case the row was not taken
+         */
+        boolean accept(ImportRow row) throws InterruptedException {
+            if (listener.isCancelled()) {
+                logger.info("Streaming import cancelled after {} records", recordsRead);
+                cancelled = true;
+                return false;
             }
-        } catch (Exception e) {
-            logger.error("Error setting category from CSV: {}", e.getMessage(), e);
+            if (hasFailed()) {
+                return false;
+            }
+            recordsRead++;
+            batch.add(row);
+            if (batch.size() >= chunkSize) {
+                submit(batch);
+                batch = new ArrayList<>(chunkSize);
+            }
+            return true;
         }
-    }
-    
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            logger.warn("Empty date string received");
-            return null;
+        
+        private void submit(List<ImportRow> batch) throws InterruptedException {
+            int chunkNumber = ++chunksSubmitted;
+            if (dateParser == null) {
+                dateParser = detectDateFormat(batch);
+            }
+            if (writer == null) {
+                write(convert(batch), chunkNumber);
+                return;
+            }
+            
+            inFlight.acquire();
+            CompletableFuture<ConvertedChunk> converted = CompletableFuture.supplyAsync(() -> convert(batch), conversionExecutor);
+            tail = tail.thenCombineAsync(converted, (ignored, chunk) -> {
+                write(chunk, chunkNumber);
+                return (Void) null;
+            }, writer).whenComplete((ignored, error) -> inFlight.release());
         }
         
-        // Trim the date string to remove any whitespace
-        dateStr = dateStr.trim();
-        logger.debug("Attempting to parse date: {}", dateStr);
+        private CSVDateParser detectDateFormat(List<ImportRow> batch) {
+            List<String> samples = new ArrayList<>();
+            for (ImportRow row : batch.subList(0, Math.min(batch.size(), DATE_SAMPLE_SIZE))) {
+                samples.add(binding.get(row, Column.START_DATE));
+                samples.add(binding.get(row, Column.END_DATE));
+            }
+            CSVDateParser parser = CSVDateParser.detect(samples);
+            logger.info("Detected date format {} from {} sample values", parser.getPrimaryLayout().getPattern(), samples.size());
+            return parser;
+        }
         
-        // Try different date formats
-        DateTimeFormatter[] formatters = {
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy")
-        };
+        boolean hasFailed() {
+            return tail.isCompletedExceptionally();
+        }
         
-        for (DateTimeFormatter formatter : formatters) {
-            try {
-                LocalDate date = LocalDate.parse(dateStr, formatter);
-                logger.debug("Successfully parsed date {} with pattern {}", dateStr, formatter);
-                return date;
-            } catch (DateTimeParseException e) {
-                // Try next format
-                logger.debug("Failed to parse date with pattern {}: {}", formatter, e.getMessage());
+        /**
+         * Submits the last partial batch unless cancelled and waits for every write to complete.
+         */
+        void finish() throws InterruptedException {
+            if (binding == null) {
+                throw new IllegalArgumentException("File " + fileName + " has no header row");
+            }
+            if (!cancelled && !batch.isEmpty()) {
+                submit(batch);
             }
+            tail.join();
         }
         
-        // If all formatters fail, try a more lenient approach
-        try {
-            // Try to parse as ISO date (yyyy-MM-dd)
-            if (dateStr.contains("-")) {
-                String[] parts = dateStr.split("-");
-                if (parts.length == 3) {
-                    int year = Integer.parseInt(parts[0]);
-                    int month = Integer.parseInt(parts[1]);
-                    int day = Integer.parseInt(parts[2]);
-                    if (year > 1900 && month >= 1 && month <= 12 && day >= 1 && day <= 31) {
-                        LocalDate date = LocalDate.of(year, month, day);
-                        logger.debug("Parsed date using manual approach: {}", date);
-                        return date;
+        void close() {
+            if (writer != null) {
+                writer.shutdown();
+            }
+        }
+        
+        private ConvertedChunk convert(List<ImportRow> batch) {
+            List<GHGEmission> emissions = new ArrayList<>(batch.size());
+            List<CSVRejection> chunkRejections = new ArrayList<>();
+            for (ImportRow row : batch) {
+                GHGEmission emission = convertRecord(row, binding, scope, company, currentUser, dateParser,
+                    chunkRejections::add);
+                if (emission != null) {
+                    if (duplicateMode != DuplicateMode.ALLOW) {
+                        emission.setFingerprint(EmissionFingerprints.of(emission));
                     }
+                    emissions.add(emission);
                 }
             }
+            return new ConvertedChunk(emissions, chunkRejections, batch.get(batch.size() - 1).getRowNumber());
+        }
+        
+        private void write(ConvertedChunk chunk, int chunkNumber) {
+            int size = chunk.emissions().size();
+            double chunkRowsPerSecond = 0;
+            if (size > 0) {
+                ChunkWrite written = saveChunk(transactionTemplate, chunk.emissions(), chunkNumber, writeMode, duplicateMode);
+                WriteCounts counts = written.counts();
+                recordsSaved += counts.inserted() + counts.updated();
+                recordsUpdated += counts.updated();
+                recordsDuplicate += size - counts.inserted() - counts.updated();
+                chunkRowsPerSecond = written.rowsPerSecond();
+            }
+            recordsSkipped += chunk.rejections().size();
+            rejections.addAll(chunk.rejections());
+            chunksWritten = chunkNumber;
+            listener.onChunkSaved(chunkNumber, chunk.lastRecordNumber(), recordsSaved, recordsSkipped, chunkRowsPerSecond);
+        }
+    }
+    
+    private record ChunkWrite(WriteCounts counts, double rowsPerSecond) {
+    }
+    
+    /**
+     * Writes one chunk through the JDBC batch path in its own transaction. Nothing is attached to the
+     * persistence context, so there is nothing to flush or clear between chunks.
+     * @return the write counts and the chunk's throughput in rows per second
+     */
+    private ChunkWrite saveChunk(TransactionTemplate transactionTemplate, List<GHGEmission> chunk, int chunkNumber,
+                                 WriteMode writeMode, DuplicateMode duplicateMode) {
+        long chunkStart = System.nanoTime();
+        int size = chunk.size();
+        WriteCounts counts = transactionTemplate.execute(status -> writeMode == WriteMode.COPY
+            ? ghgEmissionBatchRepository.copyAll(chunk, duplicateMode)
+            : ghgEmissionBatchRepository.insertAll(chunk, duplicateMode));
+        chunk.clear();
+        
+        long chunkNanos = Math.max(System.nanoTime() - chunkStart, 1);
+        double rowsPerSecond = size * 1_000_000_000.0 / chunkNanos;
+        logger.info("Committed chunk #{} via {} ({} rows, {} inserted, {} updated, {} rows/s)", chunkNumber, writeMode, size,
+            counts.inserted(), counts.updated(), Math.round(rowsPerSecond));
+        return new ChunkWrite(counts, rowsPerSecond);
+    }
+    
+    /**
+     * @return true if a file with this content was already imported for the company and scope
+     */
+    boolean isImportedFile(Company company, EmissionScope scope, String fileHash) {
+        Optional<GHGImportFile> previous = importFileRepository.findByCompanyIdAndScopeAndFileHash(company.getId(), scope, fileHash);
+        previous.ifPresent(imported -> logger.info("Skipping upload identical to {} imported at {} ({} records saved)",
+            imported.getFileName(), imported.getCreatedAt(), imported.getRecordsSaved()));
+        return previous.isPresent();
+    }
+    
+    private void recordImportedFile(Company company, EmissionScope scope, User currentUser, String fileHash, String fileName,
+                                    CSVImportResult result) {
+        GHGImportFile importFile = new GHGImportFile();
+        importFile.setCompanyId(company.getId());
+        importFile.setScope(scope);
+        importFile.setFileHash(fileHash);
+        importFile.setFileName(fileName);
+        importFile.setRecordsSaved(result.getRecordsSaved());
+        importFile.setImportedById(currentUser.getId());
+        try {
+            importFileRepository.save(importFile);
+        } catch (DataIntegrityViolationException e) {
+            // The same file was imported concurrently; its rows were deduplicated by fingerprint
+            logger.debug("Import of file {} was already recorded", fileHash);
+        }
+    }
+    
+    public Company resolveCompany(Long companyId) {
+        try {
+            Company company = companyRepository.findById(companyId)
+                    .orElseThrow(() -> new RuntimeException("Company not found with ID: " + companyId));
+            logger.info("Found company: {}", company.getName());
+            return company;
         } catch (Exception e) {
-            logger.debug("Manual date parsing failed: {}", e.getMessage());
+            logger.error("Error finding company with ID {}: {}", companyId, e.getMessage());
+            throw new RuntimeException("Company not found or database error", e);
         }
+    }
+    
+    public User resolveCurrentUser() {
+        try {
+            String email = SecurityContextHolder.getContext().getAuthentication().getName();
+            User currentUser = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+            logger.info("Current user: {} (ID: {})", currentUser.getEmail(), currentUser.getId());
+            return currentUser;
+        } catch (Exception e) {
+            logger.error("Error getting current user: {}", e.getMessage());
+            throw new RuntimeException("Failed to get current user", e);
+        }
+    }
+    
+    private CSVParser openParser(BufferedReader reader) throws IOException {
+        // Create CSV parser with header record
+        return CSVFormat.DEFAULT
+                .withFirstRecordAsHeader()
+                .withIgnoreHeaderCase(true)
+                .withTrim()
+                .parse(reader);
+    }
+    
+    private CSVColumnBinding bindColumns(Map<String, Integer> headerMap) {
+        // Log headers for debugging
+        logger.info("CSV headers found: {}", headerMap.keySet());
         
-        logger.error("Could not parse date: {}", dateStr);
+        try {
+            return CSVColumnBinding.bind(headerMap);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Converts one record, reporting it to {@code onRejected} instead of throwing when it cannot be imported.
+     * @return the emission, or null if the record was rejected
+     */
+    private GHGEmission convertRecord(ImportRow record, CSVColumnBinding binding, EmissionScope scope, Company company,
+                                      User currentUser, CSVDateParser dateParser, Consumer<CSVRejection> onRejected) {
+        try {
+            return createEmissionFromCSV(record, binding, scope, company, currentUser, dateParser);
+        } catch (CSVRowRejectedException e) {
+            onRejected.accept(new CSVRejection(record.getRowNumber(), e.getColumn(), e.getMessage(), e.getValue()));
+        } catch (RuntimeException e) {
+            logger.debug("Unexpected error converting CSV record #{}: {}", record.getRowNumber(), e.toString());
+            onRejected.accept(new CSVRejection(record.getRowNumber(), null, "Could not read row: " + e, null));
+        }
         return null;
     }
+    
+    /**
+     * @throws CSVRowRejectedException if the record cannot be imported
+     */
+    private GHGEmission createEmissionFromCSV(ImportRow record, CSVColumnBinding binding, EmissionScope scope, Company company,
+                                              User currentUser, CSVDateParser dateParser) {
+        GHGEmission emission = new GHGEmission();
+        
+        // Set common fields
+        emission.setCompany(company);
+        emission.setSubmittedBy(currentUser);
+        emission.setLastModifiedBy(currentUser);
+        EmissionScope rowScope = scope != null ? scope : parseScope(record, binding);
+        emission.setScope(rowScope);
+        emission.setStatus(SubmissionStatus.PENDING);
+        emission.setSubmissionDate(LocalDateTime.now());
+        emission.setTimeFrame(TimeFrame.CUSTOM);
+        
+        // Process dates
+        emission.setStartDate(parseDate(record, binding, Column.START_DATE, dateParser).atStartOfDay());
+        emission.setEndDate(parseDate(record, binding, Column.END_DATE, dateParser).atTime(LocalTime.MAX));
+        
+        // Set quantity and unit
+        Double quantity = parseNumber(binding.get(record, Column.QUANTITY));
+        if (quantity != null) {
+            emission.setQuantity(quantity);
+        } else {
+            logger.debug("Quantity is missing or invalid in CSV record #{}, defaulting to 0", record.getRowNumber());
+            emission.setQuantity(0.0); // Default to 0
+        }
+        
+        // Set unit with default if missing
+        String unit = trimToNull(binding.get(record, Column.UNIT));
+        emission.setUnit(unit != null ? unit : "unknown");
+        
+        // Set category based on scope
+        emission.setCategory(emissionCategoryMapper.map(binding.get(record, Column.CATEGORY), rowScope));
+        
+        // Set other fields if they exist in the CSV
+        emission.setSource(trimToNull(binding.get(record, Column.SOURCE)));
+        emission.setActivity(trimToNull(binding.get(record, Column.ACTIVITY)));
+        emission.setCalculationMethod(trimToNull(binding.get(record, Column.CALCULATION_METHOD)));
+        emission.setNotes(trimToNull(binding.get(record, Column.NOTES)));
+        
+        // Process emission factor
+        if (binding.has(Column.EMISSION_FACTOR)) {
+            Double emissionFactor = parseNumber(binding.get(record, Column.EMISSION_FACTOR));
+            emission.setEmissionFactor(emissionFactor != null ? emissionFactor : 0.0);
+        }
+        
+        // Set emission factor unit with default if missing
+        if (binding.has(Column.EMISSION_FACTOR_UNIT)) {
+            String efUnit = trimToNull(binding.get(record, Column.EMISSION_FACTOR_UNIT));
+            emission.setEmissionFactorUnit(efUnit != null ? efUnit : "kg CO2e");
+        }
+        
+        emissionFactorCatalog.apply(emission, company.getRegion());
+        return emission;
+    }
+    
+    private static EmissionScope parseScope(ImportRow record, CSVColumnBinding binding) {
+        String value = binding.get(record, Column.SCOPE);
+        EmissionScope scope = EmissionScopeParser.parse(value);
+        if (scope == null) {
+            throw new CSVRowRejectedException(Column.SCOPE.getHeader(),
+                value == null || value.isBlank() ? "Missing scope" : "Unrecognized scope", value);
+        }
+        return scope;
+    }
+    
+    private static LocalDate parseDate(ImportRow record, CSVColumnBinding binding, Column column, CSVDateParser dateParser) {
+        String value = binding.get(record, column);
+        LocalDate date = dateParser.parse(value);
+        if (date == null) {
+            throw new CSVRowRejectedException(column.getHeader(),
+                value == null || value.isBlank() ? "Missing date" : "Unrecognized date format", value);
+        }
+        return date;
+    }
+    
+    /**
+     * Parses a number after dropping anything other than digits, '.' and '-' (thousands separators,
+     * spaces, unit suffixes). Values that are already clean skip the regex entirely.
+     * @return the parsed value, or null if nothing numeric remains
+     */
+    private static Double parseNumber(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-') {
+                value = NON_NUMERIC.matcher(value).replaceAll("");
+                break;
+            }
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
 }
@@ -0,0 +1,80 @@
+package com.esgframework.services;
+
+import com.esgframework.models.Company;
+import com.esgframework.repositories.CompanyScorecardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the precomputed company scorecards up to date. Social and governance writes only mark their company
+ * as changed; a background task recomputes the marked companies every few seconds, so submissions do not
+ * pay for the aggregation and a scorecard lags its metrics by at most {@code app.scorecards.refresh-delay-ms}.
+ * All scorecards are also recomputed at startup and every night.
+ */
+@Service
+public class CompanyScorecardService {
+    private static final Logger logger = LoggerFactory.getLogger(CompanyScorecardService.class);
+
+    private final Set<Long> changedCompanies = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private CompanyScorecardRepository scorecardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Schedules the company's scorecard for recomputation after one of its metrics was submitted or reviewed.
+     */
+    public void markChanged(Company company) {
+        if (company != null && company.getId() != null) {
+            changedCompanies.add(company.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.scorecards.refresh-delay-ms:5000}")
+    public void refreshChangedCompanies() {
+        List<Long> companyIds = new ArrayList<>(changedCompanies);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Long companyId : companyIds) {
+            changedCompanies.remove(companyId);
+            try {
+                transaction.executeWithoutResult(status -> scorecardRepository.refresh(companyId));
+            } catch (DataAccessException e) {
+                changedCompanies.add(companyId);
+                logger.warn("Could not refresh the scorecard of company ID: {}: {}", companyId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the number of scorecard entries written
+     */
+    @Transactional
+    public int refresh(Long companyId) {
+        changedCompanies.remove(companyId);
+        return scorecardRepository.refresh(companyId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.scorecards.refresh-cron:0 0 3 * * *}")
+    @Transactional
+    public void refreshAll() {
+        int entries = scorecardRepository.refreshAll();
+        logger.info("Refreshed {} company scorecard entries", entries);
+    }
+}
@@ -1,20 +1,47 @@
 package com.esgframework.services;
 
 import com.esgframework.models.Company;
+import com.esgframework.models.CompanyScorecardEntry;
+import com.esgframework.models.GHGEmissionRollup;
+import com.esgframework.models.SubmissionStatus;
 import com.esgframework.repositories.CompanyRepository;
+import com.esgframework.repositories.CompanyScorecardRepository;
+import com.esgframework.repositories.GHGEmissionCo2eRepository.Filter;
+import com.esgframework.repositories.GHGEmissionRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Service
 public class CompanyService {
+    private static final Logger logger = LoggerFactory.getLogger(CompanyService.class);
 
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+
+    @Autowired
+    private CompanyScorecardRepository scorecardRepository;
+
+    @Autowired
+    private EmissionFactorRecalculationService recalculationService;
+
     public List<Company> getAllCompanies() {
         return companyRepository.findAll();
     }
@@ -30,8 +57,15 @@ public class CompanyService {
         company.setName(companyDetails.getName());
         company.setDescription(companyDetails.getDescription());
         company.setIndustry(companyDetails.getIndustry());
+        String previousRegion = company.getRegion();
+        company.setRegion(companyDetails.getRegion());
         
-        return companyRepository.save(company);
+        Company saved = companyRepository.save(company);
+        // Regional emission factors may now apply to its emissions, or no longer
+        if (!Objects.equals(previousRegion, saved.getRegion())) {
+            recalculationService.submit(new Filter(null, id, false), "Region of company " + id + " changed");
+        }
+        return saved;
     }
 
     public void deleteCompany(Long id) {
@@ -40,10 +74,133 @@ public class CompanyService {
         companyRepository.delete(company);
     }
 
+    /**
+     * The company's ESG scorecard: emission totals, overall and broken down by scope, category, status and
+     * month; per social and governance metric the submission counts by status and the latest approved
+     * value; and submissions of all three kinds by status. Read from the emission rollups and the
+     * precomputed scorecard entries, so the cost depends on the number of buckets and metrics, not of
+     * submissions. Quantities are only summed within a unit, so every total reports them per unit as entered,
+     * next to the CO2e in kg, which adds up across units.
+     */
     public Map<String, Object> getCompanyMetrics(Long id) {
         companyRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Company not found with id: " + id));
-        // TODO: Implement metrics calculation
-        return Map.of("message", "Metrics calculation not implemented yet");
+
+        List<GHGEmissionRollup> rollups = rollupRepository.findByCompanyId(id);
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("companyId", id);
+        metrics.put("totalRecords", rollups.stream().mapToLong(GHGEmissionRollup::getRecordCount).sum());
+        metrics.put("totalCo2e", rollups.stream().mapToDouble(GHGEmissionRollup::getTotalCo2e).sum());
+        metrics.put("quantityByUnit", quantityByUnit(rollups));
+        metrics.put("byScope", totalsBy(rollups, rollup -> rollup.getScope().name()));
+        metrics.put("byCategory", totalsBy(rollups, GHGEmissionRollup::getCategory));
+        metrics.put("byStatus", totalsBy(rollups, rollup -> rollup.getStatus().name()));
+        metrics.put("byMonth", totalsBy(rollups, rollup -> rollup.getPeriodMonth().toString().substring(0, 7)));
+
+        List<CompanyScorecardEntry> entries = scorecardRepository.findByCompanyId(id);
+        metrics.put("social", scorecardSection(entries, CompanyScorecardEntry.Pillar.SOCIAL));
+        metrics.put("governance", scorecardSection(entries, CompanyScorecardEntry.Pillar.GOVERNANCE));
+
+        Map<String, Long> submissions = new LinkedHashMap<>();
+        for (SubmissionStatus status : SubmissionStatus.values()) {
+            submissions.put(status.name(), 0L);
+        }
+        for (GHGEmissionRollup rollup : rollups) {
+            submissions.merge(rollup.getStatus().name(), rollup.getRecordCount(), Long::sum);
+        }
+        for (CompanyScorecardEntry entry : entries) {
+            submissions.merge(SubmissionStatus.PENDING.name(), entry.getPendingCount(), Long::sum);
+            submissions.merge(SubmissionStatus.APPROVED.name(), entry.getApprovedCount(), Long::sum);
+            submissions.merge(SubmissionStatus.DENIED.name(), entry.getDeniedCount(), Long::sum);
+        }
+        metrics.put("submissions", submissions);
+        metrics.put("scorecardRefreshedAt", entries.stream().map(CompanyScorecardEntry::getRefreshedAt)
+            .min(Comparator.naturalOrder()).orElse(null));
+        return metrics;
+    }
+
+    private static Map<String, Object> scorecardSection(List<CompanyScorecardEntry> entries,
+                                                        CompanyScorecardEntry.Pillar pillar) {
+        long pending = 0;
+        long approved = 0;
+        long denied = 0;
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (CompanyScorecardEntry entry : entries) {
+            if (entry.getPillar() != pillar) {
+                continue;
+            }
+            pending += entry.getPendingCount();
+            approved += entry.getApprovedCount();
+            denied += entry.getDeniedCount();
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("category", entry.getCategory());
+            line.put("metric", entry.getMetric());
+            line.put("unit", entry.getUnit());
+            line.put("records", entry.getRecordCount());
+            line.put("pending", entry.getPendingCount());
+            line.put("approved", entry.getApprovedCount());
+            line.put("denied", entry.getDeniedCount());
+            line.put("latestValue", entry.getLatestValue());
+            line.put("latestPeriodEnd", entry.getLatestPeriodEnd());
+            lines.add(line);
+        }
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("totalRecords", pending + approved + denied);
+        section.put("byStatus", Map.of(
+            SubmissionStatus.PENDING.name(), pending,
+            SubmissionStatus.APPROVED.name(), approved,
+            SubmissionStatus.DENIED.name(), denied));
+        section.put("metrics", lines);
+        return section;
+    }
+
+    /**
+     * Recomputes the company's emission rollups from its emission rows, e.g. after rows were changed
+     * directly in the database.
+     * @return the number of buckets written
+     */
+    @Transactional
+    public int rebuildEmissionRollups(Long id) {
+        companyRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Company not found with id: " + id));
+        int buckets = rollupRepository.rebuild(id);
+        logger.info("Rebuilt {} emission rollup buckets for company ID: {}", buckets, id);
+        return buckets;
+    }
+
+    /**
+     * Fills the rollups once when they are first introduced on a database that already has emissions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillEmissionRollups() {
+        if (rollupRepository.isEmpty()) {
+            int buckets = rollupRepository.rebuildAll();
+            if (buckets > 0) {
+                logger.info("Backfilled {} emission rollup buckets from existing emissions", buckets);
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Object>> totalsBy(List<GHGEmissionRollup> rollups,
+                                                             Function<GHGEmissionRollup, String> key) {
+        Map<String, List<GHGEmissionRollup>> groups = new TreeMap<>();
+        for (GHGEmissionRollup rollup : rollups) {
+            groups.computeIfAbsent(key.apply(rollup), k -> new ArrayList<>()).add(rollup);
+        }
+        Map<String, Map<String, Object>> totals = new LinkedHashMap<>();
+        groups.forEach((bucket, group) -> totals.put(bucket, Map.of(
+            "records", group.stream().mapToLong(GHGEmissionRollup::getRecordCount).sum(),
+            "co2e", group.stream().mapToDouble(GHGEmissionRollup::getTotalCo2e).sum(),
+            "quantityByUnit", quantityByUnit(group))));
+        return totals;
+    }
+
+    private static Map<String, Double> quantityByUnit(List<GHGEmissionRollup> rollups) {
+        Map<String, Double> quantities = new TreeMap<>();
+        for (GHGEmissionRollup rollup : rollups) {
+            quantities.merge(rollup.getUnit(), rollup.getTotalQuantity(), Double::sum);
+        }
+        return quantities;
     }
 }
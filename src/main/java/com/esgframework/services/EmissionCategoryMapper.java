@@ -0,0 +1,320 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.CategoryMappingStats;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.MetricCategory;
+import com.esgframework.repositories.MetricCategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps the free-text category of an uploaded emission to an {@link EmissionCategory}.
+ * <p>
+ * Known spellings are held in one immutable table per scope (normalized text to category), built at startup
+ * from the category names, their display names, {@code metric_categories} rows of type
+ * {@value #METRIC_TYPE} and the {@code app.import.category-aliases} properties, so a known value costs a
+ * single hash lookup. Anything else goes through the keyword rules the importer has always applied and
+ * falls back to the scope's default category; those results are cached together with a count of their
+ * occurrences, so each unknown spelling is only resolved once.
+ * <p>
+ * Safe to use from the parallel import workers.
+ */
+@Service
+public class EmissionCategoryMapper {
+    private static final Logger logger = LoggerFactory.getLogger(EmissionCategoryMapper.class);
+
+    /** {@code metric_categories.metric_type} of rows whose name is an alias for the {@code category_code} */
+    static final String METRIC_TYPE = "EMISSION_CATEGORY";
+
+    // Distinct unknown values remembered per scope; any further ones are resolved on every row and left out
+    // of the stats
+    private static final int MAX_CACHED_MISSES = 10_000;
+
+    private static final Map<EmissionScope, List<EmissionCategory>> SCOPE_CATEGORIES = new EnumMap<>(Map.of(
+        EmissionScope.SCOPE_1, List.of(EmissionCategory.STATIONARY_COMBUSTION, EmissionCategory.MOBILE_COMBUSTION,
+            EmissionCategory.PROCESS_EMISSIONS, EmissionCategory.FUGITIVE_EMISSIONS),
+        EmissionScope.SCOPE_2, List.of(EmissionCategory.PURCHASED_ELECTRICITY, EmissionCategory.PURCHASED_HEATING,
+            EmissionCategory.PURCHASED_COOLING, EmissionCategory.PURCHASED_STEAM),
+        EmissionScope.SCOPE_3, List.of(EmissionCategory.PURCHASED_GOODS_SERVICES, EmissionCategory.CAPITAL_GOODS,
+            EmissionCategory.FUEL_ENERGY_ACTIVITIES, EmissionCategory.TRANSPORTATION_DISTRIBUTION,
+            EmissionCategory.WASTE_GENERATED, EmissionCategory.BUSINESS_TRAVEL, EmissionCategory.EMPLOYEE_COMMUTING,
+            EmissionCategory.LEASED_ASSETS, EmissionCategory.INVESTMENTS, EmissionCategory.DOWNSTREAM_TRANSPORTATION,
+            EmissionCategory.PROCESSING_SOLD_PRODUCTS, EmissionCategory.USE_OF_SOLD_PRODUCTS,
+            EmissionCategory.END_OF_LIFE_PRODUCTS, EmissionCategory.FRANCHISES),
+        EmissionScope.SOLVENT, List.of(EmissionCategory.SOLVENT_CONSUMPTION, EmissionCategory.SOLVENT_RECOVERY,
+            EmissionCategory.SOLVENT_LOSS),
+        EmissionScope.SINK, List.of(EmissionCategory.REFORESTATION, EmissionCategory.AFFORESTATION,
+            EmissionCategory.SOIL_CARBON_SEQUESTRATION)
+    ));
+
+    private static final Map<EmissionCategory, String> DISPLAY_NAMES = Map.ofEntries(
+        Map.entry(EmissionCategory.STATIONARY_COMBUSTION, "Stationary Combustion"),
+        Map.entry(EmissionCategory.MOBILE_COMBUSTION, "Mobile Combustion"),
+        Map.entry(EmissionCategory.PROCESS_EMISSIONS, "Process Emissions"),
+        Map.entry(EmissionCategory.FUGITIVE_EMISSIONS, "Fugitive Emissions"),
+        Map.entry(EmissionCategory.PURCHASED_ELECTRICITY, "Purchased Electricity"),
+        Map.entry(EmissionCategory.PURCHASED_HEATING, "Purchased Heating"),
+        Map.entry(EmissionCategory.PURCHASED_COOLING, "Purchased Cooling"),
+        Map.entry(EmissionCategory.PURCHASED_STEAM, "Purchased Steam"),
+        Map.entry(EmissionCategory.PURCHASED_GOODS_SERVICES, "Purchased Goods and Services"),
+        Map.entry(EmissionCategory.CAPITAL_GOODS, "Capital Goods"),
+        Map.entry(EmissionCategory.FUEL_ENERGY_ACTIVITIES, "Fuel and Energy Related Activities"),
+        Map.entry(EmissionCategory.TRANSPORTATION_DISTRIBUTION, "Transportation and Distribution"),
+        Map.entry(EmissionCategory.WASTE_GENERATED, "Waste Generated"),
+        Map.entry(EmissionCategory.BUSINESS_TRAVEL, "Business Travel"),
+        Map.entry(EmissionCategory.EMPLOYEE_COMMUTING, "Employee Commuting"),
+        Map.entry(EmissionCategory.LEASED_ASSETS, "Leased Assets"),
+        Map.entry(EmissionCategory.INVESTMENTS, "Investments"),
+        Map.entry(EmissionCategory.DOWNSTREAM_TRANSPORTATION, "Downstream Transportation"),
+        Map.entry(EmissionCategory.PROCESSING_SOLD_PRODUCTS, "Processing of Sold Products"),
+        Map.entry(EmissionCategory.USE_OF_SOLD_PRODUCTS, "Use of Sold Products"),
+        Map.entry(EmissionCategory.END_OF_LIFE_PRODUCTS, "End of Life Treatment of Products"),
+        Map.entry(EmissionCategory.FRANCHISES, "Franchises"),
+        Map.entry(EmissionCategory.SOLVENT_CONSUMPTION, "Solvent Consumption"),
+        Map.entry(EmissionCategory.SOLVENT_RECOVERY, "Solvent Recovery"),
+        Map.entry(EmissionCategory.SOLVENT_LOSS, "Solvent Loss"),
+        Map.entry(EmissionCategory.REFORESTATION, "Reforestation"),
+        Map.entry(EmissionCategory.AFFORESTATION, "Afforestation"),
+        Map.entry(EmissionCategory.SOIL_CARBON_SEQUESTRATION, "Soil Carbon Sequestration")
+    );
+
+    private record KeywordRule(String keyword, EmissionCategory category) {
+    }
+
+    private record MissResolution(EmissionCategory category, boolean keywordMatch, LongAdder count) {
+    }
+
+    /** Substring rules for values not in the table, checked in order; the first match wins. */
+    private static final Map<EmissionScope, List<KeywordRule>> KEYWORD_RULES = new EnumMap<>(Map.of(
+        EmissionScope.SCOPE_1, List.of(
+            new KeywordRule("STATIONARY", EmissionCategory.STATIONARY_COMBUSTION),
+            new KeywordRule("MOBILE", EmissionCategory.MOBILE_COMBUSTION),
+            new KeywordRule("PROCESS", EmissionCategory.PROCESS_EMISSIONS),
+            new KeywordRule("FUGITIVE", EmissionCategory.FUGITIVE_EMISSIONS)),
+        EmissionScope.SCOPE_2, List.of(
+            new KeywordRule("ELECTRICITY", EmissionCategory.PURCHASED_ELECTRICITY),
+            new KeywordRule("HEATING", EmissionCategory.PURCHASED_HEATING),
+            new KeywordRule("COOLING", EmissionCategory.PURCHASED_COOLING),
+            new KeywordRule("STEAM", EmissionCategory.PURCHASED_STEAM)),
+        EmissionScope.SCOPE_3, List.of(
+            new KeywordRule("PURCHASED_GOODS", EmissionCategory.PURCHASED_GOODS_SERVICES),
+            new KeywordRule("GOODS_AND_SERVICES", EmissionCategory.PURCHASED_GOODS_SERVICES),
+            new KeywordRule("CAPITAL", EmissionCategory.CAPITAL_GOODS),
+            new KeywordRule("FUEL", EmissionCategory.FUEL_ENERGY_ACTIVITIES),
+            new KeywordRule("ENERGY_RELATED", EmissionCategory.FUEL_ENERGY_ACTIVITIES),
+            new KeywordRule("TRANSPORTATION", EmissionCategory.TRANSPORTATION_DISTRIBUTION),
+            new KeywordRule("DISTRIBUTION", EmissionCategory.TRANSPORTATION_DISTRIBUTION),
+            new KeywordRule("WASTE", EmissionCategory.WASTE_GENERATED),
+            new KeywordRule("TRAVEL", EmissionCategory.BUSINESS_TRAVEL),
+            new KeywordRule("COMMUTING", EmissionCategory.EMPLOYEE_COMMUTING),
+            new KeywordRule("EMPLOYEE", EmissionCategory.EMPLOYEE_COMMUTING),
+            new KeywordRule("LEASED", EmissionCategory.LEASED_ASSETS),
+            new KeywordRule("ASSETS", EmissionCategory.LEASED_ASSETS),
+            new KeywordRule("INVESTMENT", EmissionCategory.INVESTMENTS),
+            new KeywordRule("DOWNSTREAM", EmissionCategory.DOWNSTREAM_TRANSPORTATION),
+            new KeywordRule("PROCESSING", EmissionCategory.PROCESSING_SOLD_PRODUCTS),
+            new KeywordRule("SOLD_PRODUCTS", EmissionCategory.PROCESSING_SOLD_PRODUCTS),
+            new KeywordRule("USE_OF", EmissionCategory.USE_OF_SOLD_PRODUCTS),
+            new KeywordRule("END_OF_LIFE", EmissionCategory.END_OF_LIFE_PRODUCTS),
+            new KeywordRule("EOL", EmissionCategory.END_OF_LIFE_PRODUCTS),
+            new KeywordRule("FRANCHISE", EmissionCategory.FRANCHISES)),
+        EmissionScope.SOLVENT, List.of(
+            new KeywordRule("CONSUMPTION", EmissionCategory.SOLVENT_CONSUMPTION),
+            new KeywordRule("RECOVERY", EmissionCategory.SOLVENT_RECOVERY),
+            new KeywordRule("LOSS", EmissionCategory.SOLVENT_LOSS)),
+        EmissionScope.SINK, List.of(
+            new KeywordRule("REFOREST", EmissionCategory.REFORESTATION),
+            new KeywordRule("AFFOREST", EmissionCategory.AFFORESTATION),
+            new KeywordRule("SOIL", EmissionCategory.SOIL_CARBON_SEQUESTRATION),
+            new KeywordRule("SEQUESTRATION", EmissionCategory.SOIL_CARBON_SEQUESTRATION))
+    ));
+
+    private static final Map<EmissionScope, EmissionCategory> DEFAULT_CATEGORIES = new EnumMap<>(Map.of(
+        EmissionScope.SCOPE_1, EmissionCategory.STATIONARY_COMBUSTION,
+        EmissionScope.SCOPE_2, EmissionCategory.PURCHASED_ELECTRICITY,
+        EmissionScope.SCOPE_3, EmissionCategory.TRANSPORTATION_DISTRIBUTION,
+        EmissionScope.SOLVENT, EmissionCategory.SOLVENT_CONSUMPTION,
+        EmissionScope.SINK, EmissionCategory.REFORESTATION
+    ));
+
+    @Autowired
+    private MetricCategoryRepository metricCategoryRepository;
+
+    @Autowired
+    private Environment environment;
+
+    private volatile Map<EmissionScope, Map<String, EmissionCategory>> lookup = Map.of();
+
+    private final Map<EmissionScope, Map<String, MissResolution>> resolvedMisses = new EnumMap<>(EmissionScope.class);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder keywordMatches = new LongAdder();
+    private final LongAdder defaulted = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        for (EmissionScope scope : EmissionScope.values()) {
+            resolvedMisses.put(scope, new ConcurrentHashMap<>());
+        }
+
+        Map<EmissionScope, Map<String, EmissionCategory>> tables = new EnumMap<>(EmissionScope.class);
+        SCOPE_CATEGORIES.forEach((scope, categories) -> {
+            Map<String, EmissionCategory> table = new HashMap<>();
+            for (EmissionCategory category : categories) {
+                table.put(normalize(category.name()), category);
+                table.put(normalize(DISPLAY_NAMES.get(category)), category);
+            }
+            tables.put(scope, table);
+        });
+
+        int aliases = 0;
+        for (Map.Entry<String, String> entry : loadAliases().entrySet()) {
+            if (addAlias(tables, entry.getKey(), entry.getValue())) {
+                aliases++;
+            }
+        }
+
+        Map<EmissionScope, Map<String, EmissionCategory>> immutable = new EnumMap<>(EmissionScope.class);
+        tables.forEach((scope, table) -> immutable.put(scope, Map.copyOf(table)));
+        lookup = immutable;
+        logger.info("Emission category mapping built with {} aliases", aliases);
+    }
+
+    /**
+     * @param value the category text from the file, may be null
+     * @return the mapped category, or the scope's default when the value is blank or unrecognized
+     */
+    public EmissionCategory map(String value, EmissionScope scope) {
+        if (value == null || value.isBlank()) {
+            defaulted.increment();
+            return DEFAULT_CATEGORIES.get(scope);
+        }
+
+        String key = normalize(value);
+        EmissionCategory category = lookup.get(scope).get(key);
+        if (category != null) {
+            hits.increment();
+            return category;
+        }
+
+        Map<String, MissResolution> misses = resolvedMisses.get(scope);
+        MissResolution resolution = misses.get(key);
+        if (resolution == null) {
+            resolution = resolveMiss(key, scope);
+            if (!resolution.keywordMatch()) {
+                logger.warn("Unrecognized {} category: {}, defaulting to {}", scope, value, resolution.category());
+            }
+            if (misses.size() < MAX_CACHED_MISSES) {
+                MissResolution cached = misses.putIfAbsent(key, resolution);
+                if (cached != null) {
+                    resolution = cached;
+                }
+            }
+        }
+
+        resolution.count().increment();
+        if (resolution.keywordMatch()) {
+            keywordMatches.increment();
+        } else {
+            defaulted.increment();
+        }
+        return resolution.category();
+    }
+
+    public CategoryMappingStats getStats() {
+        List<CategoryMappingStats.UnmappedValue> unmapped = new ArrayList<>();
+        resolvedMisses.forEach((scope, misses) -> misses.forEach((value, resolution) ->
+            unmapped.add(new CategoryMappingStats.UnmappedValue(scope, value, resolution.category(),
+                resolution.count().sum()))));
+        unmapped.sort(Comparator.comparingLong(CategoryMappingStats.UnmappedValue::getCount).reversed());
+        return new CategoryMappingStats(hits.sum(), keywordMatches.sum(), defaulted.sum(), unmapped);
+    }
+
+    private Map<String, String> loadAliases() {
+        Map<String, String> aliases = new HashMap<>();
+        Binder.get(environment)
+            .bind("app.import.category-aliases", Bindable.mapOf(String.class, String.class))
+            .ifBound(configured -> configured.forEach((category, values) -> {
+                for (String alias : values.split(",")) {
+                    aliases.put(alias, category);
+                }
+            }));
+
+        try {
+            for (MetricCategory row : metricCategoryRepository.findByMetricType(METRIC_TYPE)) {
+                aliases.put(row.getName(), row.getCategoryCode());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not load emission category aliases from metric_categories: {}", e.getMessage());
+        }
+        return aliases;
+    }
+
+    private static boolean addAlias(Map<EmissionScope, Map<String, EmissionCategory>> tables, String alias, String categoryCode) {
+        String key = normalize(alias);
+        EmissionCategory category;
+        try {
+            category = EmissionCategory.valueOf(normalize(categoryCode));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring alias '{}' for unknown emission category {}", alias, categoryCode);
+            return false;
+        }
+        if (key.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<EmissionScope, List<EmissionCategory>> scope : SCOPE_CATEGORIES.entrySet()) {
+            if (scope.getValue().contains(category)) {
+                tables.get(scope.getKey()).put(key, category);
+            }
+        }
+        return true;
+    }
+
+    private static MissResolution resolveMiss(String key, EmissionScope scope) {
+        for (KeywordRule rule : KEYWORD_RULES.get(scope)) {
+            if (key.contains(rule.keyword())) {
+                return new MissResolution(rule.category(), true, new LongAdder());
+            }
+        }
+        return new MissResolution(DEFAULT_CATEGORIES.get(scope), false, new LongAdder());
+    }
+
+    /**
+     * Upper-cases and joins words with single underscores, so "Purchased goods &amp; services",
+     * "purchased_goods_services" and "PURCHASED GOODS SERVICES" share one key.
+     */
+    static String normalize(String value) {
+        StringBuilder key = new StringBuilder(value.length());
+        boolean pendingSeparator = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSeparator && key.length() > 0) {
+                    key.append('_');
+                }
+                key.append(c);
+                pendingSeparator = false;
+            } else {
+                pendingSeparator = true;
+            }
+        }
+        return key.toString().toUpperCase(Locale.ROOT);
+    }
+}
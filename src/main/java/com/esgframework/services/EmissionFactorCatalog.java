@@ -0,0 +1,58 @@
+package com.esgframework.services;
+
+import com.esgframework.models.GHGEmission;
+import com.esgframework.repositories.EmissionFactorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link EmissionFactorIndex}. Every write path computes the CO2e of new emissions
+ * through {@link #apply}, so that no reader has to multiply quantities by factors itself; rows written
+ * before a factor changed are brought up to date by {@code EmissionFactorRecalculationService}.
+ */
+@Component
+public class EmissionFactorCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(EmissionFactorCatalog.class);
+
+    @Autowired
+    private EmissionFactorRepository emissionFactorRepository;
+
+    private final AtomicReference<EmissionFactorIndex> index = new AtomicReference<>(EmissionFactorIndex.empty());
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public EmissionFactorIndex current() {
+        return index.get();
+    }
+
+    /**
+     * Replaces the index with one built from the factors now in the database.
+     * @return the new index
+     */
+    public synchronized EmissionFactorIndex reload() {
+        EmissionFactorIndex loaded = new EmissionFactorIndex(index.get().getVersion() + 1,
+            emissionFactorRepository.findAll());
+        index.set(loaded);
+        logger.info("Loaded {} emission factors as index version {}", loaded.size(), loaded.getVersion());
+        return loaded;
+    }
+
+    /**
+     * Sets the emission's CO2e and the factor it was computed with from the current index.
+     * @param region region of the emission's company, may be null
+     */
+    public void apply(GHGEmission emission, String region) {
+        EmissionFactorIndex.Co2e co2e = index.get().calculate(emission.getCategory(), emission.getUnit(), region,
+            emission.getStartDate(), emission.getQuantity(), emission.getEmissionFactor());
+        emission.setCo2e(co2e.value());
+        emission.setCo2eFactorId(co2e.factorId());
+    }
+}
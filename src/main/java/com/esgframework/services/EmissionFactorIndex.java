@@ -0,0 +1,132 @@
+package com.esgframework.services;
+
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionFactor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the emission factor catalog, keyed by category and unit. A new snapshot with a
+ * higher version replaces the old one whenever the catalog changes, so lookups never lock and a thread
+ * that holds a snapshot computes with one consistent set of factors.
+ * <p>
+ * Of the factors for an emission's category and unit, those of the company's region win over those
+ * without a region, and within each group the one with the latest year not after the emission's start
+ * year wins, a factor without a year coming last.
+ */
+public final class EmissionFactorIndex {
+
+    /**
+     * CO2e of one emission in kg, null when no factor applies, and the catalog factor it was computed
+     * with, null when none was.
+     */
+    public record Co2e(Double value, Long factorId) {
+        static final Co2e NONE = new Co2e(null, null);
+    }
+
+    private record Entry(long id, String region, Integer year, double factor) {
+    }
+
+    // Specific region first, then latest year first, then factors for any year
+    private static final Comparator<Entry> PREFERENCE = Comparator
+        .comparing((Entry entry) -> entry.region() == null)
+        .thenComparing(Entry::year, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final int size;
+    private final Map<EmissionCategory, Map<String, Entry[]>> entries;
+
+    EmissionFactorIndex(long version, List<EmissionFactor> factors) {
+        this.version = version;
+        this.loadedAt = LocalDateTime.now();
+        this.size = factors.size();
+
+        Map<EmissionCategory, Map<String, List<Entry>>> grouped = new EnumMap<>(EmissionCategory.class);
+        for (EmissionFactor factor : factors) {
+            grouped.computeIfAbsent(factor.getCategory(), category -> new HashMap<>())
+                .computeIfAbsent(normalizeUnit(factor.getUnit()), unit -> new ArrayList<>())
+                .add(new Entry(factor.getId(), factor.getRegion(), factor.getYear(), factor.getFactor()));
+        }
+        Map<EmissionCategory, Map<String, Entry[]>> sorted = new EnumMap<>(EmissionCategory.class);
+        grouped.forEach((category, byUnit) -> {
+            Map<String, Entry[]> units = new HashMap<>();
+            byUnit.forEach((unit, candidates) -> {
+                candidates.sort(PREFERENCE);
+                units.put(unit, candidates.toArray(new Entry[0]));
+            });
+            sorted.put(category, Collections.unmodifiableMap(units));
+        });
+        this.entries = Collections.unmodifiableMap(sorted);
+    }
+
+    static EmissionFactorIndex empty() {
+        return new EmissionFactorIndex(0, List.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The quantity times the best catalog factor for the emission; without one, times the emission's own
+     * factor if it has a non-zero one.
+     * @param region the company's region, may be null
+     * @param startDate start of the emission, whose year selects the factor; may be null
+     */
+    public Co2e calculate(EmissionCategory category, String unit, String region, LocalDateTime startDate,
+                          Double quantity, Double emissionFactor) {
+        if (quantity == null) {
+            return Co2e.NONE;
+        }
+        Entry entry = resolve(category, unit, region, startDate != null ? startDate.getYear() : null);
+        if (entry != null) {
+            return new Co2e(quantity * entry.factor(), entry.id());
+        }
+        if (emissionFactor != null && emissionFactor != 0) {
+            return new Co2e(quantity * emissionFactor, null);
+        }
+        return Co2e.NONE;
+    }
+
+    private Entry resolve(EmissionCategory category, String unit, String region, Integer year) {
+        if (category == null || unit == null) {
+            return null;
+        }
+        Map<String, Entry[]> byUnit = entries.get(category);
+        Entry[] candidates = byUnit != null ? byUnit.get(normalizeUnit(unit)) : null;
+        if (candidates == null) {
+            return null;
+        }
+        for (Entry entry : candidates) {
+            if (entry.region() != null && (region == null || !entry.region().equalsIgnoreCase(region.trim()))) {
+                continue;
+            }
+            if (entry.year() != null && (year == null || entry.year() > year)) {
+                continue;
+            }
+            return entry;
+        }
+        return null;
+    }
+
+    private static String normalizeUnit(String unit) {
+        return unit.trim().toLowerCase(Locale.ROOT);
+    }
+}
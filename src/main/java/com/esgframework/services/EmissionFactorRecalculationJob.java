@@ -0,0 +1,118 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.EmissionFactorRecalculationStatus;
+import com.esgframework.repositories.GHGEmissionCo2eRepository.Filter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable state of one CO2e recalculation. Batches complete on several worker threads, so the counters are
+ * atomic; everything else is volatile, and a status snapshot never takes a lock.
+ */
+public class EmissionFactorRecalculationJob {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final Filter filter;
+    private final String reason;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicInteger batchesTotal = new AtomicInteger();
+    private final AtomicInteger batchesCompleted = new AtomicInteger();
+    private final AtomicLong rowsScanned = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long factorVersion;
+    private volatile long totalRows;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public EmissionFactorRecalculationJob(String id, Filter filter, String reason) {
+        this.id = id;
+        this.filter = filter;
+        this.reason = reason;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public boolean isFinished() {
+        return state != State.QUEUED && state != State.RUNNING;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void markRunning(long factorVersion, long totalRows) {
+        this.factorVersion = factorVersion;
+        this.totalRows = totalRows;
+        startNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void addBatches(int batches) {
+        batchesTotal.addAndGet(batches);
+    }
+
+    void onBatchCompleted(int scanned, int updated) {
+        rowsScanned.addAndGet(scanned);
+        rowsUpdated.addAndGet(updated);
+        batchesCompleted.incrementAndGet();
+    }
+
+    void markFinished() {
+        finishNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = cancelRequested ? State.CANCELLED : State.COMPLETED;
+    }
+
+    void markCancelled() {
+        finishNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = State.CANCELLED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = State.FAILED;
+    }
+
+    public EmissionFactorRecalculationStatus toStatus() {
+        int total = batchesTotal.get();
+        int completed = batchesCompleted.get();
+        long scanned = rowsScanned.get();
+        double percent = state == State.COMPLETED ? 100 : total > 0 ? completed * 100.0 / total : 0;
+        long elapsedNanos = startedAt == null ? 0 : (finishedAt != null ? finishNanos : System.nanoTime()) - startNanos;
+        double rowsPerSecond = elapsedNanos > 0 ? scanned * 1_000_000_000.0 / elapsedNanos : 0;
+        return new EmissionFactorRecalculationStatus(id, state.name(), reason, filter.category(), filter.companyId(),
+            filter.missingOnly(), factorVersion, submittedAt, startedAt, finishedAt, totalRows, scanned,
+            rowsUpdated.get(), total, completed, Math.round(percent * 10) / 10.0, rowsPerSecond, error);
+    }
+}
@@ -0,0 +1,263 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.EmissionFactorRecalculationStatus;
+import com.esgframework.repositories.GHGEmissionCo2eRepository;
+import com.esgframework.repositories.GHGEmissionCo2eRepository.Filter;
+import com.esgframework.repositories.GHGEmissionRollupRepository;
+import com.esgframework.repositories.GHGEmissionRollupRepository.Deltas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes the stored CO2e of existing emissions after the emission factor catalog or a company's region
+ * changed. A job splits the id range of the affected rows into batches that a worker pool processes in
+ * parallel, each batch reading its rows and writing back only the changed values in a transaction of its
+ * own, together with the change of the emission rollups' CO2e totals.
+ * <p>
+ * Every job uses the index that was current when it started; a newer request cancels the running job and
+ * replaces it with one covering both, so one job at a time runs and the last one ends up with the latest
+ * factors. Emissions without a CO2e, e.g. from before the catalog existed, are filled in at startup. Those
+ * for which no factor was found are marked, and are only looked at again once a factor has been added or
+ * changed.
+ */
+@Service
+public class EmissionFactorRecalculationService {
+    private static final Logger logger = LoggerFactory.getLogger(EmissionFactorRecalculationService.class);
+
+    private record BatchResult(int scanned, int updated) {
+    }
+
+    @Autowired
+    private EmissionFactorCatalog catalog;
+
+    @Autowired
+    private GHGEmissionCo2eRepository co2eRepository;
+
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.emission-factors.recalculation.threads:4}")
+    private int workerThreads;
+
+    @Value("${app.emission-factors.recalculation.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.emission-factors.recalculation.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, EmissionFactorRecalculationJob> jobs = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private EmissionFactorRecalculationJob latest;
+
+    private ExecutorService coordinator;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void init() {
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "co2e-recalculation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "co2e-recalculation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(EmissionFactorRecalculationJob::requestCancel);
+        coordinator.shutdown();
+        workers.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Filter missing = new Filter(null, null, true);
+        if (co2eRepository.findIdRange(missing) != null) {
+            submit(missing, "Backfill of emissions without CO2e");
+        }
+    }
+
+    /**
+     * Queues a recalculation of the emissions matching the filter. A job that has not finished yet is
+     * cancelled, and the new one also covers its emissions.
+     */
+    public synchronized EmissionFactorRecalculationStatus submit(Filter filter, String reason) {
+        if (latest != null && !latest.isFinished()) {
+            latest.requestCancel();
+            filter = merge(latest.getFilter(), filter);
+            logger.info("CO2e recalculation job {} superseded", latest.getId());
+        }
+        EmissionFactorRecalculationJob job = new EmissionFactorRecalculationJob(UUID.randomUUID().toString(), filter, reason);
+        jobs.put(job.getId(), job);
+        latest = job;
+        coordinator.execute(() -> run(job));
+        logger.info("Queued CO2e recalculation job {}: {} ({})", job.getId(), reason, filter);
+        return job.toStatus();
+    }
+
+    public EmissionFactorRecalculationStatus getJobStatus(String jobId) {
+        return findJob(jobId).toStatus();
+    }
+
+    public EmissionFactorRecalculationStatus cancel(String jobId) {
+        EmissionFactorRecalculationJob job = findJob(jobId);
+        if (!job.isFinished()) {
+            job.requestCancel();
+            logger.info("Cancellation requested for CO2e recalculation job {}", jobId);
+        }
+        return job.toStatus();
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.job-cleanup-interval-ms:300000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private void run(EmissionFactorRecalculationJob job) {
+        if (job.isCancelled()) {
+            job.markCancelled();
+            return;
+        }
+        Filter filter = job.getFilter();
+        try {
+            EmissionFactorIndex index = catalog.current();
+            job.markRunning(index.getVersion(), co2eRepository.count(filter));
+            long[] range = co2eRepository.findIdRange(filter);
+            while (range != null && !job.isCancelled()) {
+                recalculateRange(job, index, range[0], range[1]);
+                // Rows inserted meanwhile may have been computed with an older index just before this one was
+                // loaded, so the ids added since the range was read are recalculated as well
+                long done = range[1];
+                long[] current = co2eRepository.findIdRange(filter);
+                range = current != null && current[1] > done ? new long[] {done + 1, current[1]} : null;
+            }
+            job.markFinished();
+            EmissionFactorRecalculationStatus status = job.toStatus();
+            logger.info("CO2e recalculation job {} finished with state {}: {} rows scanned, {} updated",
+                job.getId(), status.state(), status.rowsScanned(), status.rowsUpdated());
+        } catch (Exception e) {
+            logger.error("CO2e recalculation job {} failed: {}", job.getId(), e.getMessage());
+            job.markFailed(e.getMessage());
+        }
+    }
+
+    private void recalculateRange(EmissionFactorRecalculationJob job, EmissionFactorIndex index, long fromId, long toId)
+            throws InterruptedException {
+        long batches = (toId - fromId) / batchSize + 1;
+        job.addBatches((int) batches);
+        List<Future<?>> futures = new ArrayList<>();
+        for (long start = fromId; start <= toId; start += batchSize) {
+            long batchFrom = start;
+            long batchTo = Math.min(start + batchSize - 1, toId);
+            futures.add(workers.submit(() -> {
+                // Batches still queued when the job is cancelled or has failed are skipped
+                if (!job.isCancelled()) {
+                    BatchResult result = recalculateBatch(job.getFilter(), index, batchFrom, batchTo);
+                    job.onBatchCompleted(result.scanned(), result.updated());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                job.requestCancel();
+                throw new IllegalStateException("Recalculation of a batch failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                job.requestCancel();
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+
+    private BatchResult recalculateBatch(Filter filter, EmissionFactorIndex index, long fromId, long toId) {
+        Timestamp checkedAt = Timestamp.valueOf(index.getLoadedAt().truncatedTo(ChronoUnit.MICROS));
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<GHGEmissionCo2eRepository.Row> rows = co2eRepository.findRows(filter, fromId, toId);
+            List<GHGEmissionCo2eRepository.Update> updates = new ArrayList<>();
+            Deltas deltas = new Deltas();
+            int changed = 0;
+            for (GHGEmissionCo2eRepository.Row row : rows) {
+                EmissionFactorIndex.Co2e co2e = index.calculate(row.category(), row.unit(), row.region(),
+                    row.startDate() != null ? row.startDate().toLocalDateTime() : null, row.quantity(),
+                    row.emissionFactor());
+                boolean modified = !Objects.equals(co2e.value(), row.co2e())
+                    || !Objects.equals(co2e.factorId(), row.co2eFactorId());
+                // Rows still without a CO2e are marked even if unchanged, so that the backfill skips them
+                boolean unmatched = co2e.value() == null && !checkedAt.equals(row.co2eCheckedAt());
+                if (modified || unmatched) {
+                    updates.add(new GHGEmissionCo2eRepository.Update(row.id(), row.startDate(), co2e.value(),
+                        co2e.factorId(), co2e.value() == null ? checkedAt : null));
+                }
+                if (modified) {
+                    changed++;
+                    if (row.startDate() != null) {
+                        deltas.add(row.companyId(), row.scope(), row.categoryName(),
+                            row.startDate().toLocalDateTime().toLocalDate().withDayOfMonth(1), row.status(), row.unit(),
+                            0, 0, valueOrZero(co2e.value()) - valueOrZero(row.co2e()));
+                    }
+                }
+            }
+            co2eRepository.update(updates);
+            rollupRepository.apply(deltas);
+            return new BatchResult(rows.size(), changed);
+        });
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static Filter merge(Filter running, Filter requested) {
+        return new Filter(
+            Objects.equals(running.category(), requested.category()) ? requested.category() : null,
+            Objects.equals(running.companyId(), requested.companyId()) ? requested.companyId() : null,
+            running.missingOnly() && requested.missingOnly());
+    }
+
+    private EmissionFactorRecalculationJob findJob(String jobId) {
+        EmissionFactorRecalculationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Recalculation job not found with ID: " + jobId);
+        }
+        return job;
+    }
+}
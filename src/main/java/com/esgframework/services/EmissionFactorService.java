@@ -0,0 +1,145 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.EmissionFactorRecalculationStatus;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionFactor;
+import com.esgframework.repositories.EmissionFactorRepository;
+import com.esgframework.repositories.GHGEmissionCo2eRepository.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the emission factor catalog. Every change reloads the {@link EmissionFactorCatalog} and starts
+ * a recalculation of the emissions of the affected category.
+ */
+@Service
+public class EmissionFactorService {
+    private static final Logger logger = LoggerFactory.getLogger(EmissionFactorService.class);
+
+    @Autowired
+    private EmissionFactorRepository emissionFactorRepository;
+
+    @Autowired
+    private EmissionFactorCatalog catalog;
+
+    @Autowired
+    private EmissionFactorRecalculationService recalculationService;
+
+    public List<EmissionFactor> getFactors() {
+        return emissionFactorRepository.findAllByOrderByCategoryAscUnitAscRegionAscYearAsc();
+    }
+
+    /**
+     * Version, size and load time of the index that new emissions are computed with.
+     */
+    public Map<String, Object> getIndexInfo() {
+        EmissionFactorIndex index = catalog.current();
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("version", index.getVersion());
+        info.put("factors", index.size());
+        info.put("loadedAt", index.getLoadedAt());
+        return info;
+    }
+
+    /**
+     * @return the saved factor and the recalculation started for its category
+     * @throws IllegalArgumentException if the factor is incomplete or one with the same category, unit,
+     *         region and year exists
+     */
+    public Map<String, Object> createFactor(EmissionFactor factor) {
+        normalize(factor);
+        validate(factor, null);
+        factor.setId(null);
+        EmissionFactor saved = emissionFactorRepository.save(factor);
+        logger.info("Created emission factor ID: {} for {} per {}", saved.getId(), saved.getCategory(), saved.getUnit());
+        return Map.of("factor", saved,
+            "recalculation", onChanged(saved.getCategory(), "Emission factor " + saved.getId() + " created"));
+    }
+
+    /**
+     * @return the saved factor and the recalculation started for its old and new category
+     */
+    public Map<String, Object> updateFactor(Long id, EmissionFactor factorDetails) {
+        EmissionFactor factor = emissionFactorRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Emission factor not found with ID: " + id));
+        normalize(factorDetails);
+        validate(factorDetails, id);
+        EmissionCategory previousCategory = factor.getCategory();
+
+        factor.setCategory(factorDetails.getCategory());
+        factor.setUnit(factorDetails.getUnit());
+        factor.setRegion(factorDetails.getRegion());
+        factor.setYear(factorDetails.getYear());
+        factor.setFactor(factorDetails.getFactor());
+        factor.setSource(factorDetails.getSource());
+        EmissionFactor saved = emissionFactorRepository.save(factor);
+        logger.info("Updated emission factor ID: {}", id);
+        return Map.of("factor", saved, "recalculation",
+            onChanged(previousCategory == saved.getCategory() ? previousCategory : null, "Emission factor " + id + " updated"));
+    }
+
+    /**
+     * @return the recalculation started for the factor's category
+     */
+    public EmissionFactorRecalculationStatus deleteFactor(Long id) {
+        EmissionFactor factor = emissionFactorRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Emission factor not found with ID: " + id));
+        emissionFactorRepository.delete(factor);
+        logger.info("Deleted emission factor ID: {}", id);
+        return onChanged(factor.getCategory(), "Emission factor " + id + " deleted");
+    }
+
+    /**
+     * Recalculates the CO2e of all emissions, or of those of one category or company.
+     */
+    public EmissionFactorRecalculationStatus recalculate(EmissionCategory category, Long companyId) {
+        return recalculationService.submit(new Filter(category, companyId, false), "Requested recalculation");
+    }
+
+    // The index is reloaded first, since a recalculation computes with the index current when it starts
+    private EmissionFactorRecalculationStatus onChanged(EmissionCategory category, String reason) {
+        catalog.reload();
+        return recalculationService.submit(new Filter(category, null, false), reason);
+    }
+
+    private static void normalize(EmissionFactor factor) {
+        if (factor.getUnit() != null) {
+            factor.setUnit(factor.getUnit().trim());
+        }
+        if (factor.getRegion() != null) {
+            factor.setRegion(factor.getRegion().isBlank() ? null : factor.getRegion().trim());
+        }
+    }
+
+    private void validate(EmissionFactor factor, Long id) {
+        if (factor.getCategory() == null) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (factor.getUnit() == null || factor.getUnit().isEmpty()) {
+            throw new IllegalArgumentException("Unit is required");
+        }
+        if (factor.getFactor() == null || !Double.isFinite(factor.getFactor()) || factor.getFactor() < 0) {
+            throw new IllegalArgumentException("Factor must be a non-negative number");
+        }
+        // The catalog is small, and NULL regions and years would slip through a unique constraint
+        for (EmissionFactor existing : emissionFactorRepository.findAll()) {
+            if (!existing.getId().equals(id)
+                    && existing.getCategory() == factor.getCategory()
+                    && existing.getUnit().equalsIgnoreCase(factor.getUnit())
+                    && (existing.getRegion() == null ? factor.getRegion() == null
+                        : existing.getRegion().equalsIgnoreCase(factor.getRegion()))
+                    && Objects.equals(existing.getYear(), factor.getYear())) {
+                throw new IllegalArgumentException("An emission factor for this category, unit, region and year " +
+                    "already exists with ID: " + existing.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.GHGEmissionExportRow;
+import com.esgframework.dto.GovernanceMetricExportRow;
+import com.esgframework.dto.SocialMetricExportRow;
+import com.esgframework.models.Company;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.models.User;
+import com.esgframework.repositories.GHGEmissionRepository;
+import com.esgframework.repositories.GovernanceMetricRepository;
+import com.esgframework.repositories.SocialMetricRepository;
+import com.esgframework.repositories.UserRepository;
+import com.esgframework.utils.ParquetRecordWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Exports a company's emissions and metrics as CSV, newline-delimited JSON or Parquet. Rows are read through
+ * a forward-only cursor as export records rather than entities and written to the output one at a time
+ * (Parquet: one row group at a time), so memory use does not depend on the number of rows. The columns are
+ * the components of the export record, in order.
+ */
+@Service
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson"),
+        PARQUET(new MediaType("application", "vnd.apache.parquet"), "parquet");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String fileName(String name) {
+            return name + "." + extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the format is not known
+         */
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + format + " (use csv, ndjson or parquet)");
+            }
+        }
+    }
+
+    @Autowired
+    private GHGEmissionRepository ghgEmissionRepository;
+
+    @Autowired
+    private SocialMetricRepository socialMetricRepository;
+
+    @Autowired
+    private GovernanceMetricRepository governanceMetricRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.parquet.row-group-mb:32}")
+    private long parquetRowGroupMegabytes;
+
+    /**
+     * The company of the current user, resolved on the request thread before the export is streamed.
+     */
+    public Long getExportCompanyId() {
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        User currentUser = userRepository.findByEmail(currentUsername)
+            .orElseThrow(() -> new RuntimeException("User not found: " + currentUsername));
+        Company company = currentUser.getCompany();
+        if (company == null) {
+            throw new SecurityException("User is not associated with any company");
+        }
+        return company.getId();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportEmissions(Long companyId, Set<SubmissionStatus> statuses, Format format, OutputStream out)
+            throws IOException {
+        try (Stream<GHGEmissionExportRow> rows = ghgEmissionRepository.streamExportRows(companyId, statuses)) {
+            long count = write(rows, GHGEmissionExportRow.class, format, out);
+            logger.info("Exported {} GHG emissions of company ID {} as {}", count, companyId, format);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportSocialMetrics(Long companyId, Set<SubmissionStatus> statuses, Format format, OutputStream out)
+            throws IOException {
+        try (Stream<SocialMetricExportRow> rows = socialMetricRepository.streamExportRows(companyId, statuses)) {
+            long count = write(rows, SocialMetricExportRow.class, format, out);
+            logger.info("Exported {} social metrics of company ID {} as {}", count, companyId, format);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportGovernanceMetrics(Long companyId, Set<SubmissionStatus> statuses, Format format, OutputStream out)
+            throws IOException {
+        try (Stream<GovernanceMetricExportRow> rows = governanceMetricRepository.streamExportRows(companyId, statuses)) {
+            long count = write(rows, GovernanceMetricExportRow.class, format, out);
+            logger.info("Exported {} governance metrics of company ID {} as {}", count, companyId, format);
+            return count;
+        }
+    }
+
+    private <T extends Record> long write(Stream<T> rows, Class<T> type, Format format, OutputStream out)
+            throws IOException {
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        if (format == Format.PARQUET) {
+            ParquetRecordWriter<T> writer = new ParquetRecordWriter<>(type, out, parquetRowGroupMegabytes << 20);
+            try {
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                    count++;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Closing would write the footer and turn the rows so far into a valid, truncated file
+                writer.abort();
+                throw e;
+            }
+            writer.close();
+            return count;
+        }
+        if (format == Format.NDJSON) {
+            // One object per line; flushing is left to the generator's buffer instead of every row
+            ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            // Rows are separated by the newline written after each of them, not the default space
+            json.setRootValueSeparator(null);
+            while (iterator.hasNext()) {
+                writer.writeValue(json, iterator.next());
+                json.writeRaw('\n');
+                count++;
+            }
+            json.flush();
+            return count;
+        }
+
+        RecordComponent[] columns = type.getRecordComponents();
+        String[] headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            headers[i] = columns[i].getName();
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(headers).build());
+        Object[] values = new Object[columns.length];
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = componentValue(columns[i], row);
+            }
+            printer.printRecord(values);
+            count++;
+        }
+        printer.flush();
+        return count;
+    }
+
+    private static Object componentValue(RecordComponent component, Record row) {
+        try {
+            return component.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + component.getName() + " of " + row.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.esgframework.services;
+
+import com.esgframework.repositories.GHGEmissionPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps yearly partitions of {@code ghg_emissions} ahead of the data: at startup and then daily it creates
+ * the partitions of this year and the next {@code app.partitions.years-ahead}, and gives every year found
+ * in the default partition a partition of its own. Partitions are never created on the write path, so
+ * imports and submissions do not wait on DDL locks.
+ */
+@Service
+public class GHGEmissionPartitionService {
+    private static final Logger logger = LoggerFactory.getLogger(GHGEmissionPartitionService.class);
+
+    @Autowired
+    private GHGEmissionPartitionRepository partitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.partitions.years-ahead:1}")
+    private int yearsAhead;
+
+    @Value("${app.partitions.lock-timeout-ms:5000}")
+    private long lockTimeoutMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 30 2 * * *}")
+    public void maintainPartitions() {
+        if (!partitionRepository.isPartitioned()) {
+            logger.debug("ghg_emissions is not partitioned, skipping partition maintenance");
+            return;
+        }
+        Set<String> existing = partitionRepository.findPartitions();
+        boolean hasDefaultPartition = existing.contains(GHGEmissionPartitionRepository.DEFAULT_PARTITION);
+
+        Set<Integer> years = new TreeSet<>();
+        int currentYear = Year.now().getValue();
+        for (int year = currentYear; year <= currentYear + yearsAhead; year++) {
+            years.add(year);
+        }
+        if (hasDefaultPartition) {
+            years.addAll(partitionRepository.findYearsInDefaultPartition());
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int year : years) {
+            if (existing.contains(GHGEmissionPartitionRepository.partitionName(year))) {
+                continue;
+            }
+            try {
+                Integer moved = transaction.execute(status ->
+                    partitionRepository.createPartition(year, lockTimeoutMillis, hasDefaultPartition));
+                logger.info("Created ghg_emissions partition for {} ({} rows moved from the default partition)", year, moved);
+            } catch (DataAccessException e) {
+                // Typically a lock timeout; the next run tries again
+                logger.warn("Could not create ghg_emissions partition for {}: {}", year, e.getMessage());
+            }
+        }
+    }
+}
@@ -3,11 +3,29 @@ package com.esgframework.services;
 import com.esgframework.models.GHGEmission;
 import com.esgframework.models.EmissionScope;
 import com.esgframework.models.SubmissionStatus;
+import com.esgframework.dto.EmissionTotal;
+import com.esgframework.dto.GHGEmissionSummary;
+import com.esgframework.dto.KeysetPage;
+import com.esgframework.models.TimeFrame;
+import com.esgframework.repositories.CompanyRepository;
+import com.esgframework.repositories.GHGEmissionAggregateRepository;
+import com.esgframework.repositories.GHGEmissionAggregateRepository.GroupBy;
 import com.esgframework.repositories.GHGEmissionRepository;
+import com.esgframework.repositories.GHGEmissionRollupRepository;
+import com.esgframework.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.esgframework.models.User;
 import com.esgframework.models.Company;
@@ -17,6 +35,8 @@ import com.esgframework.repositories.UserRepository;
 
 @Service
 public class GHGEmissionService {
+    private static final Set<SubmissionStatus> PENDING = Collections.unmodifiableSet(EnumSet.of(SubmissionStatus.PENDING));
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -29,49 +49,123 @@ public class GHGEmissionService {
             .orElseThrow(() -> new javax.persistence.EntityNotFoundException("User not found"));
     }
 
-    public List<GHGEmission> getPendingEmissionsForCompany() {
+    public List<GHGEmissionSummary> getPendingEmissionsForCompany() {
+        Long companyId = getManagedCompany().getId();
+        return ghgEmissionRepository.findSummariesByStatus(companyId, PENDING, Pageable.unpaged());
+    }
+    
+    public Page<GHGEmissionSummary> getPendingEmissionsForCompany(Pageable pageable) {
+        Long companyId = getManagedCompany().getId();
+        return ghgEmissionRepository.findSummaryPageByStatus(companyId, PENDING, pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getPendingEmissionsForCompany(KeysetCursor cursor, int size) {
+        Long companyId = getManagedCompany().getId();
+        return keysetPage(cursor, size,
+            limit -> ghgEmissionRepository.findSummariesByStatus(companyId, PENDING, limit),
+            (after, limit) -> ghgEmissionRepository.findSummariesByStatusAfter(companyId, PENDING, after.createdAt(),
+                after.id(), limit));
+    }
+    
+    public List<GHGEmissionSummary> getAllEmissionsForCompany() {
+        return ghgEmissionRepository.findSummaries(getViewableCompany().getId(), Pageable.unpaged());
+    }
+    
+    public Page<GHGEmissionSummary> getAllEmissionsForCompany(Pageable pageable) {
+        return ghgEmissionRepository.findSummaryPage(getViewableCompany().getId(), pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getAllEmissionsForCompany(KeysetCursor cursor, int size) {
+        return getCompanyEmissions(getViewableCompany().getId(), cursor, size);
+    }
+    
+    /**
+     * The full emission with its company and users, for the detail view.
+     * @throws javax.persistence.EntityNotFoundException if there is no such emission
+     * @throws SecurityException if it belongs to another company than the current user's
+     */
+    public GHGEmission getEmission(Long id) {
+        Company company = getViewableCompany();
+        GHGEmission emission = ghgEmissionRepository.findById(id)
+            .orElseThrow(() -> new javax.persistence.EntityNotFoundException("GHG Emission not found with ID: " + id));
+        if (!emission.getCompany().getId().equals(company.getId())) {
+            throw new SecurityException("You can only view emissions for your own company");
+        }
+        return emission;
+    }
+    
+    private Company getManagedCompany() {
         User currentUser = getCurrentUser();
         if (!currentUser.getRole().equalsIgnoreCase("manager")) {
             throw new SecurityException("Only managers can view GHG submissions");
         }
-        Company company = currentUser.getCompany();
-        return ghgEmissionRepository.findByCompanyAndStatus(company, com.esgframework.models.SubmissionStatus.PENDING);
+        return currentUser.getCompany();
     }
     
-    public List<GHGEmission> getAllEmissionsForCompany() {
+    // Allow both managers and representatives to view emissions for their company
+    private Company getViewableCompany() {
         User currentUser = getCurrentUser();
-        // Allow both managers and representatives to view emissions for their company
         if (!currentUser.getRole().equalsIgnoreCase("manager") && !currentUser.getRole().equalsIgnoreCase("representative")) {
             throw new SecurityException("Only managers and representatives can view GHG submissions");
         }
-        Company company = currentUser.getCompany();
-        return ghgEmissionRepository.findByCompany(company);
+        return currentUser.getCompany();
+    }
+    
+    /**
+     * Fetches one row more than the page size to tell whether another page follows.
+     * @param cursor position after which to continue, or null for the first page
+     */
+    private static KeysetPage<GHGEmissionSummary> keysetPage(KeysetCursor cursor, int size,
+                                                             Function<Pageable, List<GHGEmissionSummary>> firstPage,
+                                                             BiFunction<KeysetCursor, Pageable, List<GHGEmissionSummary>> nextPage) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<GHGEmissionSummary> rows = cursor == null ? firstPage.apply(limit) : nextPage.apply(cursor, limit);
+        return KeysetPage.of(rows, size, summary -> new KeysetCursor(summary.createdAt(), summary.id()));
+    }
+    
+    public List<GHGEmissionSummary> getEmissionsHistory() {
+        // Approved and denied emissions, newest first
+        return ghgEmissionRepository.findSummariesByStatus(getHistoryCompany().getId(), SubmissionStatus.REVIEWED,
+            Pageable.unpaged());
     }
     
-    public List<GHGEmission> getEmissionsHistory() {
+    public Page<GHGEmissionSummary> getEmissionsHistory(Pageable pageable) {
+        return ghgEmissionRepository.findSummaryPageByStatus(getHistoryCompany().getId(), SubmissionStatus.REVIEWED, pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getEmissionsHistory(KeysetCursor cursor, int size) {
+        Long companyId = getHistoryCompany().getId();
+        return keysetPage(cursor, size,
+            limit -> ghgEmissionRepository.findSummariesByStatus(companyId, SubmissionStatus.REVIEWED, limit),
+            (after, limit) -> ghgEmissionRepository.findSummariesByStatusAfter(companyId, SubmissionStatus.REVIEWED,
+                after.createdAt(), after.id(), limit));
+    }
+    
+    private Company getHistoryCompany() {
         User currentUser = getCurrentUser();
         // Allow both managers and representatives to view emissions history for their company
         if (!currentUser.getRole().equalsIgnoreCase("manager") && !currentUser.getRole().equalsIgnoreCase("representative")) {
             throw new SecurityException("Only managers and representatives can view GHG submission history");
         }
-        Company company = currentUser.getCompany();
-        
-        // Get all approved and denied emissions
-        List<GHGEmission> approvedEmissions = ghgEmissionRepository.findByCompanyAndStatus(company, SubmissionStatus.APPROVED);
-        List<GHGEmission> deniedEmissions = ghgEmissionRepository.findByCompanyAndStatus(company, SubmissionStatus.DENIED);
-        
-        // Combine the lists
-        approvedEmissions.addAll(deniedEmissions);
-        
-        // Sort by created date (newest first)
-        approvedEmissions.sort((e1, e2) -> e2.getCreatedAt().compareTo(e1.getCreatedAt()));
-        
-        return approvedEmissions;
+        return currentUser.getCompany();
     }
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(GHGEmissionService.class);
     @Autowired
     private GHGEmissionRepository ghgEmissionRepository;
+    
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+    
+    @Autowired
+    private GHGEmissionAggregateRepository aggregateRepository;
+    
+    @Autowired
+    private CompanyRepository companyRepository;
+    
+    @Autowired
+    private EmissionFactorCatalog emissionFactorCatalog;
 
+    @Transactional
     public GHGEmission submitEmissionData(GHGEmission emission) {
         logger.info("Submitting GHG emission data for company ID: {}", emission.getCompany().getId());
         
@@ -86,42 +180,100 @@ public class GHGEmissionService {
         // Explicitly set status to PENDING to ensure it appears in review
         emission.setStatus(SubmissionStatus.PENDING);
         
+        // The request only carries the company's id, so its region is looked up
+        String region = companyRepository.findById(emission.getCompany().getId()).map(Company::getRegion).orElse(null);
+        emissionFactorCatalog.apply(emission, region);
+        
         // Save the emission data
         GHGEmission saved = ghgEmissionRepository.save(emission);
         logger.info("GHG emission saved with ID: {} submitted by user: {}", saved.getId(), currentUser.getName());
         
+        GHGEmissionRollupRepository.Deltas deltas = new GHGEmissionRollupRepository.Deltas();
+        deltas.add(saved, saved.getStatus(), 1);
+        rollupRepository.apply(deltas);
+        
         // Create notifications for managers from the same company
         createNotificationsForManagers(saved);
         
         return saved;
     }
 
-    public List<GHGEmission> getCompanyEmissions(Long companyId) {
+    public List<GHGEmissionSummary> getCompanyEmissions(Long companyId) {
     logger.info("Fetching all GHG emissions for company ID: {}", companyId);
-        List<GHGEmission> emissions = ghgEmissionRepository.findByCompanyId(companyId);
+        List<GHGEmissionSummary> emissions = ghgEmissionRepository.findSummaries(companyId, Pageable.unpaged());
     logger.info("Found {} GHG emission records", emissions.size());
     return emissions;
     }
 
-    public List<GHGEmission> getCompanyEmissionsByScope(Long companyId, EmissionScope scope) {
+    public Page<GHGEmissionSummary> getCompanyEmissions(Long companyId, Pageable pageable) {
+        return ghgEmissionRepository.findSummaryPage(companyId, pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getCompanyEmissions(Long companyId, KeysetCursor cursor, int size) {
+        return keysetPage(cursor, size,
+            limit -> ghgEmissionRepository.findSummaries(companyId, limit),
+            (after, limit) -> ghgEmissionRepository.findSummariesAfter(companyId, after.createdAt(), after.id(), limit));
+    }
+
+    public List<GHGEmissionSummary> getCompanyEmissionsByScope(Long companyId, EmissionScope scope) {
     logger.info("Fetching GHG emissions for company ID: {} and scope: {}", companyId, scope);
-        List<GHGEmission> emissions = ghgEmissionRepository.findByCompanyIdAndScope(companyId, scope);
+        List<GHGEmissionSummary> emissions = ghgEmissionRepository.findSummariesByScope(companyId, scope, Pageable.unpaged());
     logger.info("Found {} GHG emission records for scope {}", emissions.size(), scope);
     return emissions;
     }
 
-    public List<GHGEmission> getCompanyEmissionsByDateRange(Long companyId, LocalDateTime startDate, LocalDateTime endDate) {
+    public Page<GHGEmissionSummary> getCompanyEmissionsByScope(Long companyId, EmissionScope scope, Pageable pageable) {
+        return ghgEmissionRepository.findSummaryPageByScope(companyId, scope, pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getCompanyEmissionsByScope(Long companyId, EmissionScope scope, KeysetCursor cursor,
+                                                                     int size) {
+        return keysetPage(cursor, size,
+            limit -> ghgEmissionRepository.findSummariesByScope(companyId, scope, limit),
+            (after, limit) -> ghgEmissionRepository.findSummariesByScopeAfter(companyId, scope, after.createdAt(), after.id(),
+                limit));
+    }
+
+    public List<GHGEmissionSummary> getCompanyEmissionsByDateRange(Long companyId, LocalDateTime startDate, LocalDateTime endDate) {
     logger.info("Fetching GHG emissions for company ID: {} between {} and {}", companyId, startDate, endDate);
-        List<GHGEmission> emissions = ghgEmissionRepository.findByCompanyIdAndStartDateBetween(companyId, startDate, endDate);
+        List<GHGEmissionSummary> emissions = ghgEmissionRepository.findSummariesByStartDate(companyId, startDate, endDate,
+            Pageable.unpaged());
     logger.info("Found {} GHG emission records in date range", emissions.size());
     return emissions;
     }
     
+    public Page<GHGEmissionSummary> getCompanyEmissionsByDateRange(Long companyId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                   Pageable pageable) {
+        return ghgEmissionRepository.findSummaryPageByStartDate(companyId, startDate, endDate, pageable);
+    }
+    
+    public KeysetPage<GHGEmissionSummary> getCompanyEmissionsByDateRange(Long companyId, LocalDateTime startDate,
+                                                                         LocalDateTime endDate, KeysetCursor cursor, int size) {
+        return keysetPage(cursor, size,
+            limit -> ghgEmissionRepository.findSummariesByStartDate(companyId, startDate, endDate, limit),
+            (after, limit) -> ghgEmissionRepository.findSummariesByStartDateAfter(companyId, startDate, endDate,
+                after.createdAt(), after.id(), limit));
+    }
+    
+    /**
+     * Totals of quantity and of the computed CO2e, grouped in the database.
+     * @see GHGEmissionAggregateRepository#findTotals
+     */
+    public List<EmissionTotal> getCompanyEmissionTotals(Long companyId, Set<GroupBy> groupBy, TimeFrame period,
+                                                        LocalDateTime startDate, LocalDateTime endDate, SubmissionStatus status) {
+        logger.info("Aggregating GHG emissions for company ID: {} by {} (period {}, {} to {}, status {})",
+            companyId, groupBy, period, startDate, endDate, status);
+        List<EmissionTotal> totals = aggregateRepository.findTotals(companyId, groupBy, period, startDate, endDate, status);
+        logger.info("Computed {} GHG emission totals", totals.size());
+        return totals;
+    }
+    
+    @Transactional
     public GHGEmission updateEmissionStatus(Long id, String status) {
         logger.info("Updating status for GHG emission ID: {} to {}", id, status);
         
-        // Find the emission by ID
-        GHGEmission emission = ghgEmissionRepository.findById(id)
+        // Find the emission by ID, locked until the rollup delta below is applied
+        GHGEmission emission = ghgEmissionRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new javax.persistence.EntityNotFoundException("GHG Emission not found with ID: " + id));
         
         // Get current user for audit trail
@@ -139,6 +291,7 @@ public class GHGEmissionService {
         
         try {
             // Update the status
+            SubmissionStatus previousStatus = emission.getStatus();
             emission.setStatus(com.esgframework.models.SubmissionStatus.valueOf(status));
             
             // Update audit fields
@@ -149,6 +302,14 @@ public class GHGEmissionService {
             GHGEmission updated = ghgEmissionRepository.save(emission);
             logger.info("Successfully updated status for GHG emission ID: {} to {}", id, status);
             
+            // Move the emission to the bucket of its new status
+            if (previousStatus != updated.getStatus()) {
+                GHGEmissionRollupRepository.Deltas deltas = new GHGEmissionRollupRepository.Deltas();
+                deltas.add(updated, previousStatus, -1);
+                deltas.add(updated, updated.getStatus(), 1);
+                rollupRepository.apply(deltas);
+            }
+            
             // Create notification for the representative who submitted this emission
             createNotificationForRepresentative(updated, status);
             
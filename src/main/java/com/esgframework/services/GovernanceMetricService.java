@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,6 +31,9 @@ public class GovernanceMetricService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private CompanyScorecardService scorecardService;
+    
     public GovernanceMetric submitGovernanceMetric(GovernanceMetric governanceMetric) {
         // Get the authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -76,6 +81,7 @@ public class GovernanceMetricService {
         
         // Create notification for managers
         notificationService.createGovernanceMetricSubmissionNotification(savedMetric);
+        scorecardService.markChanged(savedMetric.getCompany());
         
         return savedMetric;
     }
@@ -94,6 +100,16 @@ public class GovernanceMetricService {
     }
     
     public List<GovernanceMetric> getGovernanceMetricsHistory() {
+        // Approved and denied metrics, newest first
+        return governanceMetricRepository.findByCompanyAndStatusInOrderByCreatedAtDescIdDesc(getCurrentCompany(),
+            SubmissionStatus.REVIEWED);
+    }
+    
+    public Page<GovernanceMetric> getGovernanceMetricsHistory(Pageable pageable) {
+        return governanceMetricRepository.findByCompanyAndStatusIn(getCurrentCompany(), SubmissionStatus.REVIEWED, pageable);
+    }
+    
+    private Company getCurrentCompany() {
         // Get the authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
@@ -101,19 +117,7 @@ public class GovernanceMetricService {
             .orElseThrow(() -> new RuntimeException("User not found: " + currentUsername));
         
         // Get the company from the authenticated user
-        Company company = currentUser.getCompany();
-        
-        // Get all approved and denied governance metrics
-        List<GovernanceMetric> approvedMetrics = governanceMetricRepository.findByCompanyAndStatus(company, SubmissionStatus.APPROVED);
-        List<GovernanceMetric> deniedMetrics = governanceMetricRepository.findByCompanyAndStatus(company, SubmissionStatus.DENIED);
-        
-        // Combine the lists
-        approvedMetrics.addAll(deniedMetrics);
-        
-        // Sort by created date (newest first)
-        approvedMetrics.sort((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()));
-        
-        return approvedMetrics;
+        return currentUser.getCompany();
     }
     
     public GovernanceMetric updateGovernanceMetricStatus(Long id, SubmissionStatus status) {
@@ -127,6 +131,7 @@ public class GovernanceMetricService {
         
         // Create notification for the submitter
         notificationService.createGovernanceMetricStatusUpdateNotification(updatedMetric);
+        scorecardService.markChanged(updatedMetric.getCompany());
         
         return updatedMetric;
     }
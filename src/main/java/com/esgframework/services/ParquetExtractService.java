@@ -0,0 +1,94 @@
+package com.esgframework.services;
+
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.repositories.CompanyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Nightly Parquet extract of every company's emissions and metrics for the data warehouse, enabled by
+ * setting {@code app.export.parquet.directory}. Files are laid out by date, dataset and company as
+ * {@code <date>/<dataset>/company_id=<id>/part-0.parquet}, which warehouses read as a partitioned table.
+ * Each file is written under a temporary name and moved into place when complete; companies without rows
+ * get no file.
+ */
+@Service
+public class ParquetExtractService {
+    private static final Logger logger = LoggerFactory.getLogger(ParquetExtractService.class);
+
+    private static final Set<SubmissionStatus> ALL_STATUSES = EnumSet.allOf(SubmissionStatus.class);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Value("${app.export.parquet.directory:}")
+    private String directory;
+
+    private interface Export {
+        long write(Long companyId, Set<SubmissionStatus> statuses, ExportService.Format format, OutputStream out)
+            throws IOException;
+    }
+
+    @Scheduled(cron = "${app.export.parquet.cron:0 0 4 * * *}")
+    public void extractAll() {
+        if (directory.isBlank()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Path day = Path.of(directory, LocalDate.now().toString());
+        int files = 0;
+        for (Long companyId : companyRepository.findAllIds()) {
+            files += extract(day, "ghg_emissions", companyId, exportService::exportEmissions);
+            files += extract(day, "social_metrics", companyId, exportService::exportSocialMetrics);
+            files += extract(day, "governance_metrics", companyId, exportService::exportGovernanceMetrics);
+        }
+        logger.info("Wrote {} Parquet extract files to {} in {} ms", files, day, System.currentTimeMillis() - started);
+    }
+
+    // Failures are logged per file so that one company does not stop the whole extract
+    private int extract(Path day, String dataset, Long companyId, Export export) {
+        Path target = day.resolve(dataset).resolve("company_id=" + companyId).resolve("part-0.parquet");
+        // Next to the company directories, so that the move stays on one file system
+        Path temporary = day.resolve(dataset).resolve(".company_id=" + companyId + ".parquet.tmp");
+        try {
+            Files.createDirectories(temporary.getParent());
+            long rows;
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                rows = export.write(companyId, ALL_STATUSES, ExportService.Format.PARQUET, out);
+            }
+            if (rows == 0) {
+                Files.delete(temporary);
+                // Left by an earlier run of the same day
+                Files.deleteIfExists(target);
+                return 0;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return 1;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not extract {} of company ID {} to {}", dataset, companyId, target, e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // Overwritten by the next run
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.PortfolioYear;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.repositories.PortfolioAnalyticsRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Emission totals and year-over-year trend of every company, written as JSON while the rows are read from
+ * the database. Only the current company and the per-year portfolio totals are held in memory, so the
+ * response size does not depend on the number of companies.
+ * <p>
+ * Emissions are CO2e in kg; the change is relative to the year before and left out when there is no
+ * previous year or it had no emissions.
+ */
+@Service
+public class PortfolioAnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioAnalyticsService.class);
+
+    @Autowired
+    private PortfolioAnalyticsRepository portfolioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @param statuses only emissions with one of these statuses
+     * @param fromYear first year to include, may be null
+     * @param toYear last year to include, may be null
+     * @param industry only companies of this industry, or null for all
+     */
+    public void writePortfolio(Set<SubmissionStatus> statuses, Integer fromYear, Integer toYear, String industry,
+                               OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // A failure part way must leave the body unterminated, not closed into a plausible but partial answer
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            json.writeStartObject();
+            json.writeArrayFieldStart("statuses");
+            for (SubmissionStatus status : statuses) {
+                json.writeString(status.name());
+            }
+            json.writeEndArray();
+            writeNumberOrNull(json, "fromYear", fromYear);
+            writeNumberOrNull(json, "toYear", toYear);
+            json.writeStringField("industry", industry);
+
+            json.writeArrayFieldStart("companies");
+            PortfolioWriter writer = new PortfolioWriter(json);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            try {
+                transaction.executeWithoutResult(status ->
+                    portfolioRepository.forEachCompanyYear(statuses, fromYear, toYear, industry, writer::accept));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finishCompany();
+            json.writeEndArray();
+
+            writer.writeTotals();
+            json.writeEndObject();
+            logger.info("Wrote portfolio analytics for {} companies in {} ms", writer.companies,
+                System.currentTimeMillis() - started);
+        }
+    }
+
+    private static final class PortfolioWriter {
+        private final JsonGenerator json;
+        // Portfolio totals per year: companies, records, emissions
+        private final Map<Integer, double[]> years = new TreeMap<>();
+        private Long currentCompany;
+        private long companies;
+
+        PortfolioWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        // Rows arrive ordered by company and year; the first row of a company opens its object
+        void accept(PortfolioYear row) {
+            try {
+                if (!Long.valueOf(row.companyId()).equals(currentCompany)) {
+                    finishCompany();
+                    currentCompany = row.companyId();
+                    companies++;
+                    json.writeStartObject();
+                    json.writeNumberField("companyId", row.companyId());
+                    json.writeStringField("name", row.companyName());
+                    json.writeStringField("industry", row.industry());
+                    writeTotals(row.companyRecords(), row.companyEmissions());
+                    json.writeArrayFieldStart("years");
+                }
+                json.writeStartObject();
+                json.writeNumberField("year", row.year());
+                writeTotals(row.records(), row.emissions());
+                writeNumberOrNull(json, "previousEmissions", row.previousEmissions());
+                writeNumberOrNull(json, "change", change(row.emissions(), row.previousEmissions()));
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            double[] year = years.computeIfAbsent(row.year(), key -> new double[3]);
+            year[0]++;
+            year[1] += row.records();
+            year[2] += row.emissions();
+        }
+
+        void finishCompany() throws IOException {
+            if (currentCompany != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+                currentCompany = null;
+            }
+        }
+
+        void writeTotals() throws IOException {
+            long records = 0;
+            double emissions = 0;
+            for (double[] year : years.values()) {
+                records += (long) year[1];
+                emissions += year[2];
+            }
+            json.writeObjectFieldStart("totals");
+            json.writeNumberField("companies", companies);
+            writeTotals(records, emissions);
+            json.writeArrayFieldStart("byYear");
+            Double previous = null;
+            Integer previousYear = null;
+            for (Map.Entry<Integer, double[]> entry : years.entrySet()) {
+                double[] year = entry.getValue();
+                json.writeStartObject();
+                json.writeNumberField("year", entry.getKey());
+                json.writeNumberField("companies", (long) year[0]);
+                writeTotals((long) year[1], year[2]);
+                boolean consecutive = previousYear != null && previousYear == entry.getKey() - 1;
+                writeNumberOrNull(json, "change", consecutive ? change(year[2], previous) : null);
+                json.writeEndObject();
+                previous = year[2];
+                previousYear = entry.getKey();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+
+        private void writeTotals(long records, double emissions) throws IOException {
+            json.writeNumberField("records", records);
+            json.writeNumberField("emissions", emissions);
+        }
+    }
+
+    private static Double change(double emissions, Double previous) {
+        return previous != null && previous != 0 ? (emissions - previous) / previous : null;
+    }
+
+    private static void writeNumberOrNull(JsonGenerator json, String field, Number value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else if (value instanceof Integer i) {
+            json.writeNumberField(field, i);
+        } else {
+            json.writeNumberField(field, value.doubleValue());
+        }
+    }
+}
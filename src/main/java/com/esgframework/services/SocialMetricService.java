@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,6 +31,9 @@ public class SocialMetricService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private CompanyScorecardService scorecardService;
+    
     public SocialMetric submitSocialMetric(SocialMetric socialMetric) {
         // Get the authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -76,6 +81,7 @@ public class SocialMetricService {
         
         // Create notification for managers
         notificationService.createSocialMetricSubmissionNotification(savedMetric);
+        scorecardService.markChanged(savedMetric.getCompany());
         
         return savedMetric;
     }
@@ -94,6 +100,16 @@ public class SocialMetricService {
     }
     
     public List<SocialMetric> getSocialMetricsHistory() {
+        // Approved and denied metrics, newest first
+        return socialMetricRepository.findByCompanyAndStatusInOrderByCreatedAtDescIdDesc(getCurrentCompany(),
+            SubmissionStatus.REVIEWED);
+    }
+    
+    public Page<SocialMetric> getSocialMetricsHistory(Pageable pageable) {
+        return socialMetricRepository.findByCompanyAndStatusIn(getCurrentCompany(), SubmissionStatus.REVIEWED, pageable);
+    }
+    
+    private Company getCurrentCompany() {
         // Get the authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
@@ -101,19 +117,7 @@ public class SocialMetricService {
             .orElseThrow(() -> new RuntimeException("User not found: " + currentUsername));
         
         // Get the company from the authenticated user
-        Company company = currentUser.getCompany();
-        
-        // Get all approved and denied social metrics
-        List<SocialMetric> approvedMetrics = socialMetricRepository.findByCompanyAndStatus(company, SubmissionStatus.APPROVED);
-        List<SocialMetric> deniedMetrics = socialMetricRepository.findByCompanyAndStatus(company, SubmissionStatus.DENIED);
-        
-        // Combine the lists
-        approvedMetrics.addAll(deniedMetrics);
-        
-        // Sort by created date (newest first)
-        approvedMetrics.sort((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()));
-        
-        return approvedMetrics;
+        return currentUser.getCompany();
     }
     
     public SocialMetric updateSocialMetricStatus(Long id, SubmissionStatus status) {
@@ -127,6 +131,7 @@ public class SocialMetricService {
         
         // Create notification for the submitter
         notificationService.createSocialMetricStatusUpdateNotification(updatedMetric);
+        scorecardService.markChanged(updatedMetric.getCompany());
         
         return updatedMetric;
     }
@@ -0,0 +1,80 @@
+package com.esgframework.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Column positions of an emissions upload (CSV or worksheet), resolved once from the header row so that
+ * each row can be read by index without building a per-row map or comparing header names.
+ */
+public final class CSVColumnBinding {
+
+    public enum Column {
+        START_DATE("Start Date", true),
+        END_DATE("End Date", true),
+        CATEGORY("Category", true),
+        QUANTITY("Quantity", true),
+        UNIT("Unit", true),
+        SOURCE("Source", false),
+        ACTIVITY("Activity", false),
+        CALCULATION_METHOD("Calculation Method", false),
+        EMISSION_FACTOR("Emission Factor", false),
+        EMISSION_FACTOR_UNIT("Emission Factor Unit", false),
+        NOTES("Notes", false),
+        SCOPE("Scope", false);
+
+        private final String header;
+        private final boolean required;
+
+        Column(String header, boolean required) {
+            this.header = header;
+            this.required = required;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+    }
+
+    private final int[] indexes;
+
+    private CSVColumnBinding(int[] indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * Matches header names case-insensitively, ignoring surrounding whitespace.
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    public static CSVColumnBinding bind(Map<String, Integer> headerMap) {
+        int[] indexes = new int[Column.values().length];
+        Arrays.fill(indexes, -1);
+        for (Map.Entry<String, Integer> header : headerMap.entrySet()) {
+            String name = header.getKey() == null ? "" : header.getKey().trim();
+            for (Column column : Column.values()) {
+                if (indexes[column.ordinal()] < 0 && column.header.equalsIgnoreCase(name)) {
+                    indexes[column.ordinal()] = header.getValue();
+                }
+            }
+        }
+
+        for (Column column : Column.values()) {
+            if (column.required && indexes[column.ordinal()] < 0) {
+                throw new IllegalArgumentException("Missing required column: " + column.header);
+            }
+        }
+        return new CSVColumnBinding(indexes);
+    }
+
+    public boolean has(Column column) {
+        return indexes[column.ordinal()] >= 0;
+    }
+
+    /**
+     * @return the raw value, or null if the column is absent from the file or missing from this row
+     */
+    public String get(ImportRow row, Column column) {
+        int index = indexes[column.ordinal()];
+        return index >= 0 && index < row.size() ? row.get(index) : null;
+    }
+}
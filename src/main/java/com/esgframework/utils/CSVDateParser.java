@@ -0,0 +1,183 @@
+package com.esgframework.utils;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Parses the date columns of an emissions upload. The file's date layout is detected once from a sample
+ * of values and then parsed with a hand-rolled digit scanner; values that do not match the detected layout
+ * fall back to the other supported layouts. Nothing on the parse path throws, so a malformed value costs
+ * a few character checks instead of several exceptions.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CSVDateParser {
+
+    public enum DateLayout {
+        ISO_DATE("yyyy-MM-dd", 0, 5, 8, '-'),
+        MONTH_DAY_YEAR("MM/dd/yyyy", 6, 0, 3, '/'),
+        DAY_MONTH_YEAR("dd/MM/yyyy", 6, 3, 0, '/'),
+        DAY_MONTH_YEAR_DASH("dd-MM-yyyy", 6, 3, 0, '-');
+
+        private final String pattern;
+        private final int yearOffset;
+        private final int monthOffset;
+        private final int dayOffset;
+        private final char separator;
+
+        DateLayout(String pattern, int yearOffset, int monthOffset, int dayOffset, char separator) {
+            this.pattern = pattern;
+            this.yearOffset = yearOffset;
+            this.monthOffset = monthOffset;
+            this.dayOffset = dayOffset;
+            this.separator = separator;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * @return the parsed date, or null if the value does not have this layout
+         */
+        LocalDate parse(String value) {
+            if (value.length() != 10) {
+                return null;
+            }
+            int firstSeparator = yearOffset == 0 ? 4 : 2;
+            int secondSeparator = yearOffset == 0 ? 7 : 5;
+            if (value.charAt(firstSeparator) != separator || value.charAt(secondSeparator) != separator) {
+                return null;
+            }
+            int year = digits(value, yearOffset, 4);
+            int month = digits(value, monthOffset, 2);
+            int day = digits(value, dayOffset, 2);
+            return toDate(year, month, day);
+        }
+    }
+
+    private static final DateLayout[] LAYOUTS = DateLayout.values();
+
+    private static final CSVDateParser DEFAULT = new CSVDateParser(DateLayout.ISO_DATE);
+
+    private final DateLayout primaryLayout;
+
+    private CSVDateParser(DateLayout primaryLayout) {
+        this.primaryLayout = primaryLayout;
+    }
+
+    /**
+     * A parser that tries the layouts in their declaration order, for callers that cannot sample the file.
+     */
+    public static CSVDateParser defaultParser() {
+        return DEFAULT;
+    }
+
+    /**
+     * Picks the layout that parses the most sample values. Ties go to the earlier layout, so a file whose
+     * slash dates are all ambiguous (day and month both at most 12) is read as month/day/year.
+     */
+    public static CSVDateParser detect(Iterable<String> samples) {
+        int[] matches = new int[LAYOUTS.length];
+        for (String sample : samples) {
+            if (sample == null) {
+                continue;
+            }
+            String value = sample.trim();
+            for (int i = 0; i < LAYOUTS.length; i++) {
+                if (LAYOUTS[i].parse(value) != null) {
+                    matches[i]++;
+                }
+            }
+        }
+
+        int best = 0;
+        for (int i = 1; i < LAYOUTS.length; i++) {
+            if (matches[i] > matches[best]) {
+                best = i;
+            }
+        }
+        return matches[best] > 0 ? new CSVDateParser(LAYOUTS[best]) : DEFAULT;
+    }
+
+    public DateLayout getPrimaryLayout() {
+        return primaryLayout;
+    }
+
+    /**
+     * @return the parsed date, or null if the value is empty or matches none of the supported layouts
+     */
+    public LocalDate parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        LocalDate date = primaryLayout.parse(value);
+        if (date != null) {
+            return date;
+        }
+        for (DateLayout layout : LAYOUTS) {
+            if (layout != primaryLayout) {
+                date = layout.parse(value);
+                if (date != null) {
+                    return date;
+                }
+            }
+        }
+        return parseLenientIso(value);
+    }
+
+    /**
+     * Accepts year-month-day with unpadded month and day, e.g. 2024-3-7. Unlike the fixed layouts, a day past
+     * the end of the month is invalid here.
+     */
+    private static LocalDate parseLenientIso(String value) {
+        int firstDash = value.indexOf('-');
+        int secondDash = firstDash < 0 ? -1 : value.indexOf('-', firstDash + 1);
+        if (firstDash <= 0 || secondDash < 0 || value.indexOf('-', secondDash + 1) >= 0) {
+            return null;
+        }
+        int year = digits(value, 0, firstDash);
+        int month = digits(value, firstDash + 1, secondDash - firstDash - 1);
+        int day = digits(value, secondDash + 1, value.length() - secondDash - 1);
+        if (year <= 1900 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * @return the value of {@code length} decimal digits starting at {@code offset}, or -1 if any is not a digit
+     */
+    private static int digits(String value, int offset, int length) {
+        if (length <= 0 || length > 9) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Mirrors the SMART resolver of {@code DateTimeFormatter.ofPattern}: a day of 29-31 past the end of the
+     * month resolves to the month's last day, and year 0 does not exist.
+     */
+    private static LocalDate toDate(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int monthLength = Month.of(month).length(Year.isLeap(year));
+        return LocalDate.of(year, month, Math.min(day, monthLength));
+    }
+}
@@ -0,0 +1,76 @@
+package com.esgframework.utils;
+
+import com.esgframework.models.GHGEmission;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 content hashes used to recognize re-uploaded emissions, both per row and per file.
+ */
+public final class EmissionFingerprints {
+
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(EmissionFingerprints::newDigest);
+
+    private EmissionFingerprints() {
+    }
+
+    /**
+     * Hashes the fields that identify an emission: company, scope, category, start and end date, quantity,
+     * unit and source. Two rows with the same values for all of them are considered the same emission.
+     * @return 64 lowercase hex characters
+     */
+    public static String of(GHGEmission emission) {
+        StringBuilder key = new StringBuilder(128);
+        key.append(emission.getCompany().getId()).append(FIELD_SEPARATOR)
+            .append(emission.getScope()).append(FIELD_SEPARATOR)
+            .append(emission.getCategory()).append(FIELD_SEPARATOR)
+            .append(emission.getStartDate()).append(FIELD_SEPARATOR)
+            .append(emission.getEndDate()).append(FIELD_SEPARATOR)
+            .append(emission.getQuantity()).append(FIELD_SEPARATOR)
+            .append(emission.getUnit()).append(FIELD_SEPARATOR)
+            .append(emission.getSource());
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return toHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hashes a whole upload. The stream is read to the end and closed.
+     * @return 64 lowercase hex characters
+     */
+    public static String ofContent(InputStream inputStream) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = inputStream) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
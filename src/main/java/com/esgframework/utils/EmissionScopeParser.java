@@ -0,0 +1,74 @@
+package com.esgframework.utils;
+
+import com.esgframework.models.EmissionScope;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes an {@link EmissionScope} in free text such as a Scope cell ("Scope 2", "scope_2", "2") or a
+ * file name ("site-a_scope3_2024Q1.csv", "Solvent usage.csv").
+ */
+public final class EmissionScopeParser {
+
+    private static final Pattern NUMBERED_SCOPE = Pattern.compile("(?<![A-Z0-9])SCOPE[ _\\-]?([123])(?![0-9])");
+    private static final Pattern SOLVENT = Pattern.compile("(?<![A-Z])SOLVENTS?(?![A-Z])");
+    private static final Pattern SINK = Pattern.compile("(?<![A-Z])SINKS?(?![A-Z])");
+
+    private EmissionScopeParser() {
+    }
+
+    /**
+     * @return the scope named by a cell value, or null if the value names none
+     */
+    public static EmissionScope parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.trim().toUpperCase(Locale.ROOT);
+        switch (text) {
+            case "1":
+                return EmissionScope.SCOPE_1;
+            case "2":
+                return EmissionScope.SCOPE_2;
+            case "3":
+                return EmissionScope.SCOPE_3;
+            default:
+                return find(text);
+        }
+    }
+
+    /**
+     * @return the single scope mentioned in a file name, or null if it mentions none or several
+     */
+    public static EmissionScope fromFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String name = fileName.substring(fileName.lastIndexOf('/') + 1).toUpperCase(Locale.ROOT);
+        return find(name);
+    }
+
+    private static EmissionScope find(String text) {
+        EmissionScope found = null;
+        int matches = 0;
+        Matcher numbered = NUMBERED_SCOPE.matcher(text);
+        while (numbered.find()) {
+            EmissionScope scope = EmissionScope.valueOf("SCOPE_" + numbered.group(1));
+            if (scope != found) {
+                found = scope;
+                matches++;
+            }
+        }
+        if (SOLVENT.matcher(text).find()) {
+            found = EmissionScope.SOLVENT;
+            matches++;
+        }
+        if (SINK.matcher(text).find()) {
+            found = EmissionScope.SINK;
+            matches++;
+        }
+        return matches == 1 ? found : null;
+    }
+}
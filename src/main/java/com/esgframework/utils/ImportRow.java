@@ -0,0 +1,61 @@
+package com.esgframework.utils;
+
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * One data row of an emissions upload, independent of the file format, read by column index through a
+ * {@link CSVColumnBinding}.
+ */
+public interface ImportRow {
+
+    /**
+     * Row number reported back in rejections: the CSV record number, or the row number shown by the
+     * spreadsheet for worksheets.
+     */
+    long getRowNumber();
+
+    int size();
+
+    /**
+     * @return the value at the index, or null for an empty worksheet cell
+     */
+    String get(int index);
+
+    static ImportRow of(CSVRecord record) {
+        return new ImportRow() {
+            @Override
+            public long getRowNumber() {
+                return record.getRecordNumber();
+            }
+
+            @Override
+            public int size() {
+                return record.size();
+            }
+
+            @Override
+            public String get(int index) {
+                return record.get(index);
+            }
+        };
+    }
+
+    static ImportRow of(long rowNumber, String[] values) {
+        return new ImportRow() {
+            @Override
+            public long getRowNumber() {
+                return rowNumber;
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public String get(int index) {
+                return values[index];
+            }
+        };
+    }
+}
@@ -0,0 +1,282 @@
+package com.esgframework.utils;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.HadoopParquetConfiguration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+
+/**
+ * Writes records of one type as a Parquet file to an output stream. Every record component becomes an
+ * optional column of the same name: enums are dictionary-encoded ENUM strings, dates DATE, date-times
+ * TIMESTAMP in microseconds without a time zone. Rows are buffered until a row group is full, so memory use
+ * is bounded by the row group size, not the number of rows; the stream only needs to accept sequential
+ * writes, so it can be a response.
+ */
+public final class ParquetRecordWriter<T extends Record> implements Closeable {
+
+    private final ParquetWriter<T> writer;
+
+    private final StreamOutputFile file;
+
+    /**
+     * @param rowGroupBytes size of the row groups buffered before they are written
+     */
+    public ParquetRecordWriter(Class<T> type, OutputStream out, long rowGroupBytes) throws IOException {
+        this.file = new StreamOutputFile(out);
+        this.writer = new Builder<>(file, type)
+            .withConf(new PlainParquetConfiguration())
+            .withCompressionCodec(CompressionCodecName.SNAPPY)
+            .withDictionaryEncoding(true)
+            .withRowGroupSize(rowGroupBytes)
+            .build();
+    }
+
+    public void write(T row) throws IOException {
+        writer.write(row);
+    }
+
+    /**
+     * Writes the last row group and the file footer. Does not close the stream. Does nothing after
+     * {@link #abort()}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!file.aborted) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Gives up the file after a failure: buffered rows are dropped and the footer is never written, so the
+     * bytes already on the stream are not a readable Parquet file that could pass for a complete one.
+     */
+    public void abort() {
+        file.aborted = true;
+    }
+
+    private enum ColumnType {
+        INT64, INT32, DOUBLE, BOOLEAN, STRING, ENUM, DATE, TIMESTAMP;
+
+        static ColumnType of(RecordComponent component) {
+            Class<?> type = component.getType();
+            if (type == Long.class || type == long.class) {
+                return INT64;
+            } else if (type == Integer.class || type == int.class) {
+                return INT32;
+            } else if (type == Double.class || type == double.class) {
+                return DOUBLE;
+            } else if (type == Boolean.class || type == boolean.class) {
+                return BOOLEAN;
+            } else if (type == String.class) {
+                return STRING;
+            } else if (type.isEnum()) {
+                return ENUM;
+            } else if (type == LocalDate.class) {
+                return DATE;
+            } else if (type == LocalDateTime.class) {
+                return TIMESTAMP;
+            }
+            throw new IllegalArgumentException("No Parquet column type for " + component.getName() + " of type " + type.getName());
+        }
+    }
+
+    private static final class RecordWriteSupport<T extends Record> extends WriteSupport<T> {
+        private final RecordComponent[] components;
+        private final ColumnType[] columnTypes;
+        private final MessageType schema;
+        private RecordConsumer consumer;
+
+        RecordWriteSupport(Class<T> type) {
+            components = type.getRecordComponents();
+            columnTypes = new ColumnType[components.length];
+            Types.MessageTypeBuilder builder = Types.buildMessage();
+            for (int i = 0; i < components.length; i++) {
+                columnTypes[i] = ColumnType.of(components[i]);
+                String name = components[i].getName();
+                switch (columnTypes[i]) {
+                    case INT64 -> builder.optional(PrimitiveTypeName.INT64).named(name);
+                    case INT32 -> builder.optional(PrimitiveTypeName.INT32).named(name);
+                    case DOUBLE -> builder.optional(PrimitiveTypeName.DOUBLE).named(name);
+                    case BOOLEAN -> builder.optional(PrimitiveTypeName.BOOLEAN).named(name);
+                    case STRING -> builder.optional(PrimitiveTypeName.BINARY)
+                        .as(LogicalTypeAnnotation.stringType()).named(name);
+                    case ENUM -> builder.optional(PrimitiveTypeName.BINARY)
+                        .as(LogicalTypeAnnotation.enumType()).named(name);
+                    case DATE -> builder.optional(PrimitiveTypeName.INT32)
+                        .as(LogicalTypeAnnotation.dateType()).named(name);
+                    case TIMESTAMP -> builder.optional(PrimitiveTypeName.INT64)
+                        .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named(name);
+                }
+            }
+            schema = builder.named(type.getSimpleName());
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        // Still abstract in WriteSupport, though deprecated in favour of the ParquetConfiguration variant
+        @Override
+        @Deprecated
+        public WriteContext init(Configuration configuration) {
+            return init(new HadoopParquetConfiguration(configuration));
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(T row) {
+            consumer.startMessage();
+            for (int i = 0; i < components.length; i++) {
+                Object value = value(components[i], row);
+                // Nulls are written by leaving the optional field out
+                if (value == null) {
+                    continue;
+                }
+                String name = components[i].getName();
+                consumer.startField(name, i);
+                switch (columnTypes[i]) {
+                    case INT64 -> consumer.addLong((Long) value);
+                    case INT32 -> consumer.addInteger((Integer) value);
+                    case DOUBLE -> consumer.addDouble((Double) value);
+                    case BOOLEAN -> consumer.addBoolean((Boolean) value);
+                    case STRING -> consumer.addBinary(Binary.fromString((String) value));
+                    case ENUM -> consumer.addBinary(Binary.fromString(((Enum<?>) value).name()));
+                    case DATE -> consumer.addInteger((int) ((LocalDate) value).toEpochDay());
+                    case TIMESTAMP -> {
+                        LocalDateTime dateTime = (LocalDateTime) value;
+                        consumer.addLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000);
+                    }
+                }
+                consumer.endField(name, i);
+            }
+            consumer.endMessage();
+        }
+
+        private static Object value(RecordComponent component, Record row) {
+            try {
+                return component.getAccessor().invoke(row);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read " + component.getName() + " of " + row.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private static final class Builder<T extends Record> extends ParquetWriter.Builder<T, Builder<T>> {
+        private final Class<T> type;
+
+        Builder(OutputFile file, Class<T> type) {
+            super(file);
+            this.type = type;
+        }
+
+        @Override
+        protected Builder<T> self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<T> getWriteSupport(ParquetConfiguration configuration) {
+            return new RecordWriteSupport<>(type);
+        }
+
+        // Still abstract in ParquetWriter.Builder, though deprecated like WriteSupport.init(Configuration)
+        @Override
+        @Deprecated
+        protected WriteSupport<T> getWriteSupport(Configuration configuration) {
+            return getWriteSupport(new HadoopParquetConfiguration(configuration));
+        }
+    }
+
+    // A Parquet file only needs its current position, which a forward-only stream can count itself
+    private static final class StreamOutputFile implements OutputFile {
+        private final OutputStream out;
+        // Nothing more reaches the stream once set
+        private volatile boolean aborted;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (!aborted) {
+                        out.write(b);
+                    }
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (!aborted) {
+                        out.write(b, off, len);
+                    }
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    if (!aborted) {
+                        out.flush();
+                    }
+                }
+
+                // The stream belongs to the caller
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.esgframework.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+/**
+ * Error responses of endpoints declared as {@code ResponseEntity<StreamingResponseBody>}, which cannot return a
+ * map body. The client receives the same {@code {"error": ...}} JSON as from any other endpoint.
+ */
+public final class StreamingErrors {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StreamingErrors() {
+    }
+
+    public static ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        Map<String, String> error = Map.of("error", String.valueOf(message));
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(outputStream -> MAPPER.writeValue(outputStream, error));
+    }
+}
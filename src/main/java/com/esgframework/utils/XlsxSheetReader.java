@@ -0,0 +1,164 @@
+package com.esgframework.utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the first worksheet of an .xlsx workbook row by row with POI's SAX event API. Only the current row
+ * and the workbook's shared strings are held in memory, never the sheet or workbook as a whole.
+ * <p>
+ * The first row with a value is the header. Blank rows are skipped, as the CSV parser does. Date cells are
+ * returned as ISO dates (yyyy-MM-dd) and numeric cells as plain numbers, whatever their display format, so
+ * that values reach the row mapping in the same shape as in a CSV export.
+ */
+public final class XlsxSheetReader {
+
+    public interface RowHandler {
+        /**
+         * Called once, before any row, with header names mapped to their column index.
+         */
+        void header(Map<String, Integer> headerMap);
+
+        /**
+         * @return false to stop reading
+         */
+        boolean row(ImportRow row);
+    }
+
+    private XlsxSheetReader() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the file is not a readable .xlsx workbook or has no header row
+     */
+    public static void readFirstSheet(File file, RowHandler handler) throws IOException {
+        OPCPackage workbook;
+        try {
+            workbook = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IllegalArgumentException("Not a readable XLSX workbook: " + e.getMessage(), e);
+        }
+        // Read-only packages are released with revert(); close() would try to save them
+        try {
+            XSSFReader reader = new XSSFReader(workbook);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Workbook has no worksheet");
+            }
+            SheetRows rows = new SheetRows(handler);
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), new ReadOnlySharedStringsTable(workbook),
+                rows, new ImportDataFormatter(), false));
+            try (InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
+            } catch (StopReading e) {
+                return;
+            }
+            if (!rows.headerSeen) {
+                throw new IllegalArgumentException("Worksheet has no header row");
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException("Not a readable XLSX workbook: " + e.getMessage(), e);
+        } finally {
+            workbook.revert();
+        }
+    }
+
+    /**
+     * Collects the cells of each row by column index; cells that are absent from the sheet stay null.
+     */
+    private static final class SheetRows implements SheetContentsHandler {
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private boolean headerSeen;
+        private boolean rowHasValue;
+        private int nextColumn;
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            rowHasValue = false;
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            while (cells.size() < column) {
+                cells.add(null);
+            }
+            cells.add(formattedValue);
+            rowHasValue |= formattedValue != null && !formattedValue.isBlank();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!rowHasValue) {
+                return;
+            }
+            if (!headerSeen) {
+                headerSeen = true;
+                Map<String, Integer> headerMap = new LinkedHashMap<>();
+                for (int i = 0; i < cells.size(); i++) {
+                    String name = cells.get(i);
+                    if (name != null && !name.isBlank()) {
+                        headerMap.putIfAbsent(name.trim(), i);
+                    }
+                }
+                handler.header(headerMap);
+                return;
+            }
+            if (!handler.row(ImportRow.of(rowNum + 1L, cells.toArray(new String[0])))) {
+                throw new StopReading();
+            }
+        }
+    }
+
+    /**
+     * Ends the SAX parse early when the handler stops accepting rows.
+     */
+    private static final class StopReading extends RuntimeException {
+        StopReading() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class ImportDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Range-partition ghg_emissions on start_date, one partition per calendar year, so that queries bounded
+-- by start date only scan the years they cover.
+-- PostgreSQL requires the partition key in every unique constraint: the primary key becomes
+-- (id, start_date) and uk_ghg_fingerprint covers (fingerprint, start_date), which identifies the same rows
+-- because the fingerprint includes the start date.
+-- Rows for a year without a partition go to ghg_emissions_default; GHGEmissionPartitionService creates
+-- partitions for the coming years and moves such rows into a partition of their own.
+-- The partition key cannot be NULL: emissions stored without a start date get the end date of their period,
+-- or else their creation time, so that every row stays visible to the application.
+
+ALTER TABLE ghg_emissions RENAME TO ghg_emissions_unpartitioned;
+ALTER TABLE ghg_emissions_unpartitioned RENAME CONSTRAINT ghg_emissions_pkey TO ghg_emissions_unpartitioned_pkey;
+ALTER TABLE ghg_emissions_unpartitioned DROP CONSTRAINT IF EXISTS uk_ghg_fingerprint;
+DROP INDEX IF EXISTS uk_ghg_fingerprint;
+DROP INDEX IF EXISTS idx_ghg_company;
+DROP INDEX IF EXISTS idx_ghg_status;
+DROP INDEX IF EXISTS idx_ghg_scope;
+DROP INDEX IF EXISTS idx_ghg_dates;
+DROP INDEX IF EXISTS idx_ghg_submitter;
+DROP INDEX IF EXISTS idx_ghg_company_created;
+DROP INDEX IF EXISTS idx_ghg_company_status_created;
+-- Keep the id sequence when the old table is dropped
+ALTER SEQUENCE ghg_emissions_id_seq OWNED BY NONE;
+
+DO $$
+DECLARE
+    backfilled bigint;
+BEGIN
+    UPDATE ghg_emissions_unpartitioned SET start_date = COALESCE(end_date, created_at, now()) WHERE start_date IS NULL;
+    GET DIAGNOSTICS backfilled = ROW_COUNT;
+    IF backfilled > 0 THEN
+        RAISE WARNING 'Set the start date of % emissions without one to their end date or creation time', backfilled;
+    END IF;
+END $$;
+
+CREATE TABLE ghg_emissions (LIKE ghg_emissions_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (start_date);
+
+ALTER TABLE ghg_emissions ALTER COLUMN start_date SET NOT NULL;
+ALTER TABLE ghg_emissions ADD CONSTRAINT ghg_emissions_pkey PRIMARY KEY (id, start_date);
+ALTER TABLE ghg_emissions ADD CONSTRAINT uk_ghg_fingerprint UNIQUE (fingerprint, start_date);
+ALTER TABLE ghg_emissions ADD CONSTRAINT fk_ghg_company FOREIGN KEY (company_id) REFERENCES companies(id);
+ALTER TABLE ghg_emissions ADD CONSTRAINT fk_ghg_submitted_by FOREIGN KEY (submitted_by_id) REFERENCES users(id);
+ALTER TABLE ghg_emissions ADD CONSTRAINT fk_ghg_last_modified_by FOREIGN KEY (last_modified_by_id) REFERENCES users(id);
+ALTER SEQUENCE ghg_emissions_id_seq OWNED BY ghg_emissions.id;
+
+-- Created on the parent, so every partition gets them
+CREATE INDEX idx_ghg_company ON ghg_emissions(company_id);
+CREATE INDEX idx_ghg_status ON ghg_emissions(status);
+CREATE INDEX idx_ghg_scope ON ghg_emissions(scope);
+CREATE INDEX idx_ghg_dates ON ghg_emissions(start_date, end_date);
+CREATE INDEX idx_ghg_submitter ON ghg_emissions(submitted_by_id);
+CREATE INDEX idx_ghg_company_created ON ghg_emissions(company_id, created_at, id);
+CREATE INDEX idx_ghg_company_status_created ON ghg_emissions(company_id, status, created_at);
+
+CREATE TABLE ghg_emissions_default PARTITION OF ghg_emissions DEFAULT;
+
+-- One partition for every year with data, plus this year and the next
+DO $$
+DECLARE
+    partition_year integer;
+BEGIN
+    FOR partition_year IN
+        SELECT DISTINCT extract(year FROM start_date)::integer FROM ghg_emissions_unpartitioned
+        UNION
+        SELECT extract(year FROM now())::integer + n FROM generate_series(0, 1) AS n
+    LOOP
+        EXECUTE format('CREATE TABLE ghg_emissions_y%s PARTITION OF ghg_emissions FOR VALUES FROM (%L) TO (%L)',
+            partition_year, make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+    END LOOP;
+END $$;
+
+INSERT INTO ghg_emissions SELECT * FROM ghg_emissions_unpartitioned;
+
+DROP TABLE ghg_emissions_unpartitioned;
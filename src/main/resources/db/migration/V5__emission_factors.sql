@@ -0,0 +1,22 @@
+-- Emission factor catalog and the CO2e computed from it (EmissionFactorCatalog).
+-- Existing emissions keep a NULL co2e until the backfill that EmissionFactorRecalculationService starts
+-- at application startup has filled it in.
+
+CREATE TABLE IF NOT EXISTS emission_factors (
+    id BIGSERIAL PRIMARY KEY,
+    category VARCHAR(255) NOT NULL,
+    unit VARCHAR(255) NOT NULL,
+    region VARCHAR(255),
+    factor_year INTEGER,
+    factor DOUBLE PRECISION NOT NULL,
+    source VARCHAR(255),
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_emission_factor_lookup ON emission_factors(category, unit);
+
+ALTER TABLE companies ADD COLUMN IF NOT EXISTS region VARCHAR(255);
+
+-- Added on the partitioned parent, so every partition gets them
+ALTER TABLE ghg_emissions ADD COLUMN IF NOT EXISTS co2e DOUBLE PRECISION;
+ALTER TABLE ghg_emissions ADD COLUMN IF NOT EXISTS co2e_factor_id BIGINT;
@@ -0,0 +1,13 @@
+-- Emission rollups get one bucket per unit (GHGEmissionRollup), so quantities in different units are no
+-- longer added up. The buckets are emptied here; CompanyService refills empty rollups from the emission
+-- rows at the next application startup.
+-- Run before starting a build with per-unit rollups: until then the bucket key lacks the unit. The column
+-- default only lets a schema update by Hibernate add the column to a populated table.
+
+DELETE FROM ghg_emission_rollups;
+
+ALTER TABLE ghg_emission_rollups ADD COLUMN IF NOT EXISTS unit VARCHAR(255) NOT NULL DEFAULT 'UNSPECIFIED';
+
+ALTER TABLE ghg_emission_rollups DROP CONSTRAINT IF EXISTS uk_ghg_rollup_bucket;
+ALTER TABLE ghg_emission_rollups ADD CONSTRAINT uk_ghg_rollup_bucket
+    UNIQUE (company_id, scope, category, period_month, status, unit);
@@ -0,0 +1,7 @@
+-- Emission rollups also total the stored CO2e of their rows (GHGEmissionRollup). The buckets are emptied
+-- here; CompanyService refills empty rollups from the emission rows at the next application startup.
+-- Run before starting a build with CO2e rollups, together with V6.
+
+DELETE FROM ghg_emission_rollups;
+
+ALTER TABLE ghg_emission_rollups ADD COLUMN IF NOT EXISTS total_co2e DOUBLE PRECISION NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Emissions for which a recalculation found no emission factor record when it did so
+-- (EmissionFactorRecalculationService), so that the backfill at startup skips them until the catalog changes.
+
+-- Added on the partitioned parent, so every partition gets it
+ALTER TABLE ghg_emissions ADD COLUMN IF NOT EXISTS co2e_checked_at TIMESTAMP;
@@ -0,0 +1,44 @@
+package com.esgframework;
+
+import com.esgframework.repositories.GHGEmissionPartitionRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Partitions ghg_emissions in the test database as in production: Hibernate creates the plain table, then
+ * {@code V4__partition_ghg_emissions.sql} is applied to it before the application is ready, so that its
+ * partition maintenance runs at startup as usual.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PartitionedEmissionsSchema {
+
+    public static final String MIGRATION = "db/migration/V4__partition_ghg_emissions.sql";
+
+    public static String migration() throws IOException {
+        try (InputStream in = new ClassPathResource(MIGRATION).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Takes the EntityManagerFactory so that it runs after Hibernate updated the schema
+    @Bean
+    InitializingBean partitionGhgEmissions(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                                           GHGEmissionPartitionRepository partitionRepository) {
+        return () -> {
+            // The contexts of a test JVM share one database, which only the first one partitions
+            if (!partitionRepository.isPartitioned()) {
+                // The driver splits the script into its statements, dollar-quoted blocks included
+                jdbcTemplate.execute(migration());
+            }
+        };
+    }
+}
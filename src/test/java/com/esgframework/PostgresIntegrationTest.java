@@ -0,0 +1,112 @@
+package com.esgframework;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Base of the tests that run the application against a real PostgreSQL: ghg_emissions is partitioned as in
+ * production (see {@link PartitionedEmissionsSchema}) and several repositories use PostgreSQL-only SQL. One
+ * embedded server is started per test JVM, and the application context is shared by all subclasses. Tests don't clean up; each one creates its own companies
+ * and users so that they never see each other's rows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(PartitionedEmissionsSchema.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    static {
+        try {
+            POSTGRES = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                POSTGRES.close();
+            } catch (IOException ignored) {
+                // The server is gone with the JVM either way
+            }
+        }));
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+            () -> "jdbc:postgresql://localhost:" + POSTGRES.getPort() + "/postgres?reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    /**
+     * @return a connection pool on a new, empty database of the embedded server, for tests of SQL scripts
+     */
+    protected static DataSource createDatabase(String name) {
+        try (Connection connection = POSTGRES.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return POSTGRES.getDatabase("postgres", name);
+    }
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the ID of a new company with a unique name
+     */
+    protected long createCompany(String name) {
+        return insert("INSERT INTO companies (name, industry, status, created_at) VALUES (?, 'energy', 'active', now())",
+            name + " " + SEQUENCE.incrementAndGet());
+    }
+
+    /**
+     * @return the email of a new user of the company, which tests authenticate as
+     */
+    protected String createUser(long companyId, String role) {
+        String email = role + SEQUENCE.incrementAndGet() + "@example.com";
+        insert("INSERT INTO users (email, name, password, role, company_id, created_at) VALUES (?, ?, 'secret', ?, ?, now())",
+            email, role, role, companyId);
+        return email;
+    }
+
+    protected long userId(String email) {
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    protected long insert(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[] {"id"});
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+}
@@ -0,0 +1,79 @@
+package com.esgframework.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.DispatcherType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(registry, 500);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final HandlerMethod handler = handler();
+
+    @AfterEach
+    void clear() {
+        SqlRequestStatistics.finish();
+    }
+
+    @Test
+    void publishesOncePerRequest() throws Exception {
+        interceptor.preHandle(request, response, handler);
+        SqlRequestStatistics.current().record(3, "select 1");
+        SqlRequestStatistics.current().record(5, "select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary statements = statements();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void publishesAsyncRequestOnceAfterLastDispatch() throws Exception {
+        interceptor.preHandle(request, response, handler);
+        SqlRequestStatistics.current().record(3, "select 1");
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertThat(SqlRequestStatistics.current()).isNull();
+        assertThat(registry.find("sql.request.statements").summary()).isNull();
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, handler);
+        SqlRequestStatistics.current().record(4, "select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary statements = statements();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+        assertThat(registry.find("sql.request.slowest").timer().count()).isEqualTo(1);
+    }
+
+    private DistributionSummary statements() {
+        return registry.get("sql.request.statements").tag("handler", "SqlMetricsInterceptorTest.handle").summary();
+    }
+
+    private HandlerMethod handler() {
+        try {
+            return new HandlerMethod(this, SqlMetricsInterceptorTest.class.getDeclaredMethod("handle"));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void handle() {
+    }
+}
@@ -0,0 +1,91 @@
+package com.esgframework.controllers;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.services.CSVService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Import tuning parameters are bounded before any import starts.
+ */
+class ImportOptionsTest extends PostgresIntegrationTest {
+
+    private static final String CSV = "Scope,Category,Start Date,End Date,Quantity,Unit\n"
+        + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-01,2024-01-31,100,kWh\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CSVService csvService;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/ghg-emissions/upload-csv", "/api/ghg-emissions/upload-csv/async", "/api/ghg-emissions/upload-bulk"})
+    void chunkSizeAboveTheMaximumIsBadRequest(String endpoint) throws Exception {
+        mockMvc.perform(upload(endpoint).param("chunkSize", String.valueOf(Integer.MAX_VALUE)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid chunkSize value"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "-1"})
+    void nonPositiveChunkSizeIsBadRequest(String chunkSize) throws Exception {
+        mockMvc.perform(upload("/api/ghg-emissions/upload-csv").param("mode", "streaming").param("chunkSize", chunkSize))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid chunkSize value"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1", "10000"})
+    void chunkSizeWithinTheBoundsIsAccepted(String chunkSize) throws Exception {
+        mockMvc.perform(upload("/api/ghg-emissions/upload-csv").param("mode", "streaming").param("chunkSize", chunkSize))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.recordsProcessed").value(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/ghg-emissions/upload-csv", "/api/ghg-emissions/upload-csv/async", "/api/ghg-emissions/upload-bulk"})
+    void parallelismAboveThePoolSizeIsBadRequest(String endpoint) throws Exception {
+        mockMvc.perform(upload(endpoint).param("parallelism", String.valueOf(Integer.MAX_VALUE)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid parallelism value"));
+    }
+
+    @Test
+    void nonPositiveParallelismIsBadRequest() throws Exception {
+        mockMvc.perform(upload("/api/ghg-emissions/upload-csv").param("mode", "streaming").param("parallelism", "0"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid parallelism value"));
+    }
+
+    @Test
+    void parallelismUpToThePoolSizeIsAccepted() throws Exception {
+        mockMvc.perform(upload("/api/ghg-emissions/upload-csv").param("mode", "streaming")
+                .param("parallelism", String.valueOf(csvService.getMaxParallelism())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.recordsProcessed").value(1));
+    }
+
+    private MockMultipartHttpServletRequestBuilder upload(String endpoint) {
+        long companyId = createCompany("Import");
+        String fileParameter = endpoint.endsWith("bulk") ? "files" : "file";
+        MockMultipartHttpServletRequestBuilder builder = multipart(endpoint);
+        builder.file(new MockMultipartFile(fileParameter, "emissions.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8)))
+            .param("scope", "SCOPE_1")
+            .param("companyId", String.valueOf(companyId))
+            .with(user(createUser(companyId, "representative")).roles("representative"));
+        return builder;
+    }
+}
@@ -0,0 +1,127 @@
+package com.esgframework.controllers;
+
+import com.esgframework.PostgresIntegrationTest;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements of the listing and detail endpoints of emissions and metrics. Every
+ * listing is requested for a company with one row and for one with many rows from different submitters; an
+ * association that is loaded lazily per row shows up as a difference between the two.
+ */
+class QueryCountTest extends PostgresIntegrationTest {
+
+    private static final int MANY = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * A company with a manager, and the IDs of its first emission and metrics.
+     */
+    private record Fixture(long companyId, String manager, long emissionId, long socialId, long governanceId) {
+    }
+
+    @BeforeEach
+    void countQueries() {
+        // SqlMetricsConfig already routes the data source through datasource-proxy; count on the test thread
+        ChainListener listeners = (ChainListener) ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener();
+        if (listeners.getListeners().stream().noneMatch(DataSourceQueryCountListener.class::isInstance)) {
+            listeners.addListener(new DataSourceQueryCountListener());
+        }
+    }
+
+    // Pages smaller than the page size skip the count query. Responses that include a company also list its
+    // users, which is one statement per request.
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+            endpoint("emission listing", f -> "/api/ghg-emissions/company/" + f.companyId(), 1),
+            endpoint("emission page", f -> "/api/ghg-emissions/company/" + f.companyId() + "?page=0&size=50", 1),
+            endpoint("emission keyset page", f -> "/api/ghg-emissions/company/" + f.companyId() + "?size=50", 1),
+            endpoint("emission detail", f -> "/api/ghg-emissions/" + f.emissionId(), 3),
+            endpoint("social listing", f -> "/api/social-metrics/company", 3),
+            endpoint("social history", f -> "/api/social-metrics/history", 3),
+            endpoint("social history page", f -> "/api/social-metrics/history?page=0&size=50", 3),
+            endpoint("social detail", f -> "/api/social-metrics/" + f.socialId(), 2),
+            endpoint("governance listing", f -> "/api/governance-metrics/company", 3),
+            endpoint("governance history", f -> "/api/governance-metrics/history", 3),
+            endpoint("governance history page", f -> "/api/governance-metrics/history?page=0&size=50", 3),
+            endpoint("governance detail", f -> "/api/governance-metrics/" + f.governanceId(), 2));
+    }
+
+    private static Arguments endpoint(String name, Function<Fixture, String> path, int statements) {
+        return Arguments.of(name, path, statements);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void statementCountDoesNotDependOnRowCount(String name, Function<Fixture, String> path, int expected) throws Exception {
+        Fixture one = createFixture(1);
+        Fixture many = createFixture(MANY);
+
+        assertThat(statementCount(one, path.apply(one))).as("statements with one row").isEqualTo(expected);
+        assertThat(statementCount(many, path.apply(many))).as("statements with %d rows", MANY).isEqualTo(expected);
+    }
+
+    private long statementCount(Fixture fixture, String path) throws Exception {
+        QueryCountHolder.clear();
+        mockMvc.perform(get(path).with(user(fixture.manager()).roles("manager")))
+            .andExpect(status().isOk());
+        long count = QueryCountHolder.getGrandTotal().getTotal();
+        QueryCountHolder.clear();
+        return count;
+    }
+
+    // Each row has its own submitter, so a per-row load of users would not be served from the session
+    private Fixture createFixture(int rows) {
+        long companyId = createCompany("Query Count");
+        String manager = createUser(companyId, "manager");
+        int year = LocalDate.now().getYear();
+        long emissionId = 0;
+        long socialId = 0;
+        long governanceId = 0;
+        for (int i = 0; i < rows; i++) {
+            long submitterId = userId(createUser(companyId, "representative"));
+            LocalDate start = LocalDate.of(year, 1 + i % 12, 1);
+            long emission = insert("INSERT INTO ghg_emissions (company_id, submitted_by_id, last_modified_by_id, status, "
+                    + "scope, category, start_date, end_date, quantity, unit, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, 'APPROVED', 'SCOPE_1', 'STATIONARY_COMBUSTION', ?, ?, 10, 'kWh', now(), now())",
+                companyId, submitterId, submitterId, start.atStartOfDay(), start.plusMonths(1).atStartOfDay());
+            long social = insert("INSERT INTO social_metrics (company_id, submitted_by, status, category, metric, value, "
+                    + "unit, start_date, end_date, created_at, updated_at) "
+                    + "VALUES (?, ?, 'APPROVED', 'Workforce', 'Headcount', 10, 'people', ?, ?, now(), now())",
+                companyId, submitterId, start, start.plusMonths(1));
+            long governance = insert("INSERT INTO governance_metrics (company_id, submitted_by, status, category, metric, "
+                    + "value, unit, start_date, end_date, created_at, updated_at) "
+                    + "VALUES (?, ?, 'APPROVED', 'Board', 'Independent directors', 3, 'people', ?, ?, now(), now())",
+                companyId, submitterId, start, start.plusMonths(1));
+            if (i == 0) {
+                emissionId = emission;
+                socialId = social;
+                governanceId = governance;
+            }
+        }
+        return new Fixture(companyId, manager, emissionId, socialId, governanceId);
+    }
+}
@@ -0,0 +1,182 @@
+package com.esgframework.controllers;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints declared as {@code ResponseEntity<StreamingResponseBody>}: their bodies stream, and their errors are
+ * the usual {@code {"error": ...}} JSON.
+ */
+class StreamingDownloadTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void rejectionReportStreamsAsCsv() throws Exception {
+        long companyId = createCompany("Rejections");
+        RequestPostProcessor representative = user(createUser(companyId, "representative")).roles("representative");
+        String csv = "Scope,Category,Start Date,End Date,Quantity,Unit\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-01,2024-01-31,100,kWh\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,someday,2024-02-29,100,kWh\n";
+        MvcResult upload = mockMvc.perform(multipart("/api/ghg-emissions/upload-csv")
+                .file(new MockMultipartFile("file", "emissions.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                .param("scope", "SCOPE_1")
+                .param("companyId", String.valueOf(companyId))
+                .with(representative))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rejectedRows").value(1))
+            .andReturn();
+        JsonNode response = objectMapper.readTree(upload.getResponse().getContentAsString());
+        String reportId = response.get("rejectionReportId").asText();
+
+        String report = streamed(get("/api/ghg-emissions/import-reports/{id}/rejections", reportId).with(representative))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(report.lines()).hasSize(2);
+        assertThat(report.lines().skip(1)).containsExactly("2,Start Date,Unrecognized date format,someday");
+    }
+
+    @Test
+    void missingRejectionReportIsNotFound() throws Exception {
+        long companyId = createCompany("Rejections");
+        streamed(get("/api/ghg-emissions/import-reports/{id}/rejections", "unknown")
+                .with(user(createUser(companyId, "representative")).roles("representative")))
+            .andExpect(status().isNotFound())
+            .andExpect(content().contentTypeCompatibleWith("application/json"))
+            .andExpect(jsonPath("$.error").isNotEmpty());
+    }
+
+    @Test
+    void exportStreamsEmissions() throws Exception {
+        long companyId = createCompany("Export");
+        String manager = createUser(companyId, "manager");
+        insert("INSERT INTO ghg_emissions (company_id, status, scope, category, start_date, end_date, quantity, unit, "
+                + "created_at, updated_at) VALUES (?, 'APPROVED', 'SCOPE_2', 'PURCHASED_ELECTRICITY', "
+                + "'2024-03-01', '2024-03-31', 250, 'kWh', now(), now())",
+            companyId);
+
+        String body = streamed(get("/api/ghg-emissions/export").param("format", "ndjson").with(user(manager).roles("manager")))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(1);
+        assertThat(objectMapper.readTree(body).get("quantity").asDouble()).isEqualTo(250);
+    }
+
+    @Test
+    void csvExportHasHeaderAndQuotedValues() throws Exception {
+        long companyId = createCompany("Export");
+        String manager = createUser(companyId, "manager");
+        long id = insert("INSERT INTO social_metrics (company_id, status, category, metric, value, unit, start_date, end_date, "
+                + "description, created_at, updated_at) VALUES (?, 'APPROVED', 'Workforce', 'Headcount', 42, 'people', "
+                + "'2024-01-01', '2024-12-31', 'Full-time, part-time', now(), now())",
+            companyId);
+
+        String body = streamed(get("/api/social-metrics/export").param("format", "csv").with(user(manager).roles("manager")))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body.lines().findFirst()).hasValue("id,subtype,category,metric,value,unit,startDate,endDate,description,"
+            + "location,department,documentationUrl,status,submittedByName,createdAt,updatedAt");
+        assertThat(body.lines().skip(1).findFirst()).hasValueSatisfying(line -> assertThat(line)
+            .startsWith(id + ",,Workforce,Headcount,42.0,people,2024-01-01,2024-12-31,\"Full-time, part-time\",,,,APPROVED,,"));
+    }
+
+    @Test
+    void unknownExportFormatIsBadRequest() throws Exception {
+        long companyId = createCompany("Export");
+        streamed(get("/api/social-metrics/export").param("format", "xml")
+                .with(user(createUser(companyId, "manager")).roles("manager")))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentTypeCompatibleWith("application/json"))
+            .andExpect(jsonPath("$.error").isNotEmpty());
+    }
+
+    @Test
+    void portfolioReportsEmissionsWithoutMixingUnits() throws Exception {
+        long companyId = insert("INSERT INTO companies (name, industry, status, created_at) "
+            + "VALUES ('Portfolio', 'portfolio-test', 'active', now())");
+        String emission = "INSERT INTO ghg_emissions (company_id, status, scope, category, start_date, end_date, quantity, "
+            + "unit, co2e, created_at, updated_at) VALUES (?, 'APPROVED', 'SCOPE_1', 'STATIONARY_COMBUSTION', ?, ?, ?, ?, ?, "
+            + "now(), now())";
+        insert(emission, companyId, LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31), 100.0, "kWh", 40.0);
+        insert(emission, companyId, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), 100.0, "kWh", 20.0);
+        insert(emission, companyId, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), 3.0, "t", 30.0);
+
+        String body = streamed(get("/api/companies/portfolio").param("industry", "portfolio-test")
+                .with(user("admin@example.com").roles("admin")))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        JsonNode portfolio = objectMapper.readTree(body);
+        JsonNode company = portfolio.get("companies").get(0);
+        assertThat(company.get("records").asLong()).isEqualTo(3);
+        assertThat(company.get("emissions").asDouble()).isEqualTo(90);
+        assertThat(company.has("quantity")).isFalse();
+        JsonNode first = company.get("years").get(0);
+        assertThat(first.get("year").asInt()).isEqualTo(2023);
+        assertThat(first.get("records").asLong()).isEqualTo(1);
+        assertThat(first.get("emissions").asDouble()).isEqualTo(40);
+        assertThat(first.get("previousEmissions").isNull()).isTrue();
+        assertThat(first.get("change").isNull()).isTrue();
+        // The kWh and t rows of 2024 add up as CO2e only
+        JsonNode latest = company.get("years").get(1);
+        assertThat(latest.get("year").asInt()).isEqualTo(2024);
+        assertThat(latest.get("records").asLong()).isEqualTo(2);
+        assertThat(latest.get("emissions").asDouble()).isEqualTo(50);
+        assertThat(latest.get("previousEmissions").asDouble()).isEqualTo(40);
+        assertThat(latest.get("change").asDouble()).isEqualTo(0.25);
+
+        JsonNode totals = portfolio.get("totals");
+        assertThat(totals.get("companies").asLong()).isEqualTo(1);
+        assertThat(totals.get("emissions").asDouble()).isEqualTo(90);
+        assertThat(totals.get("byYear").get(1).get("emissions").asDouble()).isEqualTo(50);
+        assertThat(totals.get("byYear").get(1).get("change").asDouble()).isEqualTo(0.25);
+    }
+
+    @Test
+    void invalidPortfolioYearsAreBadRequest() throws Exception {
+        streamed(get("/api/companies/portfolio").param("fromYear", "2024").param("toYear", "2023")
+                .with(user("admin@example.com").roles("admin")))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("fromYear must not be after toYear"));
+    }
+
+    // Error bodies stream too, so every response of these endpoints completes in an async dispatch
+    private ResultActions streamed(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
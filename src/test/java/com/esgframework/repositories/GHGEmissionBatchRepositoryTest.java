@@ -0,0 +1,146 @@
+package com.esgframework.repositories;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.dto.CSVImportOptions.DuplicateMode;
+import com.esgframework.models.Company;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.GHGEmission;
+import com.esgframework.repositories.GHGEmissionBatchRepository.WriteCounts;
+import com.esgframework.utils.EmissionFingerprints;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GHGEmissionBatchRepositoryTest extends PostgresIntegrationTest {
+
+    enum Write {
+        INSERT, COPY
+    }
+
+    @Autowired
+    private GHGEmissionBatchRepository batchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @ParameterizedTest
+    @EnumSource(Write.class)
+    void refusesToWriteOutsideATransaction(Write write) {
+        long companyId = createCompany("Batch");
+
+        assertThatThrownBy(() -> writer(write).apply(List.of(emission(companyId, 10)), DuplicateMode.SKIP))
+            .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(count(companyId)).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Write.class)
+    void skipsRowsThatWereImportedBefore(Write write) {
+        long companyId = createCompany("Batch");
+
+        WriteCounts first = inTransaction(write, List.of(emission(companyId, 10), emission(companyId, 20)), DuplicateMode.SKIP);
+        WriteCounts second = inTransaction(write, List.of(emission(companyId, 10), emission(companyId, 30)), DuplicateMode.SKIP);
+
+        assertThat(first).isEqualTo(new WriteCounts(2, 0));
+        assertThat(second).isEqualTo(new WriteCounts(1, 0));
+        assertThat(count(companyId)).isEqualTo(3);
+    }
+
+    @Test
+    void upsertOverwritesRowsThatWereImportedBefore() {
+        long companyId = createCompany("Batch");
+        GHGEmission reviewed = emission(companyId, 10);
+        inTransaction(Write.INSERT, List.of(reviewed), DuplicateMode.SKIP);
+        jdbcTemplate.update("UPDATE ghg_emissions SET status = 'APPROVED' WHERE company_id = ?", companyId);
+
+        GHGEmission reimported = emission(companyId, 10);
+        reimported.setNotes("corrected");
+        WriteCounts counts = inTransaction(Write.COPY, List.of(reimported), DuplicateMode.UPSERT);
+
+        assertThat(counts).isEqualTo(new WriteCounts(0, 1));
+        assertThat(jdbcTemplate.queryForMap("SELECT status, notes FROM ghg_emissions WHERE company_id = ?", companyId))
+            .containsEntry("status", "PENDING")
+            .containsEntry("notes", "corrected");
+    }
+
+    @Test
+    void writeModesStoreTheSameDates() throws Exception {
+        String csv = "Scope,Category,Start Date,End Date,Quantity,Unit\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-01,2024-01-31,10,kWh\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,2024-02-01,2024-02-29,20,kWh\n";
+        long batchCompanyId = createCompany("Batch");
+        long copyCompanyId = createCompany("Batch");
+
+        upload(batchCompanyId, csv, "batch");
+        upload(copyCompanyId, csv, "copy");
+
+        List<LocalDateTime> endDates = endDates(batchCompanyId);
+        assertThat(endDates).containsExactly(LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_000),
+            LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_000));
+        assertThat(endDates(copyCompanyId)).isEqualTo(endDates);
+    }
+
+    private void upload(long companyId, String csv, String writeMode) throws Exception {
+        mockMvc.perform(multipart("/api/ghg-emissions/upload-csv")
+                .file(new MockMultipartFile("file", "emissions.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                .param("scope", "SCOPE_1")
+                .param("companyId", String.valueOf(companyId))
+                .param("mode", "streaming")
+                .param("writeMode", writeMode)
+                .with(user(createUser(companyId, "representative")).roles("representative")))
+            .andExpect(status().isOk());
+    }
+
+    private List<LocalDateTime> endDates(long companyId) {
+        return jdbcTemplate.queryForList("SELECT end_date FROM ghg_emissions WHERE company_id = ? ORDER BY start_date",
+            LocalDateTime.class, companyId);
+    }
+
+    private WriteCounts inTransaction(Write write, List<GHGEmission> emissions, DuplicateMode duplicateMode) {
+        return new TransactionTemplate(transactionManager).execute(status -> writer(write).apply(emissions, duplicateMode));
+    }
+
+    private BiFunction<List<GHGEmission>, DuplicateMode, WriteCounts> writer(Write write) {
+        return write == Write.COPY ? batchRepository::copyAll : batchRepository::insertAll;
+    }
+
+    private int count(long companyId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM ghg_emissions WHERE company_id = ?", Integer.class, companyId);
+    }
+
+    private static GHGEmission emission(long companyId, double quantity) {
+        Company company = new Company();
+        company.setId(companyId);
+        GHGEmission emission = new GHGEmission();
+        emission.setCompany(company);
+        emission.setScope(EmissionScope.SCOPE_1);
+        emission.setCategory(EmissionCategory.STATIONARY_COMBUSTION);
+        emission.setStartDate(LocalDateTime.of(2024, 4, 1, 0, 0));
+        emission.setEndDate(LocalDateTime.of(2024, 4, 30, 0, 0));
+        emission.setQuantity(quantity);
+        emission.setUnit("kWh");
+        emission.setFingerprint(EmissionFingerprints.of(emission));
+        return emission;
+    }
+}
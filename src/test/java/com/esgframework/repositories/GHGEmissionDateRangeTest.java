@@ -0,0 +1,70 @@
+package com.esgframework.repositories;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.dto.GHGEmissionSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Start date ranges of the listings include both their ends, also when they span a year boundary.
+ */
+class GHGEmissionDateRangeTest extends PostgresIntegrationTest {
+
+    private static final LocalDateTime DECEMBER = LocalDateTime.of(2023, 12, 1, 0, 0);
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Autowired
+    private GHGEmissionRepository ghgEmissionRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rangesIncludeBothEnds() {
+        long companyId = createCompany("Range");
+        insertEmission(companyId, DECEMBER.minusSeconds(1), 1);
+        insertEmission(companyId, DECEMBER, 2);
+        insertEmission(companyId, JANUARY, 3);
+        insertEmission(companyId, FEBRUARY, 4);
+        insertEmission(companyId, FEBRUARY.plusSeconds(1), 5);
+
+        assertThat(ghgEmissionRepository.findSummariesByStartDate(companyId, DECEMBER, FEBRUARY, Pageable.unpaged()))
+            .extracting(GHGEmissionSummary::quantity).containsExactlyInAnyOrder(2.0, 3.0, 4.0);
+        assertThat(ghgEmissionRepository.findSummaryPageByStartDate(companyId, DECEMBER, JANUARY, Pageable.ofSize(10))
+            .getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void endpointIncludesTheEndDate() throws Exception {
+        long companyId = createCompany("Range");
+        insertEmission(companyId, JANUARY, 3);
+        insertEmission(companyId, FEBRUARY, 4);
+        insertEmission(companyId, FEBRUARY.plusSeconds(1), 5);
+
+        mockMvc.perform(get("/api/ghg-emissions/company/{id}/date-range", companyId)
+                .param("startDate", JANUARY.toString())
+                .param("endDate", FEBRUARY.toString())
+                .with(user(createUser(companyId, "manager")).roles("manager")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[*].quantity", containsInAnyOrder(3.0, 4.0)));
+    }
+
+    private void insertEmission(long companyId, LocalDateTime startDate, double quantity) {
+        insert("INSERT INTO ghg_emissions (company_id, status, scope, category, start_date, end_date, quantity, unit, "
+                + "created_at, updated_at) VALUES (?, 'PENDING', 'SCOPE_1', 'STATIONARY_COMBUSTION', ?, ?, ?, 'kWh', now(), now())",
+            companyId, startDate, startDate.plusDays(1), quantity);
+    }
+}
@@ -0,0 +1,122 @@
+package com.esgframework.repositories;
+
+import com.esgframework.PartitionedEmissionsSchema;
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.dto.GHGEmissionSummary;
+import com.esgframework.services.GHGEmissionPartitionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Yearly partitions of ghg_emissions. Each test uses a year of its own, since partitions are shared by all
+ * tests of the JVM.
+ */
+class GHGEmissionPartitionRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private GHGEmissionPartitionRepository partitionRepository;
+
+    @Autowired
+    private GHGEmissionPartitionService partitionService;
+
+    @Autowired
+    private GHGEmissionRepository ghgEmissionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void startupCreatesThePartitionsAhead() {
+        int year = Year.now().getValue();
+
+        assertThat(partitionRepository.isPartitioned()).isTrue();
+        assertThat(partitionRepository.findPartitions()).contains(GHGEmissionPartitionRepository.DEFAULT_PARTITION,
+            GHGEmissionPartitionRepository.partitionName(year), GHGEmissionPartitionRepository.partitionName(year + 1));
+    }
+
+    @Test
+    void maintenanceMovesRowsOutOfTheDefaultPartition() {
+        long companyId = createCompany("Partition");
+        insertEmission(companyId, LocalDateTime.of(2011, 3, 1, 0, 0), "2011-a");
+        insertEmission(companyId, LocalDateTime.of(2011, 12, 31, 23, 59), "2011-b");
+        assertThat(count(GHGEmissionPartitionRepository.DEFAULT_PARTITION, companyId)).isEqualTo(2);
+
+        partitionService.maintainPartitions();
+
+        assertThat(partitionRepository.findPartitions()).contains(GHGEmissionPartitionRepository.partitionName(2011));
+        assertThat(partitionRepository.findYearsInDefaultPartition()).doesNotContain(2011);
+        assertThat(count(GHGEmissionPartitionRepository.DEFAULT_PARTITION, companyId)).isZero();
+        assertThat(count(GHGEmissionPartitionRepository.partitionName(2011), companyId)).isEqualTo(2);
+        assertThat(ghgEmissionRepository.findSummariesByStartDate(companyId, LocalDateTime.of(2011, 1, 1, 0, 0),
+            LocalDateTime.of(2012, 1, 1, 0, 0), Pageable.unpaged())).hasSize(2);
+    }
+
+    @Test
+    void createdPartitionKeepsTheKeysOfTheTable() {
+        long companyId = createCompany("Partition");
+        LocalDateTime startDate = LocalDateTime.of(2012, 6, 1, 0, 0);
+        insertEmission(companyId, startDate, "2012-a");
+
+        Integer moved = new TransactionTemplate(transactionManager).execute(status ->
+            partitionRepository.createPartition(2012, 5000, true));
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(count(GHGEmissionPartitionRepository.partitionName(2012), companyId)).isEqualTo(1);
+        assertThatThrownBy(() -> insertEmission(companyId, startDate, "2012-a"))
+            .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void migrationKeepsEmissionsWithoutAStartDate() throws Exception {
+        JdbcTemplate database = new JdbcTemplate(createDatabase("v4_migration"));
+        database.execute("CREATE TABLE companies (id bigserial PRIMARY KEY)");
+        database.execute("CREATE TABLE users (id bigserial PRIMARY KEY)");
+        database.execute("CREATE TABLE ghg_emissions (id bigserial PRIMARY KEY, company_id bigint, status varchar(255), " +
+            "scope varchar(255), start_date timestamp, end_date timestamp, submitted_by_id bigint, " +
+            "last_modified_by_id bigint, fingerprint varchar(64), created_at timestamp, " +
+            "CONSTRAINT uk_ghg_fingerprint UNIQUE (fingerprint, start_date))");
+        database.execute("INSERT INTO companies DEFAULT VALUES");
+        database.update("INSERT INTO ghg_emissions (company_id, start_date, end_date, created_at) VALUES " +
+            "(1, '2019-05-01', '2019-05-31', '2020-01-10'), (1, NULL, '2018-12-31', '2020-01-10'), " +
+            "(1, NULL, NULL, '2020-01-10')");
+
+        database.execute(PartitionedEmissionsSchema.migration());
+
+        List<Map<String, Object>> rows = database.queryForList(
+            "SELECT id, start_date::date::text AS start_date FROM ghg_emissions ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("start_date")).containsExactly("2019-05-01", "2018-12-31", "2020-01-10");
+        assertThat(database.queryForObject("SELECT to_regclass('ghg_emissions_unpartitioned') IS NULL", Boolean.class))
+            .isTrue();
+        assertThat(database.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'ghg_emissions'::regclass", String.class))
+            .contains("ghg_emissions_y2018", "ghg_emissions_y2019", "ghg_emissions_y2020");
+        // New rows keep their ids after the ones moved over
+        database.execute("INSERT INTO ghg_emissions (company_id, start_date) VALUES (1, '2019-06-01')");
+        assertThat(database.queryForObject("SELECT max(id) FROM ghg_emissions", Long.class)).isEqualTo(4);
+    }
+
+    private void insertEmission(long companyId, LocalDateTime startDate, String fingerprint) {
+        insert("INSERT INTO ghg_emissions (company_id, status, scope, category, start_date, end_date, quantity, unit, "
+                + "fingerprint, created_at, updated_at) VALUES (?, 'PENDING', 'SCOPE_1', 'STATIONARY_COMBUSTION', ?, ?, 1, "
+                + "'kWh', ?, now(), now())",
+            companyId, startDate, startDate.plusDays(1), fingerprint + "-" + companyId);
+    }
+
+    private int count(String partition, long companyId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition + " WHERE company_id = ?", Integer.class,
+            companyId);
+    }
+}
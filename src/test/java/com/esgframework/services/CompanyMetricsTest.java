@@ -0,0 +1,81 @@
+package com.esgframework.services;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.models.GHGEmissionRollup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Company metrics read from the emission rollups: the buckets kept up to date by imports must equal the ones
+ * rebuilt from the emission rows.
+ */
+class CompanyMetricsTest extends PostgresIntegrationTest {
+
+    private static final String CSV = "Scope,Category,Start Date,End Date,Quantity,Unit\n"
+        + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-01,2024-01-31,100,kWh\n"
+        + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-05,2024-01-31,50,kWh\n"
+        + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-10,2024-01-31,20,litres\n"
+        + "SCOPE_1,MOBILE_COMBUSTION,2024-02-01,2024-02-29,7,t\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"batch", "copy"})
+    @SuppressWarnings("unchecked")
+    void quantitiesAreTotalledPerUnit(String writeMode) throws Exception {
+        long companyId = createCompany("Metrics");
+        mockMvc.perform(multipart("/api/ghg-emissions/upload-csv")
+                .file(new MockMultipartFile("file", "emissions.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8)))
+                .param("scope", "SCOPE_1")
+                .param("companyId", String.valueOf(companyId))
+                .param("mode", "streaming")
+                .param("writeMode", writeMode)
+                .with(user(createUser(companyId, "representative")).roles("representative")))
+            .andExpect(status().isOk());
+
+        Map<String, Object> metrics = companyService.getCompanyMetrics(companyId);
+
+        assertThat(metrics).containsEntry("totalRecords", 4L);
+        assertThat(metrics.get("quantityByUnit")).isEqualTo(Map.of("kWh", 150.0, "litres", 20.0, "t", 7.0));
+        Map<String, Map<String, Object>> byCategory = (Map<String, Map<String, Object>>) metrics.get("byCategory");
+        assertThat(byCategory.get("STATIONARY_COMBUSTION"))
+            .containsEntry("records", 3L)
+            .containsEntry("quantityByUnit", Map.of("kWh", 150.0, "litres", 20.0));
+
+        companyService.rebuildEmissionRollups(companyId);
+        Map<String, Object> rebuilt = companyService.getCompanyMetrics(companyId);
+        rebuilt.remove("scorecardRefreshedAt");
+        metrics.remove("scorecardRefreshedAt");
+        assertThat(rebuilt).isEqualTo(metrics);
+    }
+
+    // What lets Hibernate's schema update add the columns of V6 and V7 to a populated rollups table
+    @Test
+    void rollupColumnsAddedByMigrationsHaveDefaults() {
+        long companyId = createCompany("Metrics");
+        jdbcTemplate.update("INSERT INTO ghg_emission_rollups (company_id, scope, category, period_month, status, " +
+            "record_count, total_quantity) VALUES (?, 'SCOPE_1', 'STATIONARY_COMBUSTION', '2024-01-01', 'PENDING', 1, 5)",
+            companyId);
+
+        assertThat(jdbcTemplate.queryForMap("SELECT unit, total_co2e FROM ghg_emission_rollups WHERE company_id = ?",
+                companyId))
+            .containsEntry("unit", GHGEmissionRollup.UNSPECIFIED_UNIT)
+            .containsEntry("total_co2e", 0.0);
+    }
+}
@@ -0,0 +1,216 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.CategoryMappingStats;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.repositories.MetricCategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EmissionCategoryMapperTest {
+
+    /**
+     * Category values as they appear in uploads: the display names the old chain compared against, the enum
+     * names, other spellings of both, values that only a keyword recognizes, and unknown or blank values.
+     */
+    private static final List<String> VALUES = List.of(
+        "Stationary Combustion", "Mobile Combustion", "Process Emissions", "Fugitive Emissions",
+        "Purchased Electricity", "Purchased Heating", "Purchased Cooling", "Purchased Steam",
+        "Purchased Goods and Services", "Capital Goods", "Fuel and Energy Related Activities",
+        "Transportation and Distribution", "Waste Generated", "Business Travel", "Employee Commuting",
+        "Leased Assets", "Investments", "Downstream Transportation", "Processing of Sold Products",
+        "Use of Sold Products", "End of Life Treatment of Products", "Franchises",
+        "Solvent Consumption", "Solvent Recovery", "Solvent Loss",
+        "Reforestation", "Afforestation", "Soil Carbon Sequestration",
+        "stationary combustion", "MOBILE COMBUSTION", "  Purchased Electricity  ", "business travel",
+        "Diesel stationary boilers", "Fleet (mobile)", "Refrigerant fugitive leaks", "Grid electricity",
+        "District heating", "Air travel", "Employee commute", "Upstream distribution", "EOL", "Fuel purchased",
+        "Solvent recovery unit", "Soil", "Other", "n/a", "", "   ");
+
+    @Test
+    void mapperMatchesTheReplacedChainExceptForExactNames() {
+        EmissionCategoryMapper mapper = mapper();
+        Map<String, String> differences = new TreeMap<>();
+        List<String> values = new ArrayList<>(VALUES);
+        for (EmissionCategory category : EmissionCategory.values()) {
+            values.add(category.name());
+        }
+        for (EmissionScope scope : EmissionScope.values()) {
+            for (String value : values) {
+                EmissionCategory mapped = mapper.map(value, scope);
+                EmissionCategory legacy = legacyMap(value, scope);
+                if (mapped != legacy) {
+                    differences.put(scope + " " + value, legacy + " -> " + mapped);
+                }
+            }
+            assertThat(mapper.map(null, scope)).isEqualTo(legacyMap(null, scope));
+        }
+
+        // Exact names now win over the keyword order of the chain
+        assertThat(differences).isEqualTo(Map.of(
+            "SCOPE_3 Downstream Transportation", "TRANSPORTATION_DISTRIBUTION -> DOWNSTREAM_TRANSPORTATION",
+            "SCOPE_3 DOWNSTREAM_TRANSPORTATION", "TRANSPORTATION_DISTRIBUTION -> DOWNSTREAM_TRANSPORTATION",
+            "SCOPE_3 Use of Sold Products", "PROCESSING_SOLD_PRODUCTS -> USE_OF_SOLD_PRODUCTS",
+            "SCOPE_3 USE_OF_SOLD_PRODUCTS", "PROCESSING_SOLD_PRODUCTS -> USE_OF_SOLD_PRODUCTS"));
+    }
+
+    @Test
+    void statsCountEachUnknownValue() {
+        EmissionCategoryMapper mapper = mapper();
+        mapper.map("Stationary Combustion", EmissionScope.SCOPE_1);
+        mapper.map("Diesel stationary boilers", EmissionScope.SCOPE_1);
+        mapper.map("diesel  STATIONARY boilers", EmissionScope.SCOPE_1);
+        mapper.map("Other", EmissionScope.SCOPE_1);
+        mapper.map("Other", EmissionScope.SCOPE_2);
+
+        CategoryMappingStats stats = mapper.getStats();
+
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getKeywordMatches()).isEqualTo(2);
+        assertThat(stats.getDefaulted()).isEqualTo(2);
+        assertThat(stats.getUnmapped()).hasSize(3);
+        CategoryMappingStats.UnmappedValue first = stats.getUnmapped().get(0);
+        assertThat(first.getScope()).isEqualTo(EmissionScope.SCOPE_1);
+        assertThat(first.getValue()).isEqualTo("DIESEL_STATIONARY_BOILERS");
+        assertThat(first.getMappedTo()).isEqualTo(EmissionCategory.STATIONARY_COMBUSTION);
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(stats.getUnmapped()).extracting(CategoryMappingStats.UnmappedValue::getMappedTo)
+            .containsOnly(EmissionCategory.STATIONARY_COMBUSTION, EmissionCategory.PURCHASED_ELECTRICITY);
+    }
+
+    @Test
+    void unknownValuesKeptPerScopeAreCapped() {
+        EmissionCategoryMapper mapper = mapper();
+        for (int i = 0; i < 12_000; i++) {
+            assertThat(mapper.map("Stationary unit " + i, EmissionScope.SCOPE_1))
+                .isEqualTo(EmissionCategory.STATIONARY_COMBUSTION);
+        }
+
+        CategoryMappingStats stats = mapper.getStats();
+
+        assertThat(stats.getKeywordMatches()).isEqualTo(12_000);
+        assertThat(stats.getUnmapped()).hasSize(10_000);
+    }
+
+    private static EmissionCategoryMapper mapper() {
+        EmissionCategoryMapper mapper = new EmissionCategoryMapper();
+        ReflectionTestUtils.setField(mapper, "metricCategoryRepository", mock(MetricCategoryRepository.class));
+        ReflectionTestUtils.setField(mapper, "environment", new MockEnvironment());
+        mapper.init();
+        return mapper;
+    }
+
+    /**
+     * The if/else chain of the importer that {@link EmissionCategoryMapper} replaced, without its logging.
+     */
+    private static EmissionCategory legacyMap(String categoryStr, EmissionScope scope) {
+        if (categoryStr == null) {
+            return legacyDefault(scope);
+        }
+        String normalizedCategory = categoryStr.trim().toUpperCase(Locale.ROOT).replace(" ", "_");
+        switch (scope) {
+            case SCOPE_1:
+                if (categoryStr.equalsIgnoreCase("Stationary Combustion") || normalizedCategory.contains("STATIONARY")) {
+                    return EmissionCategory.STATIONARY_COMBUSTION;
+                } else if (categoryStr.equalsIgnoreCase("Mobile Combustion") || normalizedCategory.contains("MOBILE")) {
+                    return EmissionCategory.MOBILE_COMBUSTION;
+                } else if (categoryStr.equalsIgnoreCase("Process Emissions") || normalizedCategory.contains("PROCESS")) {
+                    return EmissionCategory.PROCESS_EMISSIONS;
+                } else if (categoryStr.equalsIgnoreCase("Fugitive Emissions") || normalizedCategory.contains("FUGITIVE")) {
+                    return EmissionCategory.FUGITIVE_EMISSIONS;
+                }
+                return legacyDefault(scope);
+            case SCOPE_2:
+                if (categoryStr.equalsIgnoreCase("Purchased Electricity") || normalizedCategory.contains("ELECTRICITY")) {
+                    return EmissionCategory.PURCHASED_ELECTRICITY;
+                } else if (categoryStr.equalsIgnoreCase("Purchased Heating") || normalizedCategory.contains("HEATING")) {
+                    return EmissionCategory.PURCHASED_HEATING;
+                } else if (categoryStr.equalsIgnoreCase("Purchased Cooling") || normalizedCategory.contains("COOLING")) {
+                    return EmissionCategory.PURCHASED_COOLING;
+                } else if (categoryStr.equalsIgnoreCase("Purchased Steam") || normalizedCategory.contains("STEAM")) {
+                    return EmissionCategory.PURCHASED_STEAM;
+                }
+                return legacyDefault(scope);
+            case SCOPE_3:
+                if (categoryStr.equalsIgnoreCase("Purchased Goods and Services")
+                        || normalizedCategory.contains("PURCHASED_GOODS") || normalizedCategory.contains("GOODS_AND_SERVICES")) {
+                    return EmissionCategory.PURCHASED_GOODS_SERVICES;
+                } else if (categoryStr.equalsIgnoreCase("Capital Goods") || normalizedCategory.contains("CAPITAL")) {
+                    return EmissionCategory.CAPITAL_GOODS;
+                } else if (categoryStr.equalsIgnoreCase("Fuel and Energy Related Activities")
+                        || normalizedCategory.contains("FUEL") || normalizedCategory.contains("ENERGY_RELATED")) {
+                    return EmissionCategory.FUEL_ENERGY_ACTIVITIES;
+                } else if (categoryStr.equalsIgnoreCase("Transportation and Distribution")
+                        || normalizedCategory.contains("TRANSPORTATION") || normalizedCategory.contains("DISTRIBUTION")) {
+                    return EmissionCategory.TRANSPORTATION_DISTRIBUTION;
+                } else if (categoryStr.equalsIgnoreCase("Waste Generated") || normalizedCategory.contains("WASTE")) {
+                    return EmissionCategory.WASTE_GENERATED;
+                } else if (categoryStr.equalsIgnoreCase("Business Travel")
+                        || normalizedCategory.contains("TRAVEL") || normalizedCategory.contains("BUSINESS_TRAVEL")) {
+                    return EmissionCategory.BUSINESS_TRAVEL;
+                } else if (categoryStr.equalsIgnoreCase("Employee Commuting")
+                        || normalizedCategory.contains("COMMUTING") || normalizedCategory.contains("EMPLOYEE")) {
+                    return EmissionCategory.EMPLOYEE_COMMUTING;
+                } else if (categoryStr.equalsIgnoreCase("Leased Assets")
+                        || normalizedCategory.contains("LEASED") || normalizedCategory.contains("ASSETS")) {
+                    return EmissionCategory.LEASED_ASSETS;
+                } else if (categoryStr.equalsIgnoreCase("Investments") || normalizedCategory.contains("INVESTMENT")) {
+                    return EmissionCategory.INVESTMENTS;
+                } else if (categoryStr.equalsIgnoreCase("Downstream Transportation") || normalizedCategory.contains("DOWNSTREAM")) {
+                    return EmissionCategory.DOWNSTREAM_TRANSPORTATION;
+                } else if (categoryStr.equalsIgnoreCase("Processing of Sold Products")
+                        || normalizedCategory.contains("PROCESSING") || normalizedCategory.contains("SOLD_PRODUCTS")) {
+                    return EmissionCategory.PROCESSING_SOLD_PRODUCTS;
+                } else if (categoryStr.equalsIgnoreCase("Use of Sold Products") || normalizedCategory.contains("USE_OF")) {
+                    return EmissionCategory.USE_OF_SOLD_PRODUCTS;
+                } else if (categoryStr.equalsIgnoreCase("End of Life Treatment of Products")
+                        || normalizedCategory.contains("END_OF_LIFE") || normalizedCategory.contains("EOL")) {
+                    return EmissionCategory.END_OF_LIFE_PRODUCTS;
+                } else if (categoryStr.equalsIgnoreCase("Franchises") || normalizedCategory.contains("FRANCHISE")) {
+                    return EmissionCategory.FRANCHISES;
+                }
+                return legacyDefault(scope);
+            case SOLVENT:
+                if (categoryStr.equalsIgnoreCase("Solvent Consumption") || normalizedCategory.contains("CONSUMPTION")) {
+                    return EmissionCategory.SOLVENT_CONSUMPTION;
+                } else if (categoryStr.equalsIgnoreCase("Solvent Recovery") || normalizedCategory.contains("RECOVERY")) {
+                    return EmissionCategory.SOLVENT_RECOVERY;
+                } else if (categoryStr.equalsIgnoreCase("Solvent Loss") || normalizedCategory.contains("LOSS")) {
+                    return EmissionCategory.SOLVENT_LOSS;
+                }
+                return legacyDefault(scope);
+            case SINK:
+                if (categoryStr.equalsIgnoreCase("Reforestation") || normalizedCategory.contains("REFOREST")) {
+                    return EmissionCategory.REFORESTATION;
+                } else if (categoryStr.equalsIgnoreCase("Afforestation") || normalizedCategory.contains("AFFOREST")) {
+                    return EmissionCategory.AFFORESTATION;
+                } else if (categoryStr.equalsIgnoreCase("Soil Carbon Sequestration")
+                        || normalizedCategory.contains("SOIL") || normalizedCategory.contains("SEQUESTRATION")) {
+                    return EmissionCategory.SOIL_CARBON_SEQUESTRATION;
+                }
+                return legacyDefault(scope);
+            default:
+                throw new IllegalArgumentException("Unknown scope " + scope);
+        }
+    }
+
+    private static EmissionCategory legacyDefault(EmissionScope scope) {
+        return switch (scope) {
+            case SCOPE_1 -> EmissionCategory.STATIONARY_COMBUSTION;
+            case SCOPE_2 -> EmissionCategory.PURCHASED_ELECTRICITY;
+            case SCOPE_3 -> EmissionCategory.TRANSPORTATION_DISTRIBUTION;
+            case SOLVENT -> EmissionCategory.SOLVENT_CONSUMPTION;
+            case SINK -> EmissionCategory.REFORESTATION;
+        };
+    }
+}
@@ -0,0 +1,198 @@
+package com.esgframework.services;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.dto.EmissionFactorRecalculationStatus;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionFactor;
+import com.esgframework.models.GHGEmissionRollup;
+import com.esgframework.repositories.GHGEmissionCo2eRepository;
+import com.esgframework.repositories.GHGEmissionCo2eRepository.Filter;
+import com.esgframework.repositories.GHGEmissionRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The CO2e totals of the emission rollups follow every change of the stored CO2e: imports, re-imports that
+ * overwrite rows, status changes and recalculations after the factor catalog changed. After each step the
+ * buckets must equal the ones rebuilt from the emission rows. Every test uses a unit of its own, since the
+ * factor catalog is shared.
+ */
+class EmissionRollupCo2eTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private EmissionFactorService emissionFactorService;
+
+    @Autowired
+    private EmissionFactorRecalculationService recalculationService;
+
+    @Autowired
+    private GHGEmissionService ghgEmissionService;
+
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+
+    @Autowired
+    private GHGEmissionCo2eRepository co2eRepository;
+
+    @Autowired
+    private EmissionFactorCatalog emissionFactorCatalog;
+
+    @Test
+    void recalculationMovesTheCo2eTotals() throws Exception {
+        long companyId = createCompany("Co2e");
+        upload(companyId, csv("MWh", 10, 30), "skip");
+        assertThat(companyService.getCompanyMetrics(companyId)).containsEntry("totalCo2e", 0.0);
+
+        Map<String, Object> created = emissionFactorService.createFactor(factor("MWh", 2.0));
+        awaitCompletion((EmissionFactorRecalculationStatus) created.get("recalculation"));
+        assertThat(companyService.getCompanyMetrics(companyId)).containsEntry("totalCo2e", 80.0);
+        assertMatchesRebuild(companyId);
+
+        EmissionFactor saved = (EmissionFactor) created.get("factor");
+        Map<String, Object> updated = emissionFactorService.updateFactor(saved.getId(), factor("MWh", 0.5));
+        awaitCompletion((EmissionFactorRecalculationStatus) updated.get("recalculation"));
+        assertThat(companyService.getCompanyMetrics(companyId)).containsEntry("totalCo2e", 20.0);
+        assertMatchesRebuild(companyId);
+    }
+
+    @Test
+    void statusChangeMovesTheCo2e() throws Exception {
+        long companyId = createCompany("Co2e");
+        awaitCompletion((EmissionFactorRecalculationStatus) emissionFactorService.createFactor(factor("GJ", 3.0))
+            .get("recalculation"));
+        upload(companyId, csv("GJ", 10, 30), "skip");
+        long emissionId = jdbcTemplate.queryForObject(
+            "SELECT id FROM ghg_emissions WHERE company_id = ? AND quantity = 10", Long.class, companyId);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            createUser(companyId, "manager"), null, List.of(new SimpleGrantedAuthority("ROLE_manager"))));
+        try {
+            ghgEmissionService.updateEmissionStatus(emissionId, "APPROVED");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> byStatus =
+            (Map<String, Map<String, Object>>) companyService.getCompanyMetrics(companyId).get("byStatus");
+        assertThat(byStatus.get("APPROVED")).containsEntry("co2e", 30.0);
+        assertThat(byStatus.get("PENDING")).containsEntry("co2e", 90.0);
+        assertMatchesRebuild(companyId);
+    }
+
+    @Test
+    void upsertReplacesTheCo2eOfOverwrittenRows() throws Exception {
+        long companyId = createCompany("Co2e");
+        awaitCompletion((EmissionFactorRecalculationStatus) emissionFactorService.createFactor(factor("therm", 2.0))
+            .get("recalculation"));
+        upload(companyId, csv("therm", 10, 30), "skip");
+        // As if the rows had been computed with an older factor
+        jdbcTemplate.update("UPDATE ghg_emissions SET co2e = 1, status = 'APPROVED' WHERE company_id = ?", companyId);
+        companyService.rebuildEmissionRollups(companyId);
+
+        // The same rows in another file, which is not skipped as a whole
+        upload(companyId, csv("therm", 10, 30) + "SCOPE_1,STATIONARY_COMBUSTION,2024-03-01,2024-03-31,5,therm\n", "upsert");
+
+        Map<String, Object> metrics = companyService.getCompanyMetrics(companyId);
+        assertThat(metrics).containsEntry("totalCo2e", 90.0);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> byStatus = (Map<String, Object>) metrics.get("byStatus");
+        assertThat(byStatus).containsOnlyKeys("PENDING");
+        assertMatchesRebuild(companyId);
+    }
+
+    @Test
+    void backfillSkipsEmissionsWithoutAFactorUntilTheCatalogChanges() throws Exception {
+        long companyId = createCompany("Co2e");
+        upload(companyId, csv("bbl", 10, 30), "skip");
+        Filter missing = new Filter(null, companyId, true);
+        assertThat(co2eRepository.count(missing)).isEqualTo(2);
+
+        awaitCompletion(recalculationService.submit(missing, "Backfill"));
+        assertThat(co2eRepository.count(missing)).isZero();
+        assertThat(companyService.getCompanyMetrics(companyId)).containsEntry("totalCo2e", 0.0);
+
+        // A factor added behind the catalog's back, as before a restart
+        insert("INSERT INTO emission_factors (category, unit, factor, updated_at) "
+            + "VALUES ('STATIONARY_COMBUSTION', 'bbl', 2, now())");
+        assertThat(co2eRepository.count(missing)).isEqualTo(2);
+
+        emissionFactorCatalog.reload();
+        awaitCompletion(recalculationService.submit(missing, "Backfill"));
+        assertThat(co2eRepository.count(missing)).isZero();
+        assertThat(companyService.getCompanyMetrics(companyId)).containsEntry("totalCo2e", 80.0);
+        assertMatchesRebuild(companyId);
+    }
+
+    private void assertMatchesRebuild(long companyId) {
+        List<GHGEmissionRollup> maintained = buckets(companyId);
+        companyService.rebuildEmissionRollups(companyId);
+        assertThat(maintained)
+            .usingRecursiveFieldByFieldElementComparatorIgnoringFields("id", "updatedAt")
+            .containsExactlyElementsOf(buckets(companyId));
+    }
+
+    private List<GHGEmissionRollup> buckets(long companyId) {
+        return rollupRepository.findByCompanyId(companyId).stream()
+            .sorted(Comparator.comparing(GHGEmissionRollup::getPeriodMonth).thenComparing(GHGEmissionRollup::getStatus))
+            .toList();
+    }
+
+    private void awaitCompletion(EmissionFactorRecalculationStatus status) throws InterruptedException {
+        for (int i = 0; i < 300 && !isFinished(status); i++) {
+            Thread.sleep(100);
+            status = recalculationService.getJobStatus(status.jobId());
+        }
+        assertThat(status.state()).isEqualTo("COMPLETED");
+    }
+
+    private static boolean isFinished(EmissionFactorRecalculationStatus status) {
+        return !status.state().equals("QUEUED") && !status.state().equals("RUNNING");
+    }
+
+    private void upload(long companyId, String csv, String duplicates) throws Exception {
+        mockMvc.perform(multipart("/api/ghg-emissions/upload-csv")
+                .file(new MockMultipartFile("file", "emissions.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                .param("scope", "SCOPE_1")
+                .param("companyId", String.valueOf(companyId))
+                .param("mode", "streaming")
+                .param("duplicates", duplicates)
+                .with(user(createUser(companyId, "representative")).roles("representative")))
+            .andExpect(status().isOk());
+    }
+
+    private static String csv(String unit, double january, double february) {
+        return "Scope,Category,Start Date,End Date,Quantity,Unit\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,2024-01-01,2024-01-31," + january + "," + unit + "\n"
+            + "SCOPE_1,STATIONARY_COMBUSTION,2024-02-01,2024-02-29," + february + "," + unit + "\n";
+    }
+
+    private static EmissionFactor factor(String unit, double value) {
+        EmissionFactor factor = new EmissionFactor();
+        factor.setCategory(EmissionCategory.STATIONARY_COMBUSTION);
+        factor.setUnit(unit);
+        factor.setFactor(value);
+        return factor;
+    }
+}
@@ -0,0 +1,84 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.GHGEmissionExportRow;
+import com.esgframework.models.EmissionCategory;
+import com.esgframework.models.EmissionScope;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.repositories.GHGEmissionRepository;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.LocalInputFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+
+    private static final Set<SubmissionStatus> STATUSES = Set.of(SubmissionStatus.APPROVED);
+
+    @TempDir
+    Path directory;
+
+    private final GHGEmissionRepository ghgEmissionRepository = mock(GHGEmissionRepository.class);
+
+    @Test
+    void parquetExportIsReadable() throws Exception {
+        when(ghgEmissionRepository.streamExportRows(any(), any())).thenReturn(Stream.of(row(1), row(2)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service().exportEmissions(1L, STATUSES, ExportService.Format.PARQUET, out)).isEqualTo(2);
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(save(out)))) {
+            assertThat(reader.getRecordCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void failedParquetExportIsNotAReadableFile() throws Exception {
+        // The cursor fails on the second row
+        when(ghgEmissionRepository.streamExportRows(any(), any())).thenReturn(Stream.of(1L, 2L).map(id -> {
+            if (id == 2) {
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            }
+            return row(id);
+        }));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> service().exportEmissions(1L, STATUSES, ExportService.Format.PARQUET, out))
+            .isInstanceOf(QueryTimeoutException.class);
+
+        Path file = save(out);
+        assertThatThrownBy(() -> ParquetFileReader.open(new LocalInputFile(file)).close()).isNotNull();
+    }
+
+    private ExportService service() {
+        ExportService service = new ExportService();
+        ReflectionTestUtils.setField(service, "ghgEmissionRepository", ghgEmissionRepository);
+        ReflectionTestUtils.setField(service, "parquetRowGroupMegabytes", 1L);
+        return service;
+    }
+
+    private Path save(ByteArrayOutputStream out) throws Exception {
+        return Files.write(directory.resolve("export.parquet"), out.toByteArray());
+    }
+
+    private static GHGEmissionExportRow row(long id) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return new GHGEmissionExportRow(id, EmissionScope.SCOPE_1, EmissionCategory.STATIONARY_COMBUSTION, null, start,
+            start.plusDays(30), 10.0, "kWh", null, null, null, null, null, 2.0, null, SubmissionStatus.APPROVED,
+            "Reporter", start, start);
+    }
+}
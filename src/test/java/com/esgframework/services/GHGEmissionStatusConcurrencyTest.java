@@ -0,0 +1,70 @@
+package com.esgframework.services;
+
+import com.esgframework.PostgresIntegrationTest;
+import com.esgframework.models.GHGEmissionRollup;
+import com.esgframework.repositories.GHGEmissionRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GHGEmissionStatusConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int REVIEWERS = 8;
+
+    @Autowired
+    private GHGEmissionService ghgEmissionService;
+
+    @Autowired
+    private GHGEmissionRollupRepository rollupRepository;
+
+    @Test
+    void concurrentReviewsMoveTheEmissionBetweenBucketsOnce() throws Exception {
+        long companyId = createCompany("Review");
+        String manager = createUser(companyId, "manager");
+        long emissionId = insert("INSERT INTO ghg_emissions (company_id, status, scope, category, start_date, end_date, "
+                + "quantity, unit, created_at, updated_at) VALUES (?, 'PENDING', 'SCOPE_1', 'STATIONARY_COMBUSTION', "
+                + "'2024-05-01', '2024-05-31', 40, 'kWh', now(), now())",
+            companyId);
+        rollupRepository.rebuild(companyId);
+
+        // Half approve and half deny, all released at once; each review must see the status the previous one left
+        ExecutorService executor = Executors.newFixedThreadPool(REVIEWERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> reviews = new ArrayList<>();
+        try {
+            for (int i = 0; i < REVIEWERS; i++) {
+                String status = i % 2 == 0 ? "APPROVED" : "DENIED";
+                reviews.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        manager, null, List.of(new SimpleGrantedAuthority("ROLE_manager"))));
+                    start.await();
+                    return ghgEmissionService.updateEmissionStatus(emissionId, status);
+                }));
+            }
+            start.countDown();
+            for (Future<?> review : reviews) {
+                review.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        String status = jdbcTemplate.queryForObject("SELECT status FROM ghg_emissions WHERE id = ?", String.class, emissionId);
+        List<GHGEmissionRollup> buckets = rollupRepository.findByCompanyId(companyId);
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).getStatus().name()).isEqualTo(status);
+        assertThat(buckets.get(0).getRecordCount()).isEqualTo(1);
+        assertThat(buckets.get(0).getTotalQuantity()).isEqualTo(40);
+    }
+}
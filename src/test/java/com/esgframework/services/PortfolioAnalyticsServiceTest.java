@@ -0,0 +1,57 @@
+package com.esgframework.services;
+
+import com.esgframework.dto.PortfolioYear;
+import com.esgframework.models.SubmissionStatus;
+import com.esgframework.repositories.PortfolioAnalyticsRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class PortfolioAnalyticsServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void failureLeavesTheBodyUnterminated() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> service(new FailingRepository())
+                .writePortfolio(Set.of(SubmissionStatus.APPROVED), null, null, null, out))
+            .isInstanceOf(QueryTimeoutException.class);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).contains("\"companyId\":1").doesNotContain("totals");
+        assertThatThrownBy(() -> objectMapper.readTree(body)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    private PortfolioAnalyticsService service(PortfolioAnalyticsRepository repository) {
+        PortfolioAnalyticsService service = new PortfolioAnalyticsService();
+        ReflectionTestUtils.setField(service, "portfolioRepository", repository);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        return service;
+    }
+
+    // Returns the first company, then fails as a query cut off by the database would
+    private static final class FailingRepository extends PortfolioAnalyticsRepository {
+        @Override
+        public void forEachCompanyYear(Collection<SubmissionStatus> statuses, Integer fromYear, Integer toYear,
+                                       String industry, Consumer<PortfolioYear> consumer) {
+            consumer.accept(new PortfolioYear(1, "First", "energy", 2024, 2, 30.0, null, 2, 30.0));
+            throw new QueryTimeoutException("canceling statement due to statement timeout");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.esgframework.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per date column value of {@link CSVDateParser} against the formatter chain it replaced
+ * ({@link LegacyDateParsing}), for files in each supported layout. Every twentieth value is malformed, as
+ * in a file with some bad rows. Not run by the build; after {@code mvn test-compile}:
+ * <pre>
+ * mvn -q exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main CSVDateParserBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVDateParserBenchmark {
+
+    private static final int VALUES = 10_000;
+
+    @Param({"yyyy-MM-dd", "MM/dd/yyyy", "dd/MM/yyyy", "dd-MM-yyyy"})
+    public String layout;
+
+    private String[] values;
+
+    private CSVDateParser detected;
+
+    @Setup
+    public void setUp() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(layout);
+        values = new String[VALUES];
+        LocalDate day = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = i % 20 == 19 ? "n/a" : day.plusDays(i % 1500).format(formatter);
+        }
+        // As the importer does: detected once per file from its first rows
+        detected = CSVDateParser.detect(Arrays.asList(values).subList(0, 100));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void formatterChain(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(LegacyDateParsing.parse(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void detectedLayout(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(detected.parse(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void defaultParser(Blackhole blackhole) {
+        CSVDateParser parser = CSVDateParser.defaultParser();
+        for (String value : values) {
+            blackhole.consume(parser.parse(value));
+        }
+    }
+}
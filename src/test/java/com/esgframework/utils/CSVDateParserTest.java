@@ -0,0 +1,114 @@
+package com.esgframework.utils;
+
+import com.esgframework.utils.CSVDateParser.DateLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CSVDateParserTest {
+
+    /**
+     * Values of every layout, ambiguous and not, past the end of the month, unpadded and malformed.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2024-03-07", " 2024-03-07 ", "03/07/2024", "13/07/2024", "07/13/2024", "07-03-2024", "31-12-2023",
+        "2024-02-29", "2023-02-29", "2024-02-30", "2024-02-31", "2024-04-31", "2024-04-32", "02/30/2024",
+        "30/02/2024", "31/04/2023", "31-06-2024", "2024-13-01", "2024-00-10", "2024-01-00", "13/13/2024",
+        "2024-3-7", "2024-03-7", "2024-2-30", "1900-1-1", "1901-1-1", "2024-1-32", "12345-01-01",
+        "0000-01-01", "01/01/0000", "01/02/12345", "2024/03/07", "2024.03.07", "07.03.2024", "20240307",
+        "2024-03", "someday", "-", "--", "2024--07", "2024-03-07T00:00", "1e3-01-01", ""
+    })
+    void defaultParserMatchesTheFormatterChain(String value) {
+        assertThat(CSVDateParser.defaultParser().parse(value)).isEqualTo(LegacyDateParsing.parse(value));
+    }
+
+    @Test
+    void defaultParserMatchesTheFormatterChainOnEveryDayOfALeapYear() {
+        for (LocalDate day = LocalDate.of(2024, 1, 1); day.getYear() == 2024; day = day.plusDays(1)) {
+            for (DateTimeFormatter formatter : LegacyDateParsing.FORMATTERS) {
+                String value = day.format(formatter);
+                assertThat(CSVDateParser.defaultParser().parse(value)).as(value).isEqualTo(LegacyDateParsing.parse(value));
+            }
+        }
+    }
+
+    /**
+     * The fallback split on dashes with {@code String.split}, which drops trailing empty parts, and read them with
+     * {@code Integer.parseInt}, which takes a sign and non-ASCII digits. Such values are rejected now.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-3-7-", "+2024-03-07", "2024-+3-07", "２０２４-03-07"})
+    void valuesTheFallbackAcceptedByAccidentAreNull(String value) {
+        assertThat(LegacyDateParsing.parse(value)).isEqualTo(LocalDate.of(2024, 3, 7));
+        assertThat(CSVDateParser.defaultParser().parse(value)).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "2024-02-30, 2024-02-29",
+        "2023-02-31, 2023-02-28",
+        "04/31/2024, 2024-04-30",
+        "31/09/2024, 2024-09-30",
+        "29-02-2023, 2023-02-28"
+    })
+    void dayPastTheEndOfTheMonthResolvesToItsLastDay(String value, LocalDate expected) {
+        assertThat(CSVDateParser.defaultParser().parse(value)).isEqualTo(expected);
+    }
+
+    @Test
+    void detectsTheLayoutThatParsesMostSamples() {
+        CSVDateParser parser = CSVDateParser.detect(List.of("01/02/2024", "25/02/2024", "26/02/2024"));
+
+        assertThat(parser.getPrimaryLayout()).isEqualTo(DateLayout.DAY_MONTH_YEAR);
+        assertThat(parser.parse("01/02/2024")).isEqualTo(LocalDate.of(2024, 2, 1));
+    }
+
+    @Test
+    void tieGoesToTheEarlierLayout() {
+        CSVDateParser parser = CSVDateParser.detect(Arrays.asList("01/02/2024", null, " 03/04/2024 "));
+
+        assertThat(parser.getPrimaryLayout()).isEqualTo(DateLayout.MONTH_DAY_YEAR);
+        assertThat(parser.parse("01/02/2024")).isEqualTo(LocalDate.of(2024, 1, 2));
+    }
+
+    @Test
+    void samplesWithoutAnyDateKeepTheDefaultOrder() {
+        assertThat(CSVDateParser.detect(List.of("someday", "")).getPrimaryLayout()).isEqualTo(DateLayout.ISO_DATE);
+        assertThat(CSVDateParser.detect(List.of()).getPrimaryLayout()).isEqualTo(DateLayout.ISO_DATE);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "2024-03-07, 2024-03-07",
+        "25/12/2024, 2024-12-25",
+        "07-03-2024, 2024-03-07",
+        "2024-3-7, 2024-03-07"
+    })
+    void valuesOfOtherLayoutsFallBack(String value, LocalDate expected) {
+        CSVDateParser parser = CSVDateParser.detect(List.of("13/01/2024"));
+
+        assertThat(parser.getPrimaryLayout()).isEqualTo(DateLayout.DAY_MONTH_YEAR);
+        assertThat(parser.parse(value)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"someday", "2024-13-01", "32/01/2024", "2024-03", "1900-1-1", " "})
+    void invalidValuesAreNull(String value) {
+        assertThat(CSVDateParser.detect(List.of("13/01/2024")).parse(value)).isNull();
+        assertThat(CSVDateParser.defaultParser().parse(value)).isNull();
+    }
+
+    @Test
+    void nullIsNull() {
+        assertThat(CSVDateParser.defaultParser().parse(null)).isNull();
+    }
+}
@@ -0,0 +1,53 @@
+package com.esgframework.utils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The per-row date parsing the importer used before {@link CSVDateParser}, without its logging: each value
+ * is tried against a chain of formatters, then split on dashes. Kept as the reference that the parser is
+ * tested and benchmarked against.
+ */
+final class LegacyDateParsing {
+
+    static final DateTimeFormatter[] FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("dd-MM-yyyy")
+    };
+
+    private LegacyDateParsing() {
+    }
+
+    static LocalDate parse(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            return null;
+        }
+        dateStr = dateStr.trim();
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            try {
+                return LocalDate.parse(dateStr, formatter);
+            } catch (DateTimeParseException e) {
+                // Try next format
+            }
+        }
+        try {
+            if (dateStr.contains("-")) {
+                String[] parts = dateStr.split("-");
+                if (parts.length == 3) {
+                    int year = Integer.parseInt(parts[0]);
+                    int month = Integer.parseInt(parts[1]);
+                    int day = Integer.parseInt(parts[2]);
+                    if (year > 1900 && month >= 1 && month <= 12 && day >= 1 && day <= 31) {
+                        return LocalDate.of(year, month, day);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Unparseable
+        }
+        return null;
+    }
+}
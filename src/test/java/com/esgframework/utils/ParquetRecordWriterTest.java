@@ -0,0 +1,119 @@
+package com.esgframework.utils;
+
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParquetRecordWriterTest {
+
+    enum Status {
+        APPROVED, DENIED
+    }
+
+    record Row(Long id, Integer year, Double value, Boolean flag, String name, Status status, LocalDate day,
+               LocalDateTime at) {
+    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesOneOptionalColumnPerComponent() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        Path file = write(new Row(7L, 2024, 1.5, true, "Diesel", Status.APPROVED, LocalDate.of(2024, 3, 1), at),
+            new Row(8L, null, null, null, null, null, null, null));
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertThat(schema.getFieldCount()).isEqualTo(8);
+            assertThat(schema.getType("id").asPrimitiveType().getPrimitiveTypeName()).isEqualTo(PrimitiveTypeName.INT64);
+            assertThat(schema.getType("status").getLogicalTypeAnnotation()).isEqualTo(LogicalTypeAnnotation.enumType());
+            assertThat(schema.getType("day").getLogicalTypeAnnotation()).isEqualTo(LogicalTypeAnnotation.dateType());
+            assertThat(schema.getFields()).allMatch(field -> field.isRepetition(Repetition.OPTIONAL));
+            assertThat(reader.getRecordCount()).isEqualTo(2);
+
+            PageReadStore rowGroup = reader.readNextRowGroup();
+            RecordReader<Group> records = new ColumnIOFactory().getColumnIO(schema)
+                .getRecordReader(rowGroup, new GroupRecordConverter(schema));
+            Group first = records.read();
+            assertThat(first.getLong("id", 0)).isEqualTo(7);
+            assertThat(first.getInteger("year", 0)).isEqualTo(2024);
+            assertThat(first.getDouble("value", 0)).isEqualTo(1.5);
+            assertThat(first.getBoolean("flag", 0)).isTrue();
+            assertThat(first.getString("name", 0)).isEqualTo("Diesel");
+            assertThat(first.getString("status", 0)).isEqualTo("APPROVED");
+            assertThat(first.getInteger("day", 0)).isEqualTo((int) LocalDate.of(2024, 3, 1).toEpochDay());
+            assertThat(first.getLong("at", 0)).isEqualTo(at.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + 123_456);
+
+            Group second = records.read();
+            assertThat(second.getLong("id", 0)).isEqualTo(8);
+            assertThat(second.getFieldRepetitionCount("name")).isZero();
+            assertThat(second.getFieldRepetitionCount("at")).isZero();
+        }
+    }
+
+    @Test
+    void leavesTheStreamOpen() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter<Row> writer = new ParquetRecordWriter<>(Row.class, out, 1 << 20)) {
+            writer.write(new Row(1L, null, null, null, null, null, null, null));
+        }
+        out.write('!');
+
+        byte[] bytes = out.toByteArray();
+        assertThat(new String(bytes, 0, 4)).isEqualTo("PAR1");
+        assertThat(bytes[bytes.length - 1]).isEqualTo((byte) '!');
+    }
+
+    @Test
+    void abortedWriterLeavesNoFooter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Row groups of a few bytes, so that rows reach the stream before the abort
+        try (ParquetRecordWriter<Row> writer = new ParquetRecordWriter<>(Row.class, out, 1)) {
+            for (long id = 0; id < 200; id++) {
+                writer.write(new Row(id, 2024, 1.5, true, "Diesel", Status.APPROVED, null, null));
+            }
+            writer.abort();
+            writer.write(new Row(200L, null, null, null, null, null, null, null));
+        }
+
+        byte[] bytes = out.toByteArray();
+        assertThat(bytes.length).isGreaterThan(4);
+        assertThat(new String(bytes, bytes.length - 4, 4)).isNotEqualTo("PAR1");
+        Path file = directory.resolve("aborted.parquet");
+        Files.write(file, bytes);
+        assertThatThrownBy(() -> ParquetFileReader.open(new LocalInputFile(file)).close()).isNotNull();
+    }
+
+    private Path write(Row... rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter<Row> writer = new ParquetRecordWriter<>(Row.class, out, 1 << 20)) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+        }
+        Path file = directory.resolve("rows.parquet");
+        Files.write(file, out.toByteArray());
+        return file;
+    }
+}